@@ -0,0 +1,56 @@
+package com.duoc.hospital.benchmarks;
+
+import com.duoc.hospital.DatosDeCarga;
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.service.AtencionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Consultas de AtencionService contra la base sembrada: cada llamada pasa por el servicio, el repositorio
+// y H2, con los índices y cachés en memoria ya cargados
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AtencionServiceBenchmark {
+
+    private AtencionService atencionService;
+
+    private Date[] dias;
+
+    private int pacientes;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseSembrada base) {
+        atencionService = base.bean(AtencionService.class);
+        pacientes = base.pacientes;
+        dias = new Date[base.dias()];
+        for (int i = 0; i < dias.length; i++) {
+            dias[i] = Date.from(DatosDeCarga.PRIMER_DIA.plusDays(i).atStartOfDay(ZoneId.of("America/Santiago")).toInstant());
+        }
+    }
+
+    // Un día completo en hora de Chile: conversión del rango más la consulta con el grafo de detalle
+    @Benchmark
+    public List<Atencion> findByFechaBetween() {
+        Date dia = dias[ThreadLocalRandom.current().nextInt(dias.length)];
+        return atencionService.findByFechaBetween(dia, dia);
+    }
+
+    @Benchmark
+    public int calcularCostoTotalPaciente() {
+        return atencionService.calcularCostoTotalPaciente(1 + ThreadLocalRandom.current().nextInt(pacientes));
+    }
+
+    @Benchmark
+    public int calcularGananciaTotalAlta() {
+        return atencionService.calcularGananciaTotalAlta();
+    }
+}
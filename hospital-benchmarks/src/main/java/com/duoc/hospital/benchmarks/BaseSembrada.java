@@ -0,0 +1,54 @@
+package com.duoc.hospital.benchmarks;
+
+import com.duoc.hospital.DatosDeCarga;
+import com.duoc.hospital.HospitalApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// La aplicación completa sobre H2 en memoria (modo MySQL, mismas migraciones de Flyway), sin servidor web,
+// con los datos de DatosDeCarga (del jar de pruebas del proyecto hospital), los mismos que usan CargaApiTest
+// y HilosVirtualesBenchmarkTest. Los volúmenes son parámetros de JMH, por ejemplo
+//   -p pacientes=10000 -p atenciones=200000
+// y quedan anotados en el JSON de resultados junto a cada medición.
+@State(Scope.Benchmark)
+public class BaseSembrada {
+
+    public static final int MEDICOS = 50;
+
+    @Param({"1000"})
+    public int pacientes;
+
+    @Param({"20000"})
+    public int atenciones;
+
+    public ConfigurableApplicationContext contexto;
+
+    @Setup(Level.Trial)
+    public void levantar() {
+        contexto = new SpringApplicationBuilder(HospitalApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(DatosDeCarga.argumentosH2("benchmark"));
+        DatosDeCarga.sembrar(contexto, MEDICOS, pacientes, atenciones);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    public <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    // Días cubiertos por las atenciones sembradas
+    public int dias() {
+        return DatosDeCarga.dias(atenciones, MEDICOS);
+    }
+}
@@ -0,0 +1,65 @@
+package com.duoc.hospital.benchmarks;
+
+import com.duoc.hospital.DatosDeCarga;
+import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Prevision;
+import com.duoc.hospital.repository.PrevisionRepository;
+import com.duoc.hospital.service.PacienteService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Validaciones de PacienteService.save: campos incompletos (se corta antes de tocar índices o base),
+// RUN ya registrado (filtro de unicidad + consulta combinada) y un paciente nuevo que sí se inserta.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacienteServiceBenchmark {
+
+    private PacienteService pacienteService;
+
+    private Prevision fonasa;
+
+    private int pacientes;
+
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseSembrada base) {
+        pacienteService = base.bean(PacienteService.class);
+        fonasa = base.bean(PrevisionRepository.class).findByNombre("FONASA").orElseThrow();
+        pacientes = base.pacientes;
+        siguiente = base.pacientes;
+    }
+
+    @Benchmark
+    public String rechazarIncompleto() {
+        Paciente paciente = DatosDeCarga.paciente(1, fonasa);
+        paciente.setCorreo(null);
+        return rechazo(paciente);
+    }
+
+    @Benchmark
+    public String rechazarDuplicado() {
+        return rechazo(DatosDeCarga.paciente(1 + ThreadLocalRandom.current().nextInt(pacientes), fonasa));
+    }
+
+    // Cada llamada registra un paciente distinto: la tabla crece durante la medición, como en producción
+    @Benchmark
+    public Paciente guardarNuevo() {
+        return pacienteService.save(DatosDeCarga.paciente(++siguiente, fonasa));
+    }
+
+    private String rechazo(Paciente paciente) {
+        try {
+            pacienteService.save(paciente);
+            throw new IllegalStateException("Se esperaba que el paciente fuera rechazado.");
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.duoc.hospital.benchmarks;
+
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.repository.AtencionRepository;
+import com.duoc.hospital.service.AtencionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Solo la aritmética de fechas de findByFechaBetween (Chile -> UTC, inicio y fin de día), con un repositorio
+// que devuelve una lista vacía sin tocar la base. Separa el costo de la conversión del de la consulta.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangoFechasBenchmark {
+
+    private AtencionService atencionService;
+
+    private Date desde;
+
+    private Date hasta;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        AtencionRepository repositorio = (AtencionRepository) Proxy.newProxyInstance(
+                AtencionRepository.class.getClassLoader(), new Class<?>[]{AtencionRepository.class},
+                (proxy, metodo, args) -> List.of());
+        atencionService = new AtencionService();
+        Field campo = ReflectionUtils.findField(AtencionService.class, "atencionRepository");
+        ReflectionUtils.makeAccessible(campo);
+        ReflectionUtils.setField(campo, atencionService, repositorio);
+        ZoneId chile = ZoneId.of("America/Santiago");
+        desde = Date.from(LocalDate.of(2025, 6, 1).atStartOfDay(chile).toInstant());
+        hasta = Date.from(LocalDate.of(2025, 6, 30).atTime(15, 30).atZone(chile).toInstant());
+    }
+
+    @Benchmark
+    public List<Atencion> findByFechaBetween() {
+        return atencionService.findByFechaBetween(desde, hasta);
+    }
+}
@@ -0,0 +1,42 @@
+package com.duoc.hospital.benchmarks;
+
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.service.AtencionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización de una página de atenciones con el ObjectMapper que arma Spring (serializadores escritos
+// a mano + Blackbird). La página sale de la misma consulta paginada que usa GET /api/v1/atenciones.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"50", "500"})
+    public int tamanoPagina;
+
+    private ObjectWriter writer;
+
+    private List<Atencion> pagina;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseSembrada base) {
+        writer = base.bean(ObjectMapper.class).writer();
+        pagina = base.bean(AtencionService.class).findPagina(null, tamanoPagina).getItems();
+        if (pagina.size() < tamanoPagina) {
+            throw new IllegalStateException("Hay menos atenciones sembradas que el tamaño de página pedido.");
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarPagina() throws Exception {
+        return writer.writeValueAsBytes(pagina);
+    }
+}
@@ -0,0 +1,13 @@
+package com.duoc.hospital.reactivo;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class HospitalReactivoApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(HospitalReactivoApplication.class, args);
+    }
+
+}
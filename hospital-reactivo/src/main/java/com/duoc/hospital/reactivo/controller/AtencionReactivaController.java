@@ -0,0 +1,60 @@
+package com.duoc.hospital.reactivo.controller;
+
+import com.duoc.hospital.reactivo.dto.AtencionResumen;
+import com.duoc.hospital.reactivo.repository.AtencionLecturaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+// Equivalentes no bloqueantes de los listados de AtencionController. En vez de páginas con cursor cada
+// endpoint devuelve un flujo NDJSON (una atención por línea) que se escribe a medida que llegan las filas;
+// si el cliente lee lento, la demanda llega hasta el driver y la consulta deja de traer filas.
+// No hay 204: el estado de la respuesta se envía antes de saber si el flujo trae algo.
+@RestController
+@RequestMapping("/api/v1/reactivo/atenciones")
+public class AtencionReactivaController {
+
+    private static final ZoneId ZONA_CHILE = ZoneId.of("America/Santiago");
+
+    @Autowired
+    private AtencionLecturaRepository atencionLecturaRepository;
+
+    @GetMapping(value = "/paciente/{idPaciente}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AtencionResumen> findByPaciente(@PathVariable int idPaciente) {
+        return atencionLecturaRepository.findByPacienteId(idPaciente);
+    }
+
+    @GetMapping(value = "/medico/{idMedico}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AtencionResumen> findByMedico(@PathVariable int idMedico) {
+        return atencionLecturaRepository.findByMedicoId(idMedico);
+    }
+
+    // Desde el inicio del día 'desde' hasta el fin del día 'hasta', ambos en hora de Chile (igual que /fecha)
+    @GetMapping(value = "/fecha", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<AtencionResumen>> findBetween(@RequestParam String desde, @RequestParam String hasta) {
+        try {
+            LocalDateTime inicio = inicioDelDia(LocalDate.parse(desde));
+            LocalDateTime fin = inicioDelDia(LocalDate.parse(hasta).plusDays(1));
+            return ResponseEntity.ok(atencionLecturaRepository.findEntreFechas(inicio, fin));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/estado/{estado}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AtencionResumen> findByEstado(@PathVariable String estado) {
+        return atencionLecturaRepository.findByEstado(estado);
+    }
+
+    // Medianoche en Chile expresada en la zona de la JVM, que es como se guarda fecha_atencion
+    private static LocalDateTime inicioDelDia(LocalDate dia) {
+        return dia.atStartOfDay(ZONA_CHILE).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
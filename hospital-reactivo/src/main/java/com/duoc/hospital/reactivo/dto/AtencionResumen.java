@@ -0,0 +1,28 @@
+package com.duoc.hospital.reactivo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.Date;
+
+// Mismos campos (y mismo JSON) que com.duoc.hospital.dto.AtencionResumen del proyecto principal,
+// así un cliente puede cambiar de API sin cambiar cómo lee cada atención.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtencionResumen {
+    private int id;
+    private Date fechaAtencion;
+    private LocalTime horaInicio;
+    private int costo;
+    private String estado;
+    private String comentario;
+    private Integer idMedico;
+    private String medico;
+    private String especialidad;
+    private Integer idPaciente;
+    private String paciente;
+    private String prevision;
+}
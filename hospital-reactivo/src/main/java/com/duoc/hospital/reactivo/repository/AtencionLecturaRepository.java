@@ -0,0 +1,98 @@
+package com.duoc.hospital.reactivo.repository;
+
+import com.duoc.hospital.reactivo.dto.AtencionResumen;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+// Lecturas de atenciones con el mismo SELECT que la proyección RESUMEN de AtencionRepository, escrito en SQL
+// porque R2DBC no tiene JPQL. Cada Flux entrega filas a medida que el suscriptor las pide: el driver lee
+// de a FILAS_POR_LOTE y no trae más mientras el cliente HTTP no consuma lo que ya recibió.
+@Repository
+public class AtencionLecturaRepository {
+
+    static final int FILAS_POR_LOTE = 500;
+
+    private static final String RESUMEN =
+            "SELECT a.id, a.fecha_atencion, a.hora_inicio, a.costo, es.nombre AS estado, a.comentario, " +
+            "m.id AS id_medico, m.nombre AS nombre_medico, m.apellido AS apellido_medico, e.nombre AS especialidad, " +
+            "p.id AS id_paciente, p.nombre AS nombre_paciente, p.apellido AS apellido_paciente, pr.nombre AS prevision " +
+            "FROM atencion a JOIN estado es ON es.id = a.id_estado " +
+            "LEFT JOIN medico m ON m.id = a.id_medico LEFT JOIN especialidad e ON e.id = m.id_especialidad " +
+            "LEFT JOIN paciente p ON p.id = a.id_paciente LEFT JOIN prevision pr ON pr.id = p.prevision ";
+
+    // Mismo orden que la paginación por cursor de la API bloqueante
+    private static final String ORDEN = " ORDER BY a.fecha_atencion, a.id";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<AtencionResumen> findByPacienteId(int idPaciente) {
+        return consultar(RESUMEN + "WHERE a.id_paciente = :id" + ORDEN)
+                .bind("id", idPaciente)
+                .map(AtencionLecturaRepository::leer)
+                .all();
+    }
+
+    public Flux<AtencionResumen> findByMedicoId(int idMedico) {
+        return consultar(RESUMEN + "WHERE a.id_medico = :id" + ORDEN)
+                .bind("id", idMedico)
+                .map(AtencionLecturaRepository::leer)
+                .all();
+    }
+
+    // Rango semiabierto [inicio, fin), como findPaginaEntreFechas
+    public Flux<AtencionResumen> findEntreFechas(LocalDateTime inicio, LocalDateTime fin) {
+        return consultar(RESUMEN + "WHERE a.fecha_atencion >= :inicio AND a.fecha_atencion < :fin" + ORDEN)
+                .bind("inicio", inicio)
+                .bind("fin", fin)
+                .map(AtencionLecturaRepository::leer)
+                .all();
+    }
+
+    // Filtra por nombre del estado: un estado que no está en el catálogo simplemente no trae filas
+    public Flux<AtencionResumen> findByEstado(String estado) {
+        return consultar(RESUMEN + "WHERE es.nombre = :estado" + ORDEN)
+                .bind("estado", estado)
+                .map(AtencionLecturaRepository::leer)
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec consultar(String sql) {
+        return databaseClient.sql(sql)
+                .filter((statement, siguiente) -> siguiente.execute(statement.fetchSize(FILAS_POR_LOTE)));
+    }
+
+    // fecha_atencion es DATETIME sin zona: Hibernate la escribe en la zona de la JVM y aquí se lee igual
+    private static AtencionResumen leer(Readable fila) {
+        LocalDateTime fecha = fila.get("fecha_atencion", LocalDateTime.class);
+        Integer costo = fila.get("costo", Integer.class);
+        return new AtencionResumen(
+                fila.get("id", Integer.class),
+                fecha == null ? null : Date.from(fecha.atZone(ZoneId.systemDefault()).toInstant()),
+                fila.get("hora_inicio", LocalTime.class),
+                costo == null ? 0 : costo,
+                fila.get("estado", String.class),
+                fila.get("comentario", String.class),
+                fila.get("id_medico", Integer.class),
+                nombreCompleto(fila.get("nombre_medico", String.class), fila.get("apellido_medico", String.class)),
+                fila.get("especialidad", String.class),
+                fila.get("id_paciente", Integer.class),
+                nombreCompleto(fila.get("nombre_paciente", String.class), fila.get("apellido_paciente", String.class)),
+                fila.get("prevision", String.class));
+    }
+
+    private static String nombreCompleto(String nombre, String apellido) {
+        if (nombre == null) {
+            return null;
+        }
+        return apellido == null ? nombre : nombre + " " + apellido;
+    }
+}
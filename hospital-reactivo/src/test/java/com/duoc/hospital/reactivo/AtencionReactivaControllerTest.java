@@ -0,0 +1,102 @@
+package com.duoc.hospital.reactivo;
+
+import com.duoc.hospital.reactivo.dto.AtencionResumen;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+public class AtencionReactivaControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // Un médico, dos pacientes y tres atenciones; los estados base los crea la migración V5
+    @BeforeEach
+    void setUp() {
+        Flux.fromIterable(List.of(
+                        "DELETE FROM atencion",
+                        "DELETE FROM paciente",
+                        "DELETE FROM medico",
+                        "DELETE FROM prevision",
+                        "DELETE FROM especialidad",
+                        "INSERT INTO especialidad (id, nombre, descripcion) VALUES (1, 'CARDIOLOGIA', 'Corazón')",
+                        "INSERT INTO prevision (id, nombre, cobertura) VALUES (1, 'FONASA', '70%')",
+                        "INSERT INTO medico (id, run, nombre, apellido, fecha_contrato, sueldo_base, correo, telefono, id_especialidad) " +
+                                "VALUES (1, '11111111-1', 'Juan', 'Pérez', '2020-01-01 00:00:00', 1000000, 'juan@hospital.cl', '911111111', 1)",
+                        "INSERT INTO paciente (id, run, nombre, apellido, fecha_nacimiento, correo, telefono, prevision) " +
+                                "VALUES (1, '22222222-2', 'Ana', 'Soto', '1990-05-10', 'ana@correo.cl', '922222222', 1)",
+                        "INSERT INTO paciente (id, run, nombre, apellido, fecha_nacimiento, correo, telefono, prevision) " +
+                                "VALUES (2, '33333333-3', 'Luis', 'Rojas', '1985-03-20', 'luis@correo.cl', '933333333', 1)",
+                        "INSERT INTO atencion (id, fecha_atencion, hora_inicio, costo, comentario, id_paciente, id_medico, id_estado) " +
+                                "VALUES (1, '2025-06-10 12:00:00', '09:00:00', 50000, 'Control', 1, 1, (SELECT id FROM estado WHERE nombre = 'Alta'))",
+                        "INSERT INTO atencion (id, fecha_atencion, hora_inicio, costo, comentario, id_paciente, id_medico, id_estado) " +
+                                "VALUES (2, '2025-06-05 12:00:00', '10:00:00', 30000, 'Ingreso', 1, 1, (SELECT id FROM estado WHERE nombre = 'Pendiente'))",
+                        "INSERT INTO atencion (id, fecha_atencion, hora_inicio, costo, comentario, id_paciente, id_medico, id_estado) " +
+                                "VALUES (3, '2025-07-01 12:00:00', '11:00:00', 20000, 'Urgencia', 2, 1, (SELECT id FROM estado WHERE nombre = 'Pendiente'))"))
+                .concatMap(sql -> databaseClient.sql(sql).fetch().rowsUpdated())
+                .blockLast();
+    }
+
+    // Prueba: las atenciones de un paciente llegan como NDJSON, en orden de fecha y con nombres resueltos
+    @Test
+    void testFindByPaciente() {
+        Flux<AtencionResumen> cuerpo = webTestClient.get().uri("/api/v1/reactivo/atenciones/paciente/1")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(AtencionResumen.class)
+                .getResponseBody();
+
+        StepVerifier.create(cuerpo)
+                .assertNext(a -> {
+                    assertEquals(2, a.getId());
+                    assertEquals("Pendiente", a.getEstado());
+                    assertEquals("Juan Pérez", a.getMedico());
+                    assertEquals("CARDIOLOGIA", a.getEspecialidad());
+                    assertEquals("Ana Soto", a.getPaciente());
+                    assertEquals("FONASA", a.getPrevision());
+                })
+                .assertNext(a -> assertEquals(1, a.getId()))
+                .verifyComplete();
+    }
+
+    // Prueba: filtros por médico, rango de fechas y estado; una fecha mal escrita responde 400
+    @Test
+    void testFiltros() {
+        webTestClient.get().uri("/api/v1/reactivo/atenciones/medico/1").accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isOk()
+                .expectBodyList(AtencionResumen.class).hasSize(3);
+
+        webTestClient.get().uri("/api/v1/reactivo/atenciones/fecha?desde=2025-06-01&hasta=2025-06-30")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isOk()
+                .expectBodyList(AtencionResumen.class)
+                .value(lista -> assertEquals(List.of(2, 1), lista.stream().map(AtencionResumen::getId).toList()));
+
+        webTestClient.get().uri("/api/v1/reactivo/atenciones/estado/Pendiente").accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isOk()
+                .expectBodyList(AtencionResumen.class)
+                .value(lista -> assertEquals(List.of(2, 3), lista.stream().map(AtencionResumen::getId).toList()));
+
+        webTestClient.get().uri("/api/v1/reactivo/atenciones/fecha?desde=01-06-2025&hasta=2025-06-30")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange().expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,86 @@
+package com.duoc.hospital.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Solo con el perfil "virtual": escucha en JFR los eventos jdk.VirtualThreadPinned (un hilo virtual que se
+// bloqueó sin poder soltar su hilo portador, típicamente dentro de un synchronized o de código nativo)
+// y los agrupa por el primer marco de la aplicación, del driver de MySQL o de Hibernate en la pila.
+// La primera vez que aparece un lugar se registra con su pila; al apagar se resume cuántas veces ocurrió cada uno.
+@Component
+@Profile("virtual")
+public class AuditoriaPinning {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaPinning.class);
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final List<String> PAQUETES = List.of("com.duoc.hospital.", "com.mysql.", "org.hibernate.", "com.zaxxer.");
+    private static final int MARCOS = 12;
+
+    @Value("${hospital.virtual.umbral-pinning-ms:20}")
+    private long umbralMs;
+
+    private final Map<String, LongAdder> porLugar = new ConcurrentHashMap<>();
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(Duration.ofMillis(umbralMs)).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("Auditoría de hilos virtuales fijados activa (umbral {} ms)", umbralMs);
+    }
+
+    @PreDestroy
+    void detener() {
+        stream.close();
+        if (porLugar.isEmpty()) {
+            log.info("Auditoría de hilos virtuales: sin hilos fijados sobre {} ms", umbralMs);
+            return;
+        }
+        porLugar.forEach((lugar, veces) -> log.warn("Hilo virtual fijado {} veces en {}", veces.sum(), lugar));
+    }
+
+    public Map<String, Long> resumen() {
+        return porLugar.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+
+    private void registrar(RecordedEvent evento) {
+        RecordedStackTrace pila = evento.getStackTrace();
+        List<RecordedFrame> marcos = pila == null ? List.of() : pila.getFrames();
+        String lugar = marcos.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(AuditoriaPinning::nombre)
+                .filter(n -> PAQUETES.stream().anyMatch(n::startsWith))
+                .findFirst()
+                .orElse(marcos.isEmpty() ? "(sin pila)" : nombre(marcos.get(0)));
+        LongAdder veces = porLugar.computeIfAbsent(lugar, k -> new LongAdder());
+        veces.increment();
+        if (veces.sum() == 1) {
+            log.warn("Hilo virtual fijado {} ms en {}:\n    {}", evento.getDuration().toMillis(), lugar,
+                    marcos.stream().limit(MARCOS).map(AuditoriaPinning::nombre).collect(Collectors.joining("\n    ")));
+        }
+    }
+
+    private static String nombre(RecordedFrame marco) {
+        return marco.getMethod().getType().getName() + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+    }
+}
@@ -36,24 +36,24 @@ public class DataInitializar implements CommandLineRunner {
 
         // Si no existe la prevision FONASA, la crea
         if (!previsionRepository.existsByNombre("FONASA")) {
-            previsionRepository.save(new Prevision(0, "FONASA", "50%", null));
+            previsionRepository.save(new Prevision(0, "FONASA", "50%", 5000, null));
         }
         // Si no existe la prevision ISAPRE, la crea
         if (!previsionRepository.existsByNombre("ISAPRE")) {
-            previsionRepository.save(new Prevision(0, "ISAPRE", "60%", null));
+            previsionRepository.save(new Prevision(0, "ISAPRE", "60%", 6000, null));
         }
 
         // Si no existe el estado Alta, lo crea
         if (!estadoRepository.existsByNombre("Alta")) {
-            estadoRepository.save(new Estado(0, "Alta", "Paciente en estado libre", null));
+            estadoRepository.save(new Estado((short) 0, "Alta", "Paciente en estado libre"));
         }
         // Si no existe el estado Pendiente, lo crea
         if (!estadoRepository.existsByNombre("Pendiente")) {
-            estadoRepository.save(new Estado(0, "Pendiente", "Paciente a espera de ser atendido", null));
+            estadoRepository.save(new Estado((short) 0, "Pendiente", "Paciente a espera de ser atendido"));
         }
         // Si no existe el estado Hospitalizado, lo crea
         if (!estadoRepository.existsByNombre("Hospitalizado")) {
-            estadoRepository.save(new Estado(0, "Hospitalizado", "Paciente hospitalizado", null));
+            estadoRepository.save(new Estado((short) 0, "Hospitalizado", "Paciente hospitalizado"));
         }
     }
 }
\ No newline at end of file
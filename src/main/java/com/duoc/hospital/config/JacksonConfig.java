@@ -0,0 +1,24 @@
+package com.duoc.hospital.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Spring Boot registra en el ObjectMapper compartido todo bean de tipo Module
+@Configuration
+public class JacksonConfig {
+
+    // Las entidades de las respuestas más pesadas (atenciones, médicos, pacientes) se escriben a mano
+    @Bean
+    public Module serializadoresRespuesta() {
+        return SerializadoresRespuesta.modulo();
+    }
+
+    // El resto de los tipos (DTOs de reportes y cuerpos de entrada) usa accesores generados con
+    // LambdaMetafactory en vez de reflexión
+    @Bean
+    public Module blackbird() {
+        return new BlackbirdModule();
+    }
+}
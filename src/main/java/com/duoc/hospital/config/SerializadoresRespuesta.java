@@ -0,0 +1,200 @@
+package com.duoc.hospital.config;
+
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.model.Especialidad;
+import com.duoc.hospital.model.Medico;
+import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Prevision;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Serializadores escritos a mano para las entidades que más se listan. Escriben los mismos campos,
+// en el mismo orden y con el mismo formato que la serialización por reflexión (los campos con
+// @JsonIgnore no salen), pero sin recorrer propiedades ni pasar por getters genéricos: cada objeto
+// anidado se escribe llamando directo a su serializador. Los nombres van precodificados.
+// Las fechas usan el serializador que el ObjectMapper tenga para su clase real, así respetan su configuración.
+public final class SerializadoresRespuesta {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString RUN = new SerializedString("run");
+    private static final SerializableString NOMBRE = new SerializedString("nombre");
+    private static final SerializableString APELLIDO = new SerializedString("apellido");
+    private static final SerializableString CORREO = new SerializedString("correo");
+    private static final SerializableString TELEFONO = new SerializedString("telefono");
+    private static final SerializableString DESCRIPCION = new SerializedString("descripcion");
+    private static final SerializableString COBERTURA = new SerializedString("cobertura");
+    private static final SerializableString COBERTURA_PB = new SerializedString("coberturaPb");
+    private static final SerializableString FECHA_CONTRATO = new SerializedString("fecha_contrato");
+    private static final SerializableString SUELDO_BASE = new SerializedString("sueldoBase");
+    private static final SerializableString ESPECIALIDAD_MEDICO = new SerializedString("especialidadMedico");
+    private static final SerializableString FECHA_NACIMIENTO = new SerializedString("fechaNacimiento");
+    private static final SerializableString PREVISION = new SerializedString("prevision");
+    private static final SerializableString DEUDA = new SerializedString("deuda");
+    private static final SerializableString FECHA_ATENCION = new SerializedString("fechaAtencion");
+    private static final SerializableString HORA_INICIO = new SerializedString("horaInicio");
+    private static final SerializableString COSTO = new SerializedString("costo");
+    private static final SerializableString COMENTARIO = new SerializedString("comentario");
+    private static final SerializableString ESTADO = new SerializedString("estado");
+    private static final SerializableString PACIENTE = new SerializedString("paciente");
+    private static final SerializableString MEDICO = new SerializedString("medico");
+
+    static final EspecialidadSerializer ESPECIALIDAD = new EspecialidadSerializer();
+    static final PrevisionSerializer PREVISIONES = new PrevisionSerializer();
+    static final MedicoSerializer MEDICOS = new MedicoSerializer();
+    static final PacienteSerializer PACIENTES = new PacienteSerializer();
+    static final AtencionSerializer ATENCIONES = new AtencionSerializer();
+
+    private SerializadoresRespuesta() {
+    }
+
+    public static SimpleModule modulo() {
+        SimpleModule modulo = new SimpleModule("SerializadoresRespuesta");
+        modulo.addSerializer(Especialidad.class, ESPECIALIDAD);
+        modulo.addSerializer(Prevision.class, PREVISIONES);
+        modulo.addSerializer(Medico.class, MEDICOS);
+        modulo.addSerializer(Paciente.class, PACIENTES);
+        modulo.addSerializer(Atencion.class, ATENCIONES);
+        return modulo;
+    }
+
+    static final class EspecialidadSerializer extends StdSerializer<Especialidad> {
+        EspecialidadSerializer() {
+            super(Especialidad.class);
+        }
+
+        @Override
+        public void serialize(Especialidad e, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(e);
+            gen.writeFieldName(ID);
+            gen.writeNumber(e.getId());
+            gen.writeFieldName(NOMBRE);
+            gen.writeString(e.getNombre());
+            gen.writeFieldName(DESCRIPCION);
+            gen.writeString(e.getDescripcion());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class PrevisionSerializer extends StdSerializer<Prevision> {
+        PrevisionSerializer() {
+            super(Prevision.class);
+        }
+
+        @Override
+        public void serialize(Prevision p, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(p);
+            gen.writeFieldName(ID);
+            gen.writeNumber(p.getId());
+            gen.writeFieldName(NOMBRE);
+            gen.writeString(p.getNombre());
+            gen.writeFieldName(COBERTURA);
+            gen.writeString(p.getCobertura());
+            gen.writeFieldName(COBERTURA_PB);
+            gen.writeNumber(p.getCoberturaPb());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class MedicoSerializer extends StdSerializer<Medico> {
+        MedicoSerializer() {
+            super(Medico.class);
+        }
+
+        @Override
+        public void serialize(Medico m, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(m);
+            gen.writeFieldName(ID);
+            gen.writeNumber(m.getId());
+            gen.writeFieldName(RUN);
+            gen.writeString(m.getRun());
+            gen.writeFieldName(NOMBRE);
+            gen.writeString(m.getNombre());
+            gen.writeFieldName(APELLIDO);
+            gen.writeString(m.getApellido());
+            gen.writeFieldName(FECHA_CONTRATO);
+            provider.defaultSerializeValue(m.getFecha_contrato(), gen);
+            gen.writeFieldName(SUELDO_BASE);
+            gen.writeNumber(m.getSueldoBase());
+            gen.writeFieldName(CORREO);
+            gen.writeString(m.getCorreo());
+            gen.writeFieldName(TELEFONO);
+            gen.writeString(m.getTelefono());
+            gen.writeFieldName(ESPECIALIDAD_MEDICO);
+            escribir(m.getEspecialidadMedico(), ESPECIALIDAD, gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class PacienteSerializer extends StdSerializer<Paciente> {
+        PacienteSerializer() {
+            super(Paciente.class);
+        }
+
+        @Override
+        public void serialize(Paciente p, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(p);
+            gen.writeFieldName(ID);
+            gen.writeNumber(p.getId());
+            gen.writeFieldName(RUN);
+            gen.writeString(p.getRun());
+            gen.writeFieldName(NOMBRE);
+            gen.writeString(p.getNombre());
+            gen.writeFieldName(APELLIDO);
+            gen.writeString(p.getApellido());
+            gen.writeFieldName(FECHA_NACIMIENTO);
+            provider.defaultSerializeValue(p.getFechaNacimiento(), gen);
+            gen.writeFieldName(CORREO);
+            gen.writeString(p.getCorreo());
+            gen.writeFieldName(TELEFONO);
+            gen.writeString(p.getTelefono());
+            gen.writeFieldName(PREVISION);
+            escribir(p.getPrevision(), PREVISIONES, gen, provider);
+            gen.writeFieldName(DEUDA);
+            gen.writeNumber(p.getDeuda());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AtencionSerializer extends StdSerializer<Atencion> {
+        AtencionSerializer() {
+            super(Atencion.class);
+        }
+
+        @Override
+        public void serialize(Atencion a, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(a);
+            gen.writeFieldName(ID);
+            gen.writeNumber(a.getId());
+            gen.writeFieldName(FECHA_ATENCION);
+            provider.defaultSerializeValue(a.getFechaAtencion(), gen);
+            gen.writeFieldName(HORA_INICIO);
+            provider.defaultSerializeValue(a.getHoraInicio(), gen);
+            gen.writeFieldName(COSTO);
+            gen.writeNumber(a.getCosto());
+            gen.writeFieldName(COMENTARIO);
+            gen.writeString(a.getComentario());
+            gen.writeFieldName(ESTADO);
+            gen.writeString(a.getEstado());
+            gen.writeFieldName(PACIENTE);
+            escribir(a.getPaciente(), PACIENTES, gen, provider);
+            gen.writeFieldName(MEDICO);
+            escribir(a.getMedico(), MEDICOS, gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    private static <T> void escribir(T valor, StdSerializer<T> serializador, JsonGenerator gen,
+                                     SerializerProvider provider) throws IOException {
+        if (valor == null) {
+            gen.writeNull();
+        } else {
+            serializador.serialize(valor, gen, provider);
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.duoc.hospital.controller;
 
+import com.duoc.hospital.dto.AtencionResumen;
+import com.duoc.hospital.dto.ConteoEstados;
+import com.duoc.hospital.dto.PaginaCursor;
+import com.duoc.hospital.dto.ResultadoLote;
+import com.duoc.hospital.dto.ResultadoReconstruccion;
+import com.duoc.hospital.dto.TotalGanancias;
 import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.service.AtencionLoteService;
 import com.duoc.hospital.service.AtencionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,11 +16,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -26,20 +37,53 @@ public class AtencionController {
     @Autowired
     private AtencionService atencionService;
 
+    @Autowired
+    private AtencionLoteService atencionLoteService;
+
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
 
     @GetMapping
-    @Operation(summary = "Obtener todas las atenciones", description = "Devuelve la lista de todas las atenciones registradas")
+    @Operation(summary = "Obtener todas las atenciones", description = "Devuelve las atenciones registradas paginadas por cursor, ordenadas por fecha e ID")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Lista de atenciones obtenida exitosamente"),
-            @ApiResponse(responseCode = "204", description = "No hay atenciones registradas")
+            @ApiResponse(responseCode = "200", description = "Página de atenciones obtenida exitosamente"),
+            @ApiResponse(responseCode = "204", description = "No hay atenciones registradas"),
+            @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
     })
-    public ResponseEntity<List<Atencion>> getAll() {
-        List<Atencion> atenciones = atencionService.findAll();
-        if (atenciones.isEmpty()) {
-            return ResponseEntity.noContent().build();
+    public ResponseEntity<PaginaCursor<Atencion>> getAll(
+            @Parameter(description = "Cursor devuelto en 'siguiente' por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de atenciones por página", example = "50")
+            @RequestParam(defaultValue = "" + AtencionService.LIMITE_POR_DEFECTO) int limit) {
+        try {
+            return responderPagina(atencionService.findPagina(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar atenciones (NDJSON)",
+            description = "Transmite todas las atenciones, o las de un rango de fechas (yyyy-MM-dd), como una línea JSON por atención")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exportación en curso (una línea JSON por registro)"),
+            @ApiResponse(responseCode = "400", description = "Formato de fecha inválido o rango incompleto")
+    })
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Fecha de inicio (yyyy-MM-dd)", example = "2025-06-01")
+            @RequestParam(required = false) String desde,
+            @Parameter(description = "Fecha de fin (yyyy-MM-dd)", example = "2025-06-30")
+            @RequestParam(required = false) String hasta) {
+        if ((desde == null) != (hasta == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Date d1 = desde == null ? null : dateFormat.parse(desde);
+            Date d2 = hasta == null ? null : dateFormat.parse(hasta);
+            StreamingResponseBody cuerpo = salida -> atencionService.exportar(salida, d1, d2);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+        } catch (ParseException e) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(atenciones);
     }
 
     @GetMapping("/{id}")
@@ -56,48 +100,104 @@ public class AtencionController {
     @Operation(summary = "Crear nueva atención", description = "Registra una nueva atención médica en el sistema")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Atención creada exitosamente"),
-            @ApiResponse(responseCode = "400", description = "Datos inválidos para la creación de la atención")
+            @ApiResponse(responseCode = "400", description = "Datos inválidos para la creación de la atención"),
+            @ApiResponse(responseCode = "409", description = "El médico ya tiene una atención en ese horario")
     })
     public ResponseEntity<Atencion> create(@RequestBody Atencion atencion) {
-        Atencion saved = atencionService.save(atencion);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        try {
+            Atencion saved = atencionService.save(atencion);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Carga masiva de atenciones",
+            description = "Registra hasta " + AtencionLoteService.MAXIMO_LOTE + " atenciones en una sola solicitud. " +
+                    "Devuelve el resultado de cada atención y el rendimiento de la carga (filas/s)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote procesado; revisar el resultado de cada atención"),
+            @ApiResponse(responseCode = "400", description = "Lote vacío o demasiado grande")
+    })
+    public ResponseEntity<ResultadoLote> createBatch(@RequestBody List<Atencion> atenciones) {
+        try {
+            return ResponseEntity.ok(atencionLoteService.guardarLote(atenciones));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/ganancias")
+    @Operation(summary = "Ganancias por rango de días",
+            description = "Suma la cantidad y el costo de las atenciones de un estado entre dos días (yyyy-MM-dd, inclusive), " +
+                    "opcionalmente de un solo médico. Se calcula desde el resumen diario, sin recorrer las atenciones")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ganancias calculadas exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Fechas inválidas o rango invertido")
+    })
+    public ResponseEntity<TotalGanancias> getGanancias(
+            @Parameter(description = "Primer día (yyyy-MM-dd)", example = "2025-06-01", required = true)
+            @RequestParam String desde,
+            @Parameter(description = "Último día, inclusive (yyyy-MM-dd)", example = "2025-06-30", required = true)
+            @RequestParam String hasta,
+            @Parameter(description = "Estado de las atenciones a sumar", example = "Alta")
+            @RequestParam(defaultValue = "Alta") String estado,
+            @Parameter(description = "ID del médico; si se omite, se suman todos", example = "1")
+            @RequestParam(required = false) Integer idMedico) {
+        try {
+            return ResponseEntity.ok(atencionService.calcularGanancias(
+                    LocalDate.parse(desde), LocalDate.parse(hasta), estado, idMedico));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/ganancias/reconstruir")
+    @Operation(summary = "Reconstruir resumen de ganancias",
+            description = "Recalcula el resumen diario desde la tabla de atenciones e informa cuántas filas no coincidían")
+    @ApiResponse(responseCode = "200", description = "Resumen reconstruido exitosamente")
+    public ResponseEntity<ResultadoReconstruccion> reconstruirGanancias() {
+        return ResponseEntity.ok(atencionService.reconstruirResumenDiario());
     }
 
     @GetMapping("/fecha/{fecha}")
-    @Operation(summary = "Buscar atenciones por fecha", description = "Obtiene atenciones de una fecha específica (yyyy-MM-dd)")
+    @Operation(summary = "Buscar atenciones por fecha", description = "Obtiene atenciones de una fecha específica (yyyy-MM-dd), paginadas por cursor")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Atenciones obtenidas exitosamente"),
             @ApiResponse(responseCode = "204", description = "No se encontraron atenciones para la fecha especificada"),
-            @ApiResponse(responseCode = "400", description = "Formato de fecha inválido")
+            @ApiResponse(responseCode = "400", description = "Formato de fecha, cursor o límite inválido")
     })
-    public ResponseEntity<List<Atencion>> findByFecha(
+    public ResponseEntity<PaginaCursor<Atencion>> findByFecha(
             @Parameter(
                     name = "fecha",
                     description = "Fecha en formato yyyy-MM-dd",
                     example = "2025-06-01",
                     required = true
             )
-            @PathVariable String fecha) {
+            @PathVariable String fecha,
+            @Parameter(description = "Cursor devuelto en 'siguiente' por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de atenciones por página", example = "50")
+            @RequestParam(defaultValue = "" + AtencionService.LIMITE_POR_DEFECTO) int limit) {
         try {
             Date date = dateFormat.parse(fecha);
-            List<Atencion> result = atencionService.findByFecha(date);
-            if (result.isEmpty()) {
-                return ResponseEntity.noContent().build();
-            }
-            return ResponseEntity.ok(result);
-        } catch (ParseException e) {
+            return responderPagina(atencionService.findPaginaByFecha(date, after, limit));
+        } catch (ParseException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/fecha")
-    @Operation(summary = "Buscar atenciones entre fechas", description = "Obtiene atenciones entre dos fechas dadas (yyyy-MM-dd)")
+    @Operation(summary = "Buscar atenciones entre fechas", description = "Obtiene atenciones entre dos fechas dadas (yyyy-MM-dd), paginadas por cursor")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Atenciones obtenidas exitosamente"),
             @ApiResponse(responseCode = "204", description = "No se encontraron atenciones en el rango de fechas especificado"),
-            @ApiResponse(responseCode = "400", description = "Formato de fecha inválido")
+            @ApiResponse(responseCode = "400", description = "Formato de fecha, cursor o límite inválido")
     })
-    public ResponseEntity<List<Atencion>> findBetween(
+    public ResponseEntity<PaginaCursor<Atencion>> findBetween(
             @Parameter(
                     name = "desde",
                     description = "Fecha de inicio (yyyy-MM-dd)",
@@ -111,39 +211,94 @@ public class AtencionController {
                     example = "2025-06-30",
                     required = true
             )
-            @RequestParam String hasta) {
+            @RequestParam String hasta,
+            @Parameter(description = "Cursor devuelto en 'siguiente' por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de atenciones por página", example = "50")
+            @RequestParam(defaultValue = "" + AtencionService.LIMITE_POR_DEFECTO) int limit) {
         try {
             Date d1 = dateFormat.parse(desde);
             Date d2 = dateFormat.parse(hasta);
-            List<Atencion> result = atencionService.findByFechaBetween(d1, d2);
-            if (result.isEmpty()) {
-                return ResponseEntity.noContent().build();
-            }
-            return ResponseEntity.ok(result);
-        } catch (ParseException e) {
+            return responderPagina(atencionService.findPaginaByFechaBetween(d1, d2, after, limit));
+        } catch (ParseException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/estado/contadores")
+    @Operation(summary = "Contar atenciones por estado",
+            description = "Devuelve cuántas atenciones hay en cada estado desde contadores en memoria, sin consultar la tabla")
+    @ApiResponse(responseCode = "200", description = "Contadores obtenidos exitosamente")
+    public ResponseEntity<ConteoEstados> getContadoresPorEstado() {
+        return ResponseEntity.ok(atencionService.contarPorEstado());
+    }
+
     @GetMapping("/estado/{estado}") // Nuevo endpoint para buscar por estado
-    @Operation(summary = "Buscar atenciones por estado", description = "Obtiene atenciones según un estado específico")
+    @Operation(summary = "Buscar atenciones por estado", description = "Obtiene atenciones según un estado específico, paginadas por cursor")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Atenciones obtenidas exitosamente"),
-            @ApiResponse(responseCode = "204", description = "No se encontraron atenciones con el estado especificado")
+            @ApiResponse(responseCode = "204", description = "No se encontraron atenciones con el estado especificado"),
+            @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
     })
-    public ResponseEntity<List<Atencion>> findByEstado(
+    public ResponseEntity<PaginaCursor<Atencion>> findByEstado(
             @Parameter(
                     name = "estado",
                     description = "Estado de la atención (ej. Pendiente, Realizada, Cancelada)",
                     example = "Pendiente",
                     required = true
             )
-            @PathVariable String estado) {
-        List<Atencion> result = atencionService.findByEstado(estado);
-        if (result.isEmpty()) {
-            return ResponseEntity.noContent().build();
+            @PathVariable String estado,
+            @Parameter(description = "Cursor devuelto en 'siguiente' por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de atenciones por página", example = "50")
+            @RequestParam(defaultValue = "" + AtencionService.LIMITE_POR_DEFECTO) int limit) {
+        try {
+            return responderPagina(atencionService.findPaginaByEstado(estado, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/medico/{idMedico}")
+    @Operation(summary = "Listar atenciones de un médico", description = "Devuelve un resumen de las atenciones de un médico, paginado por cursor")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Atenciones obtenidas exitosamente"),
+            @ApiResponse(responseCode = "204", description = "El médico no tiene atenciones"),
+            @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
+    })
+    public ResponseEntity<PaginaCursor<AtencionResumen>> findByMedico(
+            @Parameter(description = "ID del médico", example = "1", required = true)
+            @PathVariable int idMedico,
+            @Parameter(description = "Cursor devuelto en 'siguiente' por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de atenciones por página", example = "50")
+            @RequestParam(defaultValue = "" + AtencionService.LIMITE_POR_DEFECTO) int limit) {
+        try {
+            return responderPagina(atencionService.findResumenByMedicoId(idMedico, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/paciente/{idPaciente}")
+    @Operation(summary = "Listar atenciones de un paciente", description = "Devuelve un resumen de las atenciones de un paciente, paginado por cursor")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Atenciones obtenidas exitosamente"),
+            @ApiResponse(responseCode = "204", description = "El paciente no tiene atenciones"),
+            @ApiResponse(responseCode = "400", description = "Cursor o límite inválido")
+    })
+    public ResponseEntity<PaginaCursor<AtencionResumen>> findByPaciente(
+            @Parameter(description = "ID del paciente", example = "1", required = true)
+            @PathVariable int idPaciente,
+            @Parameter(description = "Cursor devuelto en 'siguiente' por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de atenciones por página", example = "50")
+            @RequestParam(defaultValue = "" + AtencionService.LIMITE_POR_DEFECTO) int limit) {
+        try {
+            return responderPagina(atencionService.findResumenByPacienteId(idPaciente, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{id}")
@@ -151,13 +306,18 @@ public class AtencionController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Atención actualizada exitosamente"),
             @ApiResponse(responseCode = "404", description = "Atención no encontrada"),
-            @ApiResponse(responseCode = "400", description = "Datos inválidos")
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "409", description = "El médico ya tiene una atención en ese horario")
     })
 
     public ResponseEntity<Atencion> update(@PathVariable Integer id, @RequestBody Atencion atencionActualizada) {
-        Optional<Atencion> updated = atencionService.update(id, atencionActualizada);
-        return updated.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        try {
+            Optional<Atencion> updated = atencionService.update(id, atencionActualizada);
+            return updated.map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -174,4 +334,11 @@ public class AtencionController {
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
+
+    private <T> ResponseEntity<PaginaCursor<T>> responderPagina(PaginaCursor<T> pagina) {
+        if (pagina.getItems().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(pagina);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.duoc.hospital.controller;
+
+import com.duoc.hospital.dto.EstadisticaCache;
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+import com.duoc.hospital.service.CacheRegistros;
+import com.duoc.hospital.service.CatalogoEspecialidades;
+import com.duoc.hospital.service.CatalogoEstados;
+import com.duoc.hospital.service.TablaCoberturas;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Catalogos", description = "Catálogos de referencia y cachés servidos desde memoria")
+@RestController
+@RequestMapping("/api/v1/catalogos")
+public class CatalogoController {
+
+    @Autowired
+    private CatalogoEspecialidades catalogoEspecialidades;
+
+    @Autowired
+    private TablaCoberturas tablaCoberturas;
+
+    @Autowired
+    private CatalogoEstados catalogoEstados;
+
+    @Autowired
+    private CacheRegistros cacheRegistros;
+
+    @GetMapping("/estadisticas")
+    @Operation(summary = "Uso de los catálogos en memoria",
+            description = "Versión, tamaño, aciertos y fallos de especialidades, previsiones y estados")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
+    })
+    public ResponseEntity<List<EstadisticaCatalogo>> estadisticas() {
+        return ResponseEntity.ok(List.of(
+                catalogoEspecialidades.estadistica(),
+                tablaCoberturas.estadistica(),
+                catalogoEstados.estadistica()));
+    }
+
+    @GetMapping("/caches")
+    @Operation(summary = "Uso de las cachés de médicos y pacientes",
+            description = "Entradas, aciertos, fallos, desalojos, vencidas e invalidaciones de cada caché acotada, "
+                    + "para dimensionar hospital.cache.*")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
+    })
+    public ResponseEntity<List<EstadisticaCache>> caches() {
+        return ResponseEntity.ok(cacheRegistros.estadisticas());
+    }
+}
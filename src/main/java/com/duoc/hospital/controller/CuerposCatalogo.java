@@ -0,0 +1,107 @@
+package com.duoc.hospital.controller;
+
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Respuestas de los listados de catálogos (estados, previsiones, especialidades), ya serializadas y comprimidas.
+// Cada catálogo guarda el JSON y su versión gzip junto a la versión de la copia en memoria de la que salieron;
+// mientras la versión no cambie, responder es copiar bytes. El ETag es un hash del JSON, así dos instancias
+// con los mismos datos entregan el mismo ETag. Spring compara If-None-Match con el ETag del ResponseEntity
+// y responde 304 sin cuerpo. No se envía Last-Modified: la hora de carga de cada instancia, con resolución
+// de un segundo, podía contradecir al ETag y validar con 304 un cuerpo que ya no es el mismo.
+@Component
+public class CuerposCatalogo {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, Cuerpo> cuerpos = new ConcurrentHashMap<>();
+
+    private ObjectWriter writer;
+
+    @PostConstruct
+    void configurar() {
+        writer = objectMapper.writer();
+    }
+
+    private record Cuerpo(long version, boolean vacio, byte[] json, byte[] gzip, String etag) {
+    }
+
+    // 'estado' se lee antes que 'datos': en una carrera con una recarga, los bytes guardados pueden ser
+    // más nuevos que la versión anotada, nunca más viejos, y lo único que cuesta es volver a serializar
+    public ResponseEntity<byte[]> responder(String catalogo, EstadisticaCatalogo estado, Supplier<List<?>> datos,
+                                            String aceptaCodificacion) {
+        Cuerpo cuerpo = cuerpos.get(catalogo);
+        if (cuerpo == null || cuerpo.version() != estado.getVersion()) {
+            cuerpo = serializar(estado, datos.get());
+            cuerpos.put(catalogo, cuerpo);
+        }
+        if (cuerpo.vacio()) {
+            return ResponseEntity.noContent().build();
+        }
+        boolean gzip = cuerpo.gzip() != null && aceptaGzip(aceptaCodificacion);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            // Otra representación, otro ETag
+            return respuesta.eTag(cuerpo.etag() + "-gz").header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cuerpo.gzip());
+        }
+        return respuesta.eTag(cuerpo.etag()).body(cuerpo.json());
+    }
+
+    private Cuerpo serializar(EstadisticaCatalogo estado, List<?> datos) {
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo " + estado.getCatalogo(), e);
+        }
+        byte[] gzip = comprimir(json);
+        // Con pocos bytes gzip sale más largo que el original; en ese caso no se ofrece
+        return new Cuerpo(estado.getVersion(), datos.isEmpty(), json, gzip.length < json.length ? gzip : null,
+                DigestUtils.md5DigestAsHex(json));
+    }
+
+    private static byte[] comprimir(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private static boolean aceptaGzip(String aceptaCodificacion) {
+        if (aceptaCodificacion == null) {
+            return false;
+        }
+        for (String parte : aceptaCodificacion.split(",")) {
+            String[] valor = parte.trim().split(";");
+            if (valor[0].trim().equalsIgnoreCase("gzip")) {
+                return valor.length < 2 || !valor[1].trim().matches("(?i)q\\s*=\\s*0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
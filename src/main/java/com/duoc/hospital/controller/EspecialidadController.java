@@ -4,14 +4,18 @@ package com.duoc.hospital.controller;
 import com.duoc.hospital.model.Especialidad;
 import com.duoc.hospital.service.EspecialidadService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Tag(name = "Especialidades", description = "Operaciones relacionadas con las especialidades médicas")
 @RestController
 @RequestMapping("/api/v1/especialidades")
@@ -20,15 +24,21 @@ public class EspecialidadController {
     @Autowired
     private EspecialidadService especialidadService;
 
+    @Autowired
+    private CuerposCatalogo cuerposCatalogo;
+
     @GetMapping
     @Operation(summary = "Obtener todas las especialidades",
             description = "Devuelve la lista de todas las especialidades registradas")
-    public ResponseEntity<List<Especialidad>> getAll() {
-        List<Especialidad> list = especialidadService.findAll();
-        if (list.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(list);
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lista obtenida; gzip si el cliente lo acepta",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Especialidad.class)))),
+            @ApiResponse(responseCode = "204", description = "No hay registros"),
+            @ApiResponse(responseCode = "304", description = "El ETag de If-None-Match sigue vigente")
+    })
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion) {
+        return cuerposCatalogo.responder("especialidades", especialidadService.estadistica(), especialidadService::findAll, aceptaCodificacion);
     }
 
     @GetMapping("/{id}")
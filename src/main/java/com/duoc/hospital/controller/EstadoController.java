@@ -4,14 +4,18 @@ package com.duoc.hospital.controller;
 import com.duoc.hospital.model.Estado;
 import com.duoc.hospital.service.EstadoService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Tag(name = "Estados", description = "Operaciones relacionadas con los estados de las solicitudes")
 @RestController
 @RequestMapping("/api/v1/estados")
@@ -20,14 +24,20 @@ public class EstadoController {
     @Autowired
     private EstadoService estadoService;
 
+    @Autowired
+    private CuerposCatalogo cuerposCatalogo;
+
     @GetMapping
     @Operation(summary = "Obtener todos los estados", description = "Devuelve la lista de todos los estados registrados")
-    public ResponseEntity<List<Estado>> getAll() {
-        List<Estado> list = estadoService.findAll();
-        if (list.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(list);
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lista obtenida; gzip si el cliente lo acepta",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Estado.class)))),
+            @ApiResponse(responseCode = "204", description = "No hay registros"),
+            @ApiResponse(responseCode = "304", description = "El ETag de If-None-Match sigue vigente")
+    })
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion) {
+        return cuerposCatalogo.responder("estados", estadoService.estadistica(), estadoService::findAll, aceptaCodificacion);
     }
 
     @GetMapping("/{id}")
@@ -1,5 +1,7 @@
 package com.duoc.hospital.controller;
 
+import com.duoc.hospital.dto.CupoDisponible;
+import com.duoc.hospital.dto.Histograma;
 import com.duoc.hospital.model.Medico;
 import com.duoc.hospital.service.MedicoService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,8 +11,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional; // Importación necesaria para Optional
@@ -36,6 +40,41 @@ public class MedicoController {
                 : ResponseEntity.ok(list);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar médicos (NDJSON)", description = "Transmite todos los médicos como una línea JSON por médico")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exportación en curso (una línea JSON por registro)")
+    })
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = medicoService::exportar;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
+
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar médicos por nombre",
+            description = "Búsqueda aproximada por nombre y apellido: ignora acentos y mayúsculas, tolera errores de tipeo "
+                    + "y ordena del más al menos parecido.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Médicos encontrados"),
+            @ApiResponse(responseCode = "204", description = "Ningún médico se parece a la búsqueda"),
+            @ApiResponse(responseCode = "400", description = "Texto vacío o límite fuera de 1..100")
+    })
+    public ResponseEntity<List<Medico>> buscar(
+            @Parameter(description = "Nombre, apellido o parte de ellos", example = "maria gonzalez", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Cantidad máxima de resultados (1..100)", example = "20")
+            @RequestParam(defaultValue = "20") int limite
+    ) {
+        try {
+            List<Medico> medicos = medicoService.buscar(q, limite);
+            return medicos.isEmpty()
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.ok(medicos);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar médico por ID", description = "Recupera un médico específico usando su identificador único")
     @ApiResponses({
@@ -106,6 +145,24 @@ public class MedicoController {
 
     // --- NUEVOS Y MODIFICADOS ENDPOINTS DE BÚSQUEDA Y SUELDO ---
 
+    @GetMapping("/reportes/antiguedad")
+    @Operation(summary = "Histograma de antigüedad",
+            description = "Cuenta médicos por años de antigüedad (un tramo por año, o el ancho indicado) sin devolver los médicos")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Conteo por tramo"),
+            @ApiResponse(responseCode = "400", description = "Ancho de tramo fuera de 1..60")
+    })
+    public ResponseEntity<Histograma> getHistogramaAntiguedad(
+            @Parameter(description = "Años por tramo", example = "1")
+            @RequestParam(defaultValue = "1") int ancho
+    ) {
+        try {
+            return ResponseEntity.ok(medicoService.histogramaAntiguedad(ancho));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/antiguedad/{years}")
     @Operation(summary = "Buscar médicos por años de antigüedad",
             description = "Recupera médicos con exactamente N años de antigüedad en la institución")
@@ -140,6 +197,22 @@ public class MedicoController {
                 : ResponseEntity.ok(medicos);
     }
 
+    @GetMapping("/especialidad/{nombreEspecialidad}/proximo-cupo")
+    @Operation(summary = "Próximo cupo por especialidad",
+            description = "Busca el primer horario libre, desde ahora, entre todos los médicos de una especialidad.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Cupo encontrado"),
+            @ApiResponse(responseCode = "204", description = "No hay médicos de la especialidad o no quedan cupos en los próximos días")
+    })
+    public ResponseEntity<CupoDisponible> getProximoCupo(
+            @Parameter(description = "Nombre de la especialidad", example = "MEDICINA GENERAL", required = true)
+            @PathVariable String nombreEspecialidad
+    ) {
+        return medicoService.findProximoCupo(nombreEspecialidad)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.noContent().build());
+    }
+
     @GetMapping("/{id}/sueldo-base") // Endpoint para el sueldo base
     @Operation(summary = "Obtener sueldo base de médico",
             description = "Recupera el sueldo base de un médico específico usando su ID.")
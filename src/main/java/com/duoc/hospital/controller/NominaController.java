@@ -0,0 +1,106 @@
+package com.duoc.hospital.controller;
+
+import com.duoc.hospital.model.Nomina;
+import com.duoc.hospital.service.NominaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@Tag(name = "Nominas", description = "Liquidación mensual de sueldos de los médicos")
+@RestController
+@RequestMapping("/api/v1/nominas")
+public class NominaController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    @Autowired
+    private NominaService nominaService;
+
+    @PostMapping
+    @Operation(summary = "Generar liquidación del mes",
+            description = "Calcula sueldo base + " + NominaService.COMISION_PORCENTAJE + "% de las atenciones del mes " +
+                    "para todos los médicos en una sola consulta, y guarda el resultado como una liquidación inmutable")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Liquidación generada"),
+            @ApiResponse(responseCode = "400", description = "Período inválido")
+    })
+    public ResponseEntity<Nomina> liquidar(
+            @Parameter(description = "Mes a liquidar (yyyy-MM)", example = "2025-06", required = true)
+            @RequestParam String periodo) {
+        try {
+            Nomina nomina = nominaService.liquidar(NominaService.leerPeriodo(periodo));
+            return ResponseEntity.status(HttpStatus.CREATED).body(nomina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "Liquidaciones de un mes", description = "Lista las liquidaciones generadas para un mes, la más reciente primero")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Liquidaciones obtenidas exitosamente"),
+            @ApiResponse(responseCode = "204", description = "No hay liquidaciones para el mes"),
+            @ApiResponse(responseCode = "400", description = "Período inválido")
+    })
+    public ResponseEntity<List<Nomina>> findByPeriodo(
+            @Parameter(description = "Mes (yyyy-MM)", example = "2025-06", required = true)
+            @RequestParam String periodo) {
+        try {
+            List<Nomina> nominas = nominaService.findByPeriodo(NominaService.leerPeriodo(periodo));
+            return nominas.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(nominas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtener liquidación por ID", description = "Devuelve los totales de una liquidación guardada")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Liquidación encontrada"),
+            @ApiResponse(responseCode = "404", description = "Liquidación no encontrada")
+    })
+    public ResponseEntity<Nomina> getById(@PathVariable int id) {
+        return nominaService.findById(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{id}/detalle", produces = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @Operation(summary = "Detalle de una liquidación (NDJSON o CSV)",
+            description = "Transmite el sueldo de cada médico tal como quedó guardado. Formato según 'formato' (ndjson o csv)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Detalle en curso (una línea por médico)"),
+            @ApiResponse(responseCode = "400", description = "Formato no soportado"),
+            @ApiResponse(responseCode = "404", description = "Liquidación no encontrada")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarDetalle(
+            @PathVariable int id,
+            @Parameter(description = "ndjson o csv", example = "csv")
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        if (nominaService.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if ("csv".equalsIgnoreCase(formato)) {
+            StreamingResponseBody cuerpo = salida -> nominaService.exportarCsv(id, salida);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE + ";charset=UTF-8"))
+                    .header("Content-Disposition", "attachment; filename=\"nomina-" + id + ".csv\"")
+                    .body(cuerpo);
+        }
+        if ("ndjson".equalsIgnoreCase(formato)) {
+            StreamingResponseBody cuerpo = salida -> nominaService.exportarNdjson(id, salida);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -1,5 +1,8 @@
 package com.duoc.hospital.controller;
 
+import com.duoc.hospital.dto.Histograma;
+import com.duoc.hospital.dto.PaginaCursor;
+import com.duoc.hospital.dto.ResultadoConciliacion;
 import com.duoc.hospital.model.Paciente;
 import com.duoc.hospital.service.PacienteService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,8 +12,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -36,6 +41,41 @@ public class PacienteController {
         return ResponseEntity.ok(list);
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exportar pacientes (NDJSON)", description = "Transmite todos los pacientes como una línea JSON por paciente")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación en curso (una línea JSON por registro)")
+    })
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = pacienteService::exportar;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
+
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar pacientes por nombre",
+            description = "Búsqueda aproximada por nombre y apellido: ignora acentos y mayúsculas, tolera errores de tipeo "
+                    + "y ordena del más al menos parecido.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pacientes encontrados"),
+            @ApiResponse(responseCode = "204", description = "Ningún paciente se parece a la búsqueda"),
+            @ApiResponse(responseCode = "400", description = "Texto vacío o límite fuera de 1..100")
+    })
+    public ResponseEntity<List<Paciente>> buscar(
+            @Parameter(description = "Nombre, apellido o parte de ellos", example = "jose perez", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Cantidad máxima de resultados (1..100)", example = "20")
+            @RequestParam(defaultValue = "20") int limite
+    ) {
+        try {
+            List<Paciente> pacientes = pacienteService.buscar(q, limite);
+            return pacientes.isEmpty()
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.ok(pacientes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener paciente por ID", description = "Busca un paciente específico por su identificador")
     @ApiResponses(value = {
@@ -116,6 +156,51 @@ public class PacienteController {
         return ResponseEntity.ok(pacientes);
     }
 
+    @GetMapping("/reportes/edades")
+    @Operation(summary = "Histograma de edades",
+            description = "Cuenta pacientes por tramo de edad (y opcionalmente por previsión) sin devolver los pacientes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Conteo por tramo"),
+            @ApiResponse(responseCode = "400", description = "Ancho de tramo fuera de 1..120")
+    })
+    public ResponseEntity<Histograma> getHistogramaEdades(
+            @Parameter(description = "Años por tramo", example = "10") @RequestParam(defaultValue = "10") int ancho,
+            @Parameter(description = "Separar cada tramo por previsión") @RequestParam(defaultValue = "false") boolean porPrevision) {
+        try {
+            return ResponseEntity.ok(pacienteService.histogramaEdades(ancho, porPrevision));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/reportes/especialidades")
+    @Operation(summary = "Pacientes atendidos por especialidad",
+            description = "Pacientes con atenciones en todas las especialidades de 'con' y en ninguna de 'sin', "
+                    + "por ID ascendente y paginados por cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de pacientes obtenida"),
+            @ApiResponse(responseCode = "204", description = "Ningún paciente cumple la combinación"),
+            @ApiResponse(responseCode = "400", description = "Sin especialidades en 'con', cursor o límite inválido")
+    })
+    public ResponseEntity<PaginaCursor<Paciente>> getByEspecialidades(
+            @Parameter(description = "Especialidades en las que el paciente debe haber sido atendido", example = "CARDIOLOGIA", required = true)
+            @RequestParam List<String> con,
+            @Parameter(description = "Especialidades en las que el paciente no debe haber sido atendido")
+            @RequestParam(required = false) List<String> sin,
+            @Parameter(description = "Cursor devuelto en 'siguiente' por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de pacientes por página", example = "50")
+            @RequestParam(defaultValue = "" + PacienteService.LIMITE_POR_DEFECTO) int limit) {
+        try {
+            PaginaCursor<Paciente> pagina = pacienteService.findPaginaPorEspecialidades(con, sin, after, limit);
+            return pagina.getItems().isEmpty()
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/reportes/prevision")
     @Operation(summary = "Buscar pacientes por nombre de previsión", description = "Devuelve pacientes que pertenecen a una previsión (ej. FONASA, ISAPRE)")
     public ResponseEntity<List<Paciente>> getByPrevision(@Parameter(description = "Nombre de la previsión") @RequestParam String nombre) {
@@ -128,7 +213,8 @@ public class PacienteController {
     @GetMapping("/{id}/deuda")
     @Operation(
             summary = "Obtener deuda de paciente por ID",
-            description = "Recupera el monto de deuda asociado a un paciente específico"
+            description = "Recupera el monto de deuda asociado a un paciente específico, que se mantiene al día "
+                    + "con cada atención registrada, modificada o eliminada"
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Deuda obtenida exitosamente"),
@@ -142,8 +228,17 @@ public class PacienteController {
             )
             @PathVariable int id
     ) {
-        return pacienteService.getPacienteById(id)
-                .map(paciente -> ResponseEntity.ok(paciente.getDeuda()))
+        return pacienteService.getDeuda(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @PostMapping("/deuda/conciliar")
+    @Operation(summary = "Conciliar deudas con el libro de deuda",
+            description = "Compara la deuda de cada paciente con la suma de sus movimientos, corrige las que no coinciden "
+                    + "e informa cuántas eran")
+    @ApiResponse(responseCode = "200", description = "Conciliación realizada")
+    public ResponseEntity<ResultadoConciliacion> conciliarDeudas() {
+        return ResponseEntity.ok(pacienteService.conciliarDeudas());
+    }
 }
\ No newline at end of file
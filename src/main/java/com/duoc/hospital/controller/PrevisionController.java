@@ -4,14 +4,18 @@ package com.duoc.hospital.controller;
 import com.duoc.hospital.model.Prevision;
 import com.duoc.hospital.service.PrevisionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Tag(name = "Previsiones", description = "Operaciones relacionadas con las previsiones de salud")
 @RestController
 @RequestMapping("/api/v1/previsiones")
@@ -20,14 +24,20 @@ public class PrevisionController {
     @Autowired
     private PrevisionService previsionService;
 
+    @Autowired
+    private CuerposCatalogo cuerposCatalogo;
+
     @GetMapping
     @Operation(summary = "Obtener todas las previsiones", description = "Devuelve la lista de todas las previsiones")
-    public ResponseEntity<List<Prevision>> getAll() {
-        List<Prevision> list = previsionService.getAllPrevisiones();
-        if (list.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(list);
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lista obtenida; gzip si el cliente lo acepta",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Prevision.class)))),
+            @ApiResponse(responseCode = "204", description = "No hay registros"),
+            @ApiResponse(responseCode = "304", description = "El ETag de If-None-Match sigue vigente")
+    })
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion) {
+        return cuerposCatalogo.responder("previsiones", previsionService.estadistica(), previsionService::getAllPrevisiones, aceptaCodificacion);
     }
 
     @GetMapping("/{id}")
@@ -41,8 +51,12 @@ public class PrevisionController {
     @PostMapping
     @Operation(summary = "Crear nueva previsión", description = "Registra una nueva previsión en el sistema")
     public ResponseEntity<Prevision> create(@RequestBody Prevision prevision) {
-        Prevision saved = previsionService.save(prevision);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        try {
+            Prevision saved = previsionService.save(prevision);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,69 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+import java.util.Date;
+
+// Vista de lectura de una atención: solo las columnas que muestran los listados,
+// armada directamente en la consulta (sin cargar entidades Medico/Paciente completas).
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resumen de una atención para listados")
+public class AtencionResumen {
+    @Schema(description = "ID de la atención", example = "1")
+    private int id;
+
+    @Schema(description = "Fecha de la atención", example = "2025-06-15")
+    private Date fechaAtencion;
+
+    @Schema(description = "Hora de inicio", example = "09:30:00")
+    private LocalTime horaInicio;
+
+    @Schema(description = "Costo en pesos chilenos", example = "50000")
+    private int costo;
+
+    @Schema(description = "Estado de la atención", example = "Pendiente")
+    private String estado;
+
+    @Schema(description = "Comentario de la atención")
+    private String comentario;
+
+    @Schema(description = "ID del médico", example = "1")
+    private Integer idMedico;
+
+    @Schema(description = "Nombre completo del médico", example = "Juan Pérez")
+    private String medico;
+
+    @Schema(description = "Especialidad del médico", example = "MEDICINA GENERAL")
+    private String especialidad;
+
+    @Schema(description = "ID del paciente", example = "1")
+    private Integer idPaciente;
+
+    @Schema(description = "Nombre completo del paciente", example = "Ana Soto")
+    private String paciente;
+
+    @Schema(description = "Previsión del paciente", example = "FONASA")
+    private String prevision;
+
+    // Constructor usado por las consultas JPQL "SELECT new ..."
+    public AtencionResumen(int id, Date fechaAtencion, LocalTime horaInicio, int costo, String estado, String comentario,
+                           Integer idMedico, String nombreMedico, String apellidoMedico, String especialidad,
+                           Integer idPaciente, String nombrePaciente, String apellidoPaciente, String prevision) {
+        this(id, fechaAtencion, horaInicio, costo, estado, comentario,
+                idMedico, nombreCompleto(nombreMedico, apellidoMedico), especialidad,
+                idPaciente, nombreCompleto(nombrePaciente, apellidoPaciente), prevision);
+    }
+
+    private static String nombreCompleto(String nombre, String apellido) {
+        if (nombre == null) {
+            return null;
+        }
+        return apellido == null ? nombre : nombre + " " + apellido;
+    }
+}
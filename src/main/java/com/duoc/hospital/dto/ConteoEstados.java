@@ -0,0 +1,24 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cantidad de atenciones por estado, mantenida en memoria")
+public class ConteoEstados {
+    @Schema(description = "Atenciones por nombre de estado", example = "{\"Alta\": 120, \"Pendiente\": 35, \"Hospitalizado\": 4}")
+    private Map<String, Long> porEstado;
+
+    @Schema(description = "Total de atenciones", example = "159")
+    private long total;
+
+    @Schema(description = "Última vez que los contadores se compararon con la base")
+    private Instant ultimaReconciliacion;
+}
@@ -0,0 +1,33 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Primer horario libre de un médico")
+public class CupoDisponible {
+    @Schema(description = "ID del médico", example = "1")
+    private int idMedico;
+
+    @Schema(description = "Nombre completo del médico", example = "Ana Rojas")
+    private String medico;
+
+    @Schema(description = "Especialidad consultada", example = "CARDIOLOGIA")
+    private String especialidad;
+
+    @Schema(description = "Día del cupo", example = "2025-06-02")
+    private LocalDate fecha;
+
+    @Schema(description = "Hora de inicio del cupo", example = "09:30:00")
+    private LocalTime horaInicio;
+
+    @Schema(description = "Duración del cupo en minutos", example = "30")
+    private int duracionMinutos;
+}
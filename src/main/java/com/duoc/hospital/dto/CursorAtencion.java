@@ -0,0 +1,39 @@
+package com.duoc.hospital.dto;
+
+import com.duoc.hospital.model.Atencion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+// Posición dentro del orden (fecha_atencion, id) usada para paginar atenciones sin OFFSET.
+// El cliente la recibe codificada en base64url y la devuelve tal cual en el parámetro "after".
+@Data
+@AllArgsConstructor
+public class CursorAtencion {
+    private Date fecha;
+    private int id;
+
+    public static CursorAtencion de(Atencion atencion) {
+        return new CursorAtencion(atencion.getFechaAtencion(), atencion.getId());
+    }
+
+    public String codificar() {
+        String plano = fecha.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorAtencion decodificar(String cursor) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = plano.indexOf(':');
+            long millis = Long.parseLong(plano.substring(0, separador));
+            int id = Integer.parseInt(plano.substring(separador + 1));
+            return new CursorAtencion(new Date(millis), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+}
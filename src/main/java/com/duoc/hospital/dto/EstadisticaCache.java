@@ -0,0 +1,42 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Uso de una caché acotada de médicos o pacientes")
+public class EstadisticaCache {
+    @Schema(description = "Nombre de la caché", example = "medicos")
+    private String cache;
+
+    @Schema(description = "Entradas guardadas ahora", example = "812")
+    private int entradas;
+
+    @Schema(description = "Máximo de entradas antes de desalojar las menos usadas", example = "1000")
+    private int maximo;
+
+    @Schema(description = "Vida máxima de una entrada en milisegundos (0 = sin vencimiento)", example = "600000")
+    private long ttlMs;
+
+    @Schema(description = "Lecturas resueltas con la caché", example = "40210")
+    private long aciertos;
+
+    @Schema(description = "Lecturas que fueron a la base", example = "1302")
+    private long fallos;
+
+    @Schema(description = "Fracción de lecturas resueltas con la caché (0 a 1)", example = "0.9686")
+    private double tasaAciertos;
+
+    @Schema(description = "Entradas desalojadas por falta de espacio", example = "95")
+    private long desalojos;
+
+    @Schema(description = "Entradas descartadas por vencidas", example = "310")
+    private long vencidas;
+
+    @Schema(description = "Entradas descartadas porque el registro cambió", example = "44")
+    private long invalidaciones;
+}
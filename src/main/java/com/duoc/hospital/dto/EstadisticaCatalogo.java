@@ -0,0 +1,35 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Uso de un catálogo de referencia que se sirve desde memoria")
+public class EstadisticaCatalogo {
+    @Schema(description = "Nombre del catálogo", example = "especialidades")
+    private String catalogo;
+
+    @Schema(description = "Elementos en la copia vigente", example = "12")
+    private int elementos;
+
+    @Schema(description = "Versión de la copia: sube en 1 cuando una carga desde la base trae cambios", example = "3")
+    private long version;
+
+    @Schema(description = "Búsquedas resueltas con la copia en memoria", example = "18250")
+    private long aciertos;
+
+    @Schema(description = "Búsquedas de algo que la copia no tenía", example = "4")
+    private long fallos;
+
+    @Schema(description = "Fracción de búsquedas resueltas en memoria (0 a 1)", example = "0.9998")
+    private double tasaAciertos;
+
+    @Schema(description = "Momento de la última carga desde la base")
+    private Instant ultimaCarga;
+}
@@ -0,0 +1,27 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Conteo por tramos de años (edad o antigüedad), calculado con una sola consulta agrupada")
+public class Histograma {
+    @Schema(description = "Fecha a la que se calculan los años", example = "2025-06-30")
+    private LocalDate fechaCorte;
+
+    @Schema(description = "Años que abarca cada tramo", example = "10")
+    private int anchoTramo;
+
+    @Schema(description = "Total de registros contados", example = "15230")
+    private long total;
+
+    @Schema(description = "Tramos con al menos un registro, de menor a mayor")
+    private List<TramoHistograma> tramos;
+}
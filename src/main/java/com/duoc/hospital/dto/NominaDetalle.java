@@ -0,0 +1,36 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Línea de una liquidación: sueldo de un médico en el mes")
+public class NominaDetalle {
+    @Schema(description = "ID del médico", example = "1")
+    private int idMedico;
+
+    @Schema(description = "RUN del médico", example = "12345678-9")
+    private String run;
+
+    @Schema(description = "Nombre completo del médico", example = "Ana Rojas")
+    private String medico;
+
+    @Schema(description = "Sueldo base", example = "1000000")
+    private int sueldoBase;
+
+    @Schema(description = "Atenciones del mes", example = "42")
+    private long atenciones;
+
+    @Schema(description = "Suma de costos de las atenciones del mes", example = "2100000")
+    private long montoAtenciones;
+
+    @Schema(description = "Comisión (20% del monto, redondeada al peso)", example = "420000")
+    private long comision;
+
+    @Schema(description = "Sueldo base + comisión", example = "1420000")
+    private long sueldoTotal;
+}
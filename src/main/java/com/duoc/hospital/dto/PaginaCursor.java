@@ -0,0 +1,24 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Página de resultados paginada por cursor (keyset)")
+public class PaginaCursor<T> {
+    @Schema(description = "Elementos de la página actual")
+    private List<T> items;
+
+    @Schema(description = "Cursor opaco para pedir la página siguiente (null si no hay más resultados)",
+            example = "MTcxODQwOTYwMDAwMDo0Mg")
+    private String siguiente;
+
+    @Schema(description = "Tamaño máximo de página aplicado", example = "50")
+    private int limite;
+}
@@ -0,0 +1,21 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de comparar la deuda de cada paciente con la suma de su libro de deuda")
+public class ResultadoConciliacion {
+    @Schema(description = "Pacientes cuya deuda no coincidía con su libro (0 = todo cuadra)", example = "0")
+    private int diferencias;
+
+    @Schema(description = "Suma de los ajustes aplicados a las deudas, en pesos", example = "0")
+    private long ajusteTotal;
+
+    @Schema(description = "Duración en milisegundos", example = "120")
+    private long duracionMs;
+}
@@ -0,0 +1,47 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de una carga masiva de atenciones")
+public class ResultadoLote {
+    @Schema(description = "Atenciones recibidas en la solicitud", example = "5000")
+    private int recibidas;
+
+    @Schema(description = "Atenciones insertadas", example = "4990")
+    private int insertadas;
+
+    @Schema(description = "Atenciones rechazadas", example = "10")
+    private int rechazadas;
+
+    @Schema(description = "Duración total del procesamiento en milisegundos", example = "850")
+    private long duracionMs;
+
+    @Schema(description = "Rendimiento de inserción en filas por segundo", example = "5870.6")
+    private double filasPorSegundo;
+
+    @Schema(description = "Resultado de cada atención, en el mismo orden de la solicitud")
+    private List<Item> items;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Schema(name = "ResultadoLoteItem", description = "Resultado de una atención dentro del lote")
+    public static class Item {
+        @Schema(description = "Posición de la atención en la solicitud (desde 0)", example = "0")
+        private int indice;
+
+        @Schema(description = "true si la atención fue insertada", example = "true")
+        private boolean insertada;
+
+        @Schema(description = "Motivo del rechazo (null si fue insertada)", example = "Médico no encontrado.")
+        private String mensaje;
+    }
+}
@@ -0,0 +1,21 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Resultado de recalcular el resumen diario desde la tabla de atenciones")
+public class ResultadoReconstruccion {
+    @Schema(description = "Filas de resumen después de recalcular", example = "1840")
+    private int filas;
+
+    @Schema(description = "Filas que no coincidían con lo calculado (0 = el resumen estaba correcto)", example = "0")
+    private int diferencias;
+
+    @Schema(description = "Duración en milisegundos", example = "420")
+    private long duracionMs;
+}
@@ -0,0 +1,32 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Ganancias de un rango de días, calculadas desde el resumen diario")
+public class TotalGanancias {
+    @Schema(description = "Primer día del rango", example = "2025-06-01")
+    private LocalDate desde;
+
+    @Schema(description = "Último día del rango (inclusive)", example = "2025-06-30")
+    private LocalDate hasta;
+
+    @Schema(description = "Estado de las atenciones sumadas", example = "Alta")
+    private String estado;
+
+    @Schema(description = "Médico filtrado (null = todos)", example = "1")
+    private Integer idMedico;
+
+    @Schema(description = "Cantidad de atenciones", example = "120")
+    private long atenciones;
+
+    @Schema(description = "Suma de costos en pesos chilenos", example = "6000000")
+    private long total;
+}
@@ -0,0 +1,24 @@
+package com.duoc.hospital.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Un tramo del histograma: registros con años entre 'desde' y 'hasta' (ambos inclusive)")
+public class TramoHistograma {
+    @Schema(description = "Años desde (inclusive)", example = "30")
+    private int desde;
+
+    @Schema(description = "Años hasta (inclusive)", example = "39")
+    private int hasta;
+
+    @Schema(description = "Previsión del tramo (null = todas)", example = "FONASA")
+    private String prevision;
+
+    @Schema(description = "Registros en el tramo", example = "2140")
+    private long cantidad;
+}
@@ -10,6 +10,17 @@ import java.time.LocalTime;
 import java.util.Date;
 
 @Entity
+@NamedEntityGraph(
+        name = "Atencion.detalle",
+        attributeNodes = {
+                @NamedAttributeNode(value = "medico", subgraph = "medico"),
+                @NamedAttributeNode(value = "paciente", subgraph = "paciente")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "medico", attributeNodes = @NamedAttributeNode("especialidadMedico")),
+                @NamedSubgraph(name = "paciente", attributeNodes = @NamedAttributeNode("prevision"))
+        }
+)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -54,10 +65,12 @@ public class Atencion {
     )
     private String comentario;
 
-    @Column(nullable = false, length = 20)
+    // En la base es id_estado (SMALLINT, FK a estado); en la API sigue siendo el nombre
+    @Convert(converter = EstadoConverter.class)
+    @Column(name = "id_estado", nullable = false)
     @Schema(
-            description = "Estado actual de la atención (PENDIENTE, REALIZADA, CANCELADA, PAGADA)",
-            example = "PAGADA"
+            description = "Estado actual de la atención (Alta, Pendiente, Hospitalizado)",
+            example = "Pendiente"
     )
     private String estado;
 
@@ -5,8 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.List;
-
 @Entity
 @Table(name = "Estado")
 @Data
@@ -17,14 +15,11 @@ public class Estado {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
 
-    private int id;
+    private short id;
 
     @Column(nullable = false, length = 50)
     private String nombre;
 
     @Column(nullable = false, length = 200)
     private String descripcion;
-
-    @OneToMany(mappedBy = "estado")
-    private List<Atencion> atenciones;
 }
@@ -0,0 +1,25 @@
+package com.duoc.hospital.model;
+
+import com.duoc.hospital.service.CatalogoEstados;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Guarda el nombre del estado como su id SMALLINT. La API sigue recibiendo y devolviendo el nombre.
+// Hibernate crea el convertidor a través de Spring, por eso puede recibir el catálogo inyectado.
+@Converter
+public class EstadoConverter implements AttributeConverter<String, Short> {
+
+    @Autowired
+    private CatalogoEstados catalogoEstados;
+
+    @Override
+    public Short convertToDatabaseColumn(String nombre) {
+        return nombre == null ? null : catalogoEstados.idDe(nombre);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return id == null ? null : catalogoEstados.nombreDe(id);
+    }
+}
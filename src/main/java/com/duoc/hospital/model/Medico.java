@@ -23,9 +23,14 @@ public class Medico {
     private int id;
 
     @Column(nullable = false, length = 12, unique = true)
-    @Schema(description = "RUN del médico (formato: 12345678-9)", example = "12345678-9")
+    @Schema(description = "RUN del médico (formato: 12345678-9)", example = "12345678-5")
     private String run;
 
+    // Cuerpo numérico del RUN (12.345.678-5 -> 12345678), con índice único; se deriva de 'run' al guardar
+    @Column(name = "run_num")
+    @JsonIgnore
+    private Integer runNum;
+
     @Column(nullable = false, length = 50)
     @Schema(description = "Nombre del médico", example = "Juan")
     private String nombre;
@@ -59,4 +64,19 @@ public class Medico {
     @JoinColumn(name = "id_especialidad", nullable = false)
     @Schema(description = "Especialidad médica del médico")
     private Especialidad especialidadMedico; // Relación correcta con Especialidad
+
+    @PrePersist
+    void calcularRunNum() {
+        runNum = Run.numeroDe(run);
+    }
+
+    // V7 dejó run_num en NULL para los RUN mal formados y las variantes duplicadas, que quedan para revisión:
+    // guardar otro cambio de esas filas no lo recalcula (fallaría o chocaría con el índice único).
+    // Al cambiar el RUN desde la API, MedicoService.update asigna runNum antes de guardar.
+    @PreUpdate
+    void sincronizarRunNum() {
+        if (runNum != null) {
+            runNum = Run.numeroDe(run);
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package com.duoc.hospital.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Immutable
+@Table(name = "nomina")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Liquidación de sueldos de un mes; una vez generada no se modifica")
+public class Nomina {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "ID de la liquidación", example = "1")
+    private int id;
+
+    @Column(nullable = false, length = 7)
+    @Schema(description = "Mes liquidado (yyyy-MM)", example = "2025-06")
+    private String periodo;
+
+    @Column(nullable = false)
+    @Schema(description = "Momento en que se generó")
+    private LocalDateTime generada;
+
+    @Column(nullable = false)
+    @Schema(description = "Cantidad de médicos liquidados", example = "2000")
+    private int medicos;
+
+    @Column(name = "total_base", nullable = false)
+    @Schema(description = "Suma de sueldos base", example = "2000000000")
+    private long totalBase;
+
+    @Column(name = "total_comision", nullable = false)
+    @Schema(description = "Suma de comisiones", example = "350000000")
+    private long totalComision;
+
+    @Column(nullable = false)
+    @Schema(description = "Total a pagar", example = "2350000000")
+    private long total;
+}
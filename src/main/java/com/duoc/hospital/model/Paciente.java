@@ -1,6 +1,7 @@
 package com.duoc.hospital.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -23,9 +24,14 @@ public class Paciente {
     private int id;
 
     @Column(nullable = false, unique = true, length = 12)
-    @Schema(description = "RUN del paciente (formato: 12345678-9)", example = "12345678-9")
+    @Schema(description = "RUN del paciente (formato: 12345678-9)", example = "12345678-5")
     private String run;
 
+    // Cuerpo numérico del RUN (12.345.678-5 -> 12345678), con índice único; se deriva de 'run' al guardar
+    @Column(name = "run_num")
+    @JsonIgnore
+    private Integer runNum;
+
     @Column(nullable = false, length = 50)
     @Schema(description = "Nombre del paciente", example = "Juan")
     private String nombre;
@@ -56,7 +62,25 @@ public class Paciente {
     @Schema(description = "Previsión de salud del paciente")
     private Prevision prevision;
 
-    @Column(name = "deuda", nullable = false, columnDefinition = "int default 0")
-    @Schema(description = "Deuda acumulada del paciente en pesos chilenos", example = "75000")
+    // Solo la cambia LibroDeudaService con UPDATE deuda = deuda + ?; guardar el paciente nunca la pisa
+    @Column(name = "deuda", nullable = false, insertable = false, updatable = false, columnDefinition = "int default 0")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Deuda acumulada del paciente en pesos chilenos (suma de su libro de deuda)", example = "75000",
+            accessMode = Schema.AccessMode.READ_ONLY)
     private int deuda;
+
+    @PrePersist
+    void calcularRunNum() {
+        runNum = Run.numeroDe(run);
+    }
+
+    // V7 dejó run_num en NULL para los RUN mal formados y las variantes duplicadas, que quedan para revisión:
+    // guardar otro cambio de esas filas no lo recalcula (fallaría o chocaría con el índice único).
+    // Al cambiar el RUN desde la API, PacienteService.update asigna runNum antes de guardar.
+    @PreUpdate
+    void sincronizarRunNum() {
+        if (runNum != null) {
+            runNum = Run.numeroDe(run);
+        }
+    }
 }
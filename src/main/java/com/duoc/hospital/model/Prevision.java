@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
 
 @Entity
@@ -16,7 +18,7 @@ import java.util.List;
 
 public class Prevision {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
 
     private int id;
 
@@ -26,7 +28,37 @@ public class Prevision {
     @Column(nullable = false, length = 200)
     private String cobertura;
 
+    // Cobertura en puntos base (50% = 5000); se deriva de 'cobertura' al guardar
+    @Column(name = "cobertura_pb", nullable = false)
+    private int coberturaPb;
+
     @OneToMany(mappedBy = "prevision")
     @JsonIgnore
     private List<Paciente> pacientes;
+
+    @PrePersist
+    @PreUpdate
+    void sincronizarCoberturaPb() {
+        coberturaPb = puntosBaseDe(cobertura);
+    }
+
+    // Convierte "50%", "50" o "12.5%" a puntos base; rechaza valores fuera de 0..100% o con más de dos decimales
+    public static int puntosBaseDe(String cobertura) {
+        if (cobertura == null || cobertura.isBlank()) {
+            throw new IllegalArgumentException("Debe indicar la cobertura de la previsión.");
+        }
+        String texto = cobertura.trim();
+        if (texto.endsWith("%")) {
+            texto = texto.substring(0, texto.length() - 1).trim();
+        }
+        try {
+            int puntosBase = new BigDecimal(texto).movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).intValueExact();
+            if (puntosBase < 0 || puntosBase > 10_000) {
+                throw new IllegalArgumentException("La cobertura debe estar entre 0% y 100%.");
+            }
+            return puntosBase;
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Cobertura inválida: " + cobertura);
+        }
+    }
 }
\ No newline at end of file
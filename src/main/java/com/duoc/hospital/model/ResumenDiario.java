@@ -0,0 +1,46 @@
+package com.duoc.hospital.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "resumen_diario_atencion")
+@IdClass(ResumenDiario.Clave.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cantidad y total de atenciones de un médico en un día y estado")
+public class ResumenDiario {
+    @Id
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Id
+    @Column(name = "id_medico", nullable = false)
+    private int idMedico;
+
+    @Id
+    @Column(name = "id_estado", nullable = false)
+    private short idEstado;
+
+    @Column(nullable = false)
+    private long cantidad;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Clave implements Serializable {
+        private LocalDate dia;
+        private int idMedico;
+        private short idEstado;
+    }
+}
@@ -0,0 +1,75 @@
+package com.duoc.hospital.model;
+
+import java.util.Locale;
+
+// RUN chileno: cuerpo numérico más dígito verificador módulo 11 (0-9 o K).
+// Acepta puntos, espacios, guion opcional y 'k' minúscula; la forma normalizada es "12345678-5".
+public final class Run {
+
+    // Hasta 9 dígitos, así el cuerpo siempre cabe en un INT
+    private static final int MAXIMO_DIGITOS = 9;
+
+    private Run() {
+    }
+
+    // Valida formato y dígito verificador; devuelve el RUN normalizado
+    public static String normalizar(String run) {
+        int numero = numeroDe(run);
+        char digito = digitoDe(run);
+        if (digito != digitoVerificador(numero)) {
+            throw new IllegalArgumentException("RUN no válido: " + run);
+        }
+        return numero + "-" + digito;
+    }
+
+    // Cuerpo numérico del RUN; solo revisa el formato, no el dígito verificador
+    public static int numeroDe(String run) {
+        String limpio = limpiar(run);
+        if (limpio.length() < 2 || limpio.length() > MAXIMO_DIGITOS + 1) {
+            throw new IllegalArgumentException("RUN no válido: " + run);
+        }
+        int numero = 0;
+        for (int i = 0; i < limpio.length() - 1; i++) {
+            char c = limpio.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("RUN no válido: " + run);
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        char digito = limpio.charAt(limpio.length() - 1);
+        if (numero == 0 || !(digito == 'K' || (digito >= '0' && digito <= '9'))) {
+            throw new IllegalArgumentException("RUN no válido: " + run);
+        }
+        return numero;
+    }
+
+    public static char digitoVerificador(int numero) {
+        int suma = 0;
+        int factor = 2;
+        for (int n = numero; n > 0; n /= 10) {
+            suma += (n % 10) * factor;
+            factor = factor == 7 ? 2 : factor + 1;
+        }
+        int resto = 11 - suma % 11;
+        return resto == 11 ? '0' : resto == 10 ? 'K' : (char) ('0' + resto);
+    }
+
+    private static char digitoDe(String run) {
+        String limpio = limpiar(run);
+        return limpio.charAt(limpio.length() - 1);
+    }
+
+    private static String limpiar(String run) {
+        if (run == null) {
+            throw new IllegalArgumentException("Debe indicar el RUN.");
+        }
+        StringBuilder limpio = new StringBuilder(run.length());
+        for (int i = 0; i < run.length(); i++) {
+            char c = run.charAt(i);
+            if (c != '.' && c != '-' && !Character.isWhitespace(c)) {
+                limpio.append(c);
+            }
+        }
+        return limpio.toString().toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,55 +1,204 @@
 package com.duoc.hospital.repository;
 
+import com.duoc.hospital.dto.AtencionResumen;
 import com.duoc.hospital.model.Atencion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
+// Los listados de atenciones usan el grafo "Atencion.detalle" para traer médico, especialidad,
+// paciente y previsión en la misma consulta en vez de un SELECT extra por cada relación EAGER.
 public interface AtencionRepository extends JpaRepository<Atencion, Integer> {
 
+    // Proyección de lectura: mismas columnas para todos los resúmenes
+    String RESUMEN = "SELECT new com.duoc.hospital.dto.AtencionResumen(" +
+            "a.id, a.fechaAtencion, a.horaInicio, a.costo, a.estado, a.comentario, " +
+            "m.id, m.nombre, m.apellido, e.nombre, p.id, p.nombre, p.apellido, pr.nombre) " +
+            "FROM Atencion a LEFT JOIN a.medico m LEFT JOIN m.especialidadMedico e " +
+            "LEFT JOIN a.paciente p LEFT JOIN p.prevision pr ";
+
+    interface ConteoPorEstado {
+        String getEstado();
+
+        long getCantidad();
+    }
+
+    interface CostoPorPrevision {
+        Integer getIdPrevision();
+
+        long getTotal();
+    }
+
+    @Override
+    @EntityGraph("Atencion.detalle")
+    List<Atencion> findAll();
+
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.fechaAtencion = :fecha")
     List<Atencion> findByFecha(@Param("fecha") Date fecha);
 
+    @EntityGraph("Atencion.detalle")
     List<Atencion> findByFechaAtencionBetween(Date desde, Date hasta);
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.fechaAtencion BETWEEN :fechaInicio AND :fechaFin")
     List<Atencion> findBetweenFechas(@Param("fechaInicio") Date fechaInicio, @Param("fechaFin") Date fechaFin);
 
+    @EntityGraph("Atencion.detalle")
     List<Atencion> findByCostoLessThan(int costo);
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.costo < :costo")
     List<Atencion> findByCostoMenor(@Param("costo") int costo);
 
+    @EntityGraph("Atencion.detalle")
     List<Atencion> findByCostoGreaterThan(int costo);
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.costo > :costo")
     List<Atencion> findByCostoMayor(@Param("costo") int costo);
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.medico.id = :idMedico")
     List<Atencion> findByMedicoId(@Param("idMedico") int idMedico);
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.paciente.id = :idPaciente")
     List<Atencion> findByPacienteId(@Param("idPaciente") int idPaciente);
 
     @Query("SELECT SUM(a.costo) FROM Atencion a WHERE a.estado = 'Alta'")
     int findGananciaTotal();
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.estado = :estado")
     List<Atencion> findByEstado(@Param("estado") String estado);
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.paciente.id = :idPaciente")
     List<Atencion> findAtencionesByPacienteId(@Param("idPaciente") int idPaciente);
 
+    // Recorre el índice (id_estado, fecha_atencion): una fila por estado
+    @Query("SELECT a.estado AS estado, COUNT(a) AS cantidad FROM Atencion a GROUP BY a.estado")
+    List<ConteoPorEstado> contarPorEstado();
+
+    // Horas tomadas por un médico en un día, para armar su agenda en memoria
+    @Query("SELECT a.horaInicio FROM Atencion a " +
+            "WHERE a.medico.id = :idMedico AND a.fechaAtencion >= :inicio AND a.fechaAtencion < :fin")
+    List<LocalTime> findHorasDelDia(@Param("idMedico") int idMedico, @Param("inicio") Date inicio, @Param("fin") Date fin);
+
+    interface HoraMedico {
+        int getIdMedico();
+
+        Date getFechaAtencion();
+
+        LocalTime getHoraInicio();
+    }
+
+    // Horas tomadas por varios médicos en una ventana de días, para cargar sus agendas de una vez
+    @Query("SELECT a.medico.id AS idMedico, a.fechaAtencion AS fechaAtencion, a.horaInicio AS horaInicio " +
+            "FROM Atencion a " +
+            "WHERE a.medico.id IN :idsMedico AND a.fechaAtencion >= :inicio AND a.fechaAtencion < :fin")
+    List<HoraMedico> findHorasEntre(@Param("idsMedico") Collection<Integer> idsMedico,
+                                    @Param("inicio") Date inicio, @Param("fin") Date fin);
+
+    // Suma de costos de un paciente por previsión: una fila por previsión, sin cargar las atenciones
+    @Query("SELECT pr.id AS idPrevision, COALESCE(SUM(a.costo), 0) AS total " +
+            "FROM Atencion a JOIN a.paciente p LEFT JOIN p.prevision pr " +
+            "WHERE p.id = :idPaciente GROUP BY pr.id")
+    List<CostoPorPrevision> sumarCostoPorPrevision(@Param("idPaciente") int idPaciente);
+
     @Query("SELECT m.sueldoBase + COALESCE(SUM(a.costo * 0.2), 0) " +
             "FROM Medico m LEFT JOIN m.atenciones a " +
             "WHERE m.id = :idMedico " +
             "GROUP BY m.sueldoBase")
     Double calcularSueldoTotalMedico(@Param("idMedico") int idMedico);
 
+    @EntityGraph("Atencion.detalle")
     @Query("SELECT a FROM Atencion a WHERE a.fechaAtencion >= :inicio AND a.fechaAtencion < :fin")
     List<Atencion> findByFechaEnDia(@Param("inicio") Date inicio, @Param("fin") Date fin);
 
+    // Paginación por cursor (keyset) sobre (fechaAtencion, id): cada página parte desde la última
+    // fila entregada, así el costo no depende de qué tan profundo pagine el cliente.
+
+    @EntityGraph("Atencion.detalle")
+    @Query("SELECT a FROM Atencion a ORDER BY a.fechaAtencion, a.id")
+    List<Atencion> findPagina(Limit limite);
+
+    @EntityGraph("Atencion.detalle")
+    @Query("SELECT a FROM Atencion a " +
+            "WHERE a.fechaAtencion > :fecha OR (a.fechaAtencion = :fecha AND a.id > :id) " +
+            "ORDER BY a.fechaAtencion, a.id")
+    List<Atencion> findPaginaDespues(@Param("fecha") Date fecha, @Param("id") int id, Limit limite);
+
+    @EntityGraph("Atencion.detalle")
+    @Query("SELECT a FROM Atencion a WHERE a.fechaAtencion >= :inicio AND a.fechaAtencion < :fin " +
+            "ORDER BY a.fechaAtencion, a.id")
+    List<Atencion> findPaginaEntreFechas(@Param("inicio") Date inicio, @Param("fin") Date fin, Limit limite);
+
+    @EntityGraph("Atencion.detalle")
+    @Query("SELECT a FROM Atencion a WHERE a.fechaAtencion >= :inicio AND a.fechaAtencion < :fin " +
+            "AND (a.fechaAtencion > :fecha OR (a.fechaAtencion = :fecha AND a.id > :id)) " +
+            "ORDER BY a.fechaAtencion, a.id")
+    List<Atencion> findPaginaEntreFechasDespues(@Param("inicio") Date inicio, @Param("fin") Date fin,
+                                                @Param("fecha") Date fecha, @Param("id") int id, Limit limite);
+
+    @EntityGraph("Atencion.detalle")
+    @Query("SELECT a FROM Atencion a WHERE a.estado = :estado ORDER BY a.fechaAtencion, a.id")
+    List<Atencion> findPaginaPorEstado(@Param("estado") String estado, Limit limite);
+
+    @EntityGraph("Atencion.detalle")
+    @Query("SELECT a FROM Atencion a WHERE a.estado = :estado " +
+            "AND (a.fechaAtencion > :fecha OR (a.fechaAtencion = :fecha AND a.id > :id)) " +
+            "ORDER BY a.fechaAtencion, a.id")
+    List<Atencion> findPaginaPorEstadoDespues(@Param("estado") String estado,
+                                              @Param("fecha") Date fecha, @Param("id") int id, Limit limite);
+
+    // --- Exportación: cursor de solo avance leído de a 1000 filas (con useCursorFetch=true en MySQL) ---
+
+    @EntityGraph("Atencion.detalle")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Atencion a")
+    Stream<Atencion> streamTodas();
+
+    @EntityGraph("Atencion.detalle")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Atencion a WHERE a.fechaAtencion >= :inicio AND a.fechaAtencion < :fin")
+    Stream<Atencion> streamEntreFechas(@Param("inicio") Date inicio, @Param("fin") Date fin);
+
+    // --- Resúmenes por médico y por paciente (proyección DTO, una sola consulta) ---
+
+    @Query(RESUMEN + "WHERE m.id = :idMedico ORDER BY a.fechaAtencion, a.id")
+    List<AtencionResumen> findResumenPorMedico(@Param("idMedico") int idMedico, Limit limite);
+
+    @Query(RESUMEN + "WHERE m.id = :idMedico " +
+            "AND (a.fechaAtencion > :fecha OR (a.fechaAtencion = :fecha AND a.id > :id)) " +
+            "ORDER BY a.fechaAtencion, a.id")
+    List<AtencionResumen> findResumenPorMedicoDespues(@Param("idMedico") int idMedico,
+                                                      @Param("fecha") Date fecha, @Param("id") int id, Limit limite);
+
+    @Query(RESUMEN + "WHERE p.id = :idPaciente ORDER BY a.fechaAtencion, a.id")
+    List<AtencionResumen> findResumenPorPaciente(@Param("idPaciente") int idPaciente, Limit limite);
+
+    @Query(RESUMEN + "WHERE p.id = :idPaciente " +
+            "AND (a.fechaAtencion > :fecha OR (a.fechaAtencion = :fecha AND a.id > :id)) " +
+            "ORDER BY a.fechaAtencion, a.id")
+    List<AtencionResumen> findResumenPorPacienteDespues(@Param("idPaciente") int idPaciente,
+                                                        @Param("fecha") Date fecha, @Param("id") int id, Limit limite);
 }
\ No newline at end of file
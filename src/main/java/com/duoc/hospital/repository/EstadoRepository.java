@@ -3,7 +3,7 @@ package com.duoc.hospital.repository;
 import com.duoc.hospital.model.Estado;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface EstadoRepository extends JpaRepository<Estado, Integer> {
+public interface EstadoRepository extends JpaRepository<Estado, Short> {
 
     boolean existsByNombre(String nombre);
 }
\ No newline at end of file
@@ -1,23 +1,45 @@
 package com.duoc.hospital.repository;
 
 import com.duoc.hospital.model.Medico;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MedicoRepository extends JpaRepository<Medico, Integer> {
     List<Medico> findByNombreAndApellido(String nombre, String apellido);
 
     Optional<Medico> findByRun(String run);
 
+    Optional<Medico> findByRunNum(Integer runNum);
+
     Optional<Medico> findByCorreo(String correo);
 
     Optional<Medico> findByTelefono(String telefono);
 
+    // Registros que ya usan alguno de los valores únicos, en una sola consulta
+    interface Coincidencia {
+        int getId();
+        String getRun();
+        Integer getRunNum();
+        String getCorreo();
+        String getTelefono();
+    }
+
+    @Query("SELECT x.id AS id, x.run AS run, x.runNum AS runNum, x.correo AS correo, x.telefono AS telefono "
+            + "FROM Medico x WHERE x.runNum = :runNum OR x.run = :run OR x.correo = :correo OR x.telefono = :telefono")
+    List<Coincidencia> findCoincidencias(@Param("runNum") Integer runNum, @Param("run") String run,
+                                         @Param("correo") String correo, @Param("telefono") String telefono);
+
     @Query("SELECT m FROM Medico m WHERE m.fecha_contrato > :fechaLimite")
     List<Medico> findByAntiguedadMenorA(@Param("fechaLimite") Date fechaLimite);
 
@@ -31,4 +53,31 @@ public interface MedicoRepository extends JpaRepository<Medico, Integer> {
             nativeQuery = true)
     List<Medico> findByAntiguedadExacta(@Param("antiguedad") int antiguedad);
 
+    // Médicos por tramo de antigüedad, con los años cumplidos a la fecha de corte
+    interface ConteoTramo {
+        Number getTramo();
+        Long getCantidad();
+    }
+
+    // Años cumplidos como en PacienteRepository.contarPorTramoEdad; fecha_contrato tiene hora,
+    // así que entran los contratados durante el día de corte
+    @Query(value = "SELECT FLOOR((:anioCorte - YEAR(fecha_contrato) "
+            + "- CASE WHEN MONTH(fecha_contrato) * 100 + DAYOFMONTH(fecha_contrato) > :mesDiaCorte THEN 1 ELSE 0 END) "
+            + "/ :ancho) AS tramo, COUNT(*) AS cantidad "
+            + "FROM medico WHERE fecha_contrato < :diaSiguiente GROUP BY tramo",
+            nativeQuery = true)
+    List<ConteoTramo> contarPorTramoAntiguedad(@Param("diaSiguiente") LocalDate diaSiguiente,
+                                               @Param("anioCorte") int anioCorte,
+                                               @Param("mesDiaCorte") int mesDiaCorte,
+                                               @Param("ancho") int ancho);
+
+    // Exportación completa con cursor de solo avance
+    @EntityGraph(attributePaths = "especialidadMedico")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Medico m")
+    Stream<Medico> streamTodos();
+
 }
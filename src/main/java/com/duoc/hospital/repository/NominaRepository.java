@@ -0,0 +1,10 @@
+package com.duoc.hospital.repository;
+
+import com.duoc.hospital.model.Nomina;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface NominaRepository extends JpaRepository<Nomina, Integer> {
+    List<Nomina> findByPeriodoOrderByIdDesc(String periodo);
+}
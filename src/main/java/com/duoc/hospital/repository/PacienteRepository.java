@@ -1,21 +1,47 @@
 package com.duoc.hospital.repository;
 
 import com.duoc.hospital.model.Paciente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PacienteRepository extends JpaRepository<Paciente, Integer> {
     Optional<Paciente> findByRun(String run);
 
+    Optional<Paciente> findByRunNum(Integer runNum);
+
     Optional<Paciente> findByCorreo(String correo);
 
     Optional<Paciente> findByTelefono(String telefono);
 
+    // Solo la deuda, por clave primaria: no carga el paciente ni su previsión
+    @Query("SELECT p.deuda FROM Paciente p WHERE p.id = :id")
+    Optional<Integer> findDeudaById(@Param("id") int id);
+
+    // Registros que ya usan alguno de los valores únicos, en una sola consulta
+    interface Coincidencia {
+        int getId();
+        String getRun();
+        Integer getRunNum();
+        String getCorreo();
+        String getTelefono();
+    }
+
+    @Query("SELECT x.id AS id, x.run AS run, x.runNum AS runNum, x.correo AS correo, x.telefono AS telefono "
+            + "FROM Paciente x WHERE x.runNum = :runNum OR x.run = :run OR x.correo = :correo OR x.telefono = :telefono")
+    List<Coincidencia> findCoincidencias(@Param("runNum") Integer runNum, @Param("run") String run,
+                                         @Param("correo") String correo, @Param("telefono") String telefono);
+
     List<Paciente> findByNombreAndApellido(String nombre, String apellido);
 
     List<Paciente> findByPrevisionNombre(String nombre);
@@ -28,7 +54,28 @@ public interface PacienteRepository extends JpaRepository<Paciente, Integer> {
     @Query("SELECT p FROM Paciente p WHERE p.fechaNacimiento < :fechaLimite")
     List<Paciente> findMayoresDe(@Param("fechaLimite") Date fechaLimite);
 
-    // Métodos agregados para compatibilidad (debes calcular fechaLimite en el Service)
-    @Query("SELECT DISTINCT p FROM Paciente p JOIN Atencion a ON a.paciente.id = p.id WHERE a.medico.especialidadMedico.nombre = :nombreEspecialidad")
-    List<Paciente> findByEspecialidadNombre(@Param("nombreEspecialidad") String nombreEspecialidad);
+    // Pacientes por tramo de edad y previsión, con la edad cumplida a la fecha de corte.
+    // Los años se calculan con YEAR/MONTH/DAYOFMONTH porque TIMESTAMPDIFF(YEAR) no da años cumplidos en H2
+    interface ConteoTramo {
+        Number getTramo();
+        Integer getIdPrevision();
+        Long getCantidad();
+    }
+
+    @Query(value = "SELECT FLOOR((:anioCorte - YEAR(fecha_nacimiento) "
+            + "- CASE WHEN MONTH(fecha_nacimiento) * 100 + DAYOFMONTH(fecha_nacimiento) > :mesDiaCorte THEN 1 ELSE 0 END) "
+            + "/ :ancho) AS tramo, prevision AS idPrevision, COUNT(*) AS cantidad "
+            + "FROM paciente WHERE fecha_nacimiento <= :corte GROUP BY tramo, prevision",
+            nativeQuery = true)
+    List<ConteoTramo> contarPorTramoEdad(@Param("corte") LocalDate corte, @Param("anioCorte") int anioCorte,
+                                         @Param("mesDiaCorte") int mesDiaCorte, @Param("ancho") int ancho);
+
+    // Exportación completa con cursor de solo avance
+    @EntityGraph(attributePaths = "prevision")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Paciente p")
+    Stream<Paciente> streamTodos();
 }
\ No newline at end of file
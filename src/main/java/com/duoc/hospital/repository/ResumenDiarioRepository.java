@@ -0,0 +1,37 @@
+package com.duoc.hospital.repository;
+
+import com.duoc.hospital.model.ResumenDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface ResumenDiarioRepository extends JpaRepository<ResumenDiario, ResumenDiario.Clave> {
+
+    interface Totales {
+        long getCantidad();
+
+        long getTotal();
+    }
+
+    // Suma (o resta, con valores negativos) sobre la fila del día sin leerla antes
+    @Modifying
+    @Query(value = "INSERT INTO resumen_diario_atencion (dia, id_medico, id_estado, cantidad, total) " +
+            "VALUES (:dia, :idMedico, :idEstado, :cantidad, :total) " +
+            "ON DUPLICATE KEY UPDATE cantidad = cantidad + :cantidad, total = total + :total",
+            nativeQuery = true)
+    void acumular(@Param("dia") LocalDate dia, @Param("idMedico") int idMedico, @Param("idEstado") short idEstado,
+                  @Param("cantidad") long cantidad, @Param("total") long total);
+
+    @Query("SELECT COALESCE(SUM(r.cantidad), 0) AS cantidad, COALESCE(SUM(r.total), 0) AS total " +
+            "FROM ResumenDiario r " +
+            "WHERE r.idEstado = :idEstado AND r.dia BETWEEN :desde AND :hasta " +
+            "AND (:idMedico IS NULL OR r.idMedico = :idMedico)")
+    Totales sumarEntre(@Param("idEstado") short idEstado, @Param("desde") LocalDate desde,
+                       @Param("hasta") LocalDate hasta, @Param("idMedico") Integer idMedico);
+
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM ResumenDiario r WHERE r.idEstado = :idEstado")
+    long sumarTotalPorEstado(@Param("idEstado") short idEstado);
+}
@@ -0,0 +1,379 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.CupoDisponible;
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.repository.AtencionRepository;
+import com.duoc.hospital.repository.MedicoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Índice en memoria de las horas tomadas por cada médico en cada día.
+// Cada (médico, día) guarda un arreglo ordenado de minutos de inicio; todas las atenciones duran
+// hospital.agenda.duracion-minutos, así que un choque se detecta mirando solo a los dos vecinos
+// de la búsqueda binaria. Los días se cargan de la base la primera vez que se consultan,
+// y la carga se hace fuera de cualquier bloqueo. La búsqueda de cupos carga de una vez, con una sola
+// consulta, toda la ventana de días de los médicos que aún no la tienen.
+@Component
+public class AgendaMedicos {
+
+    // Sobre este número de días cargados se hace un barrido que deja DIAS_TRAS_BARRIDO: primero los días
+    // pasados y, si no alcanza, los más lejanos en el futuro (se vuelven a leer de la base si se piden).
+    // Los días con reservas de transacciones que no han terminado se quedan
+    private static final int MAXIMO_DIAS = 50_000;
+    private static final int DIAS_TRAS_BARRIDO = 40_000;
+
+    @Value("${hospital.agenda.duracion-minutos:30}")
+    private int duracion;
+
+    @Value("${hospital.agenda.hora-inicio:08:00}")
+    private String horaInicio;
+
+    @Value("${hospital.agenda.hora-fin:18:00}")
+    private String horaFin;
+
+    @Value("${hospital.agenda.dias-busqueda:30}")
+    private int diasBusqueda;
+
+    @Autowired
+    private AtencionRepository atencionRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    // Clave (día, médico) ordenada por día: el barrido recorta por rangos en vez de revisar cada entrada
+    private final ConcurrentSkipListMap<Long, Dia> dias = new ConcurrentSkipListMap<>();
+    private final AtomicBoolean barriendo = new AtomicBoolean();
+    private final AtomicInteger cargas = new AtomicInteger();
+    private final ConcurrentHashMap<String, List<MedicoCupo>> medicosPorEspecialidad = new ConcurrentHashMap<>();
+
+    private int minutoApertura;
+    private int minutoCierre;
+
+    @PostConstruct
+    void configurar() {
+        if (duracion < 1) {
+            throw new IllegalStateException("hospital.agenda.duracion-minutos debe ser mayor que cero.");
+        }
+        minutoApertura = minutoDe(LocalTime.parse(horaInicio));
+        minutoCierre = minutoDe(LocalTime.parse(horaFin));
+    }
+
+    // Horario que ocupa una atención; null si le faltan datos para ubicarla
+    public record Reserva(int idMedico, LocalDate dia, int minuto) {
+    }
+
+    public static Reserva reservaDe(Atencion a) {
+        if (a == null || a.getMedico() == null || a.getMedico().getId() == 0
+                || a.getFechaAtencion() == null || a.getHoraInicio() == null) {
+            return null;
+        }
+        return new Reserva(a.getMedico().getId(), ResumenDiarioService.diaDe(a.getFechaAtencion()), minutoDe(a.getHoraInicio()));
+    }
+
+    // Toma el horario o lanza IllegalStateException si choca con otra atención del médico.
+    // Dentro de una transacción, el horario se devuelve si esta se revierte.
+    public void reservar(Reserva reserva) {
+        if (reserva == null) {
+            return;
+        }
+        Dia dia = tomar(reserva);
+        if (!dia.reservar(reserva.minuto(), duracion)) {
+            dia.soltar();
+            throw new IllegalStateException("El médico ya tiene una atención en ese horario.");
+        }
+        alTerminar(dia, () -> dia.liberar(reserva.minuto()));
+    }
+
+    // Libera el horario; si la transacción actual se revierte, se vuelve a ocupar
+    public void liberar(Reserva reserva) {
+        if (reserva == null) {
+            return;
+        }
+        Dia dia = tomar(reserva);
+        dia.liberar(reserva.minuto());
+        alTerminar(dia, () -> dia.agregar(reserva.minuto()));
+    }
+
+    // Primer horario libre entre los médicos de la especialidad, desde 'ahora' y dentro del horario de atención
+    public Optional<CupoDisponible> proximoCupo(String especialidad, LocalDateTime ahora) {
+        List<MedicoCupo> medicos = medicosDe(especialidad);
+        if (medicos.isEmpty()) {
+            return Optional.empty();
+        }
+        cargarVentana(medicos, ahora.toLocalDate());
+        for (int d = 0; d < diasBusqueda; d++) {
+            LocalDate dia = ahora.toLocalDate().plusDays(d);
+            int desde = minutoApertura;
+            if (d == 0) {
+                LocalTime hora = ahora.toLocalTime();
+                desde = Math.max(desde, minutoDe(hora) + (hora.getSecond() > 0 || hora.getNano() > 0 ? 1 : 0));
+            }
+            MedicoCupo elegido = null;
+            int mejor = -1;
+            for (MedicoCupo m : medicos) {
+                int libre = agenda(m.id(), dia).primerLibre(desde, minutoCierre, duracion);
+                if (libre >= 0 && (mejor < 0 || libre < mejor)) {
+                    mejor = libre;
+                    elegido = m;
+                }
+            }
+            if (elegido != null) {
+                return Optional.of(new CupoDisponible(elegido.id(), elegido.nombre(), especialidad, dia,
+                        LocalTime.of(mejor / 60, mejor % 60), duracion));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Los médicos cambiaron (alta, edición o baja): la lista por especialidad se vuelve a cargar al pedirla
+    public void olvidarMedicos() {
+        medicosPorEspecialidad.clear();
+    }
+
+    private List<MedicoCupo> medicosDe(String especialidad) {
+        String clave = especialidad.toUpperCase(Locale.ROOT);
+        List<MedicoCupo> medicos = medicosPorEspecialidad.get(clave);
+        if (medicos == null) {
+            medicos = medicoRepository.findByEspecialidadNombre(especialidad).stream()
+                    .map(m -> new MedicoCupo(m.getId(), m.getNombre() + " " + m.getApellido()))
+                    .toList();
+            if (!medicos.isEmpty()) {
+                medicosPorEspecialidad.putIfAbsent(clave, medicos);
+            }
+        }
+        return medicos;
+    }
+
+    // Los médicos a los que les falta algún día de la ventana se cargan juntos con una consulta; los días
+    // que otro hilo cargó (o reservó) mientras tanto se conservan
+    private void cargarVentana(List<MedicoCupo> medicos, LocalDate primerDia) {
+        List<Integer> faltantes = new ArrayList<>();
+        for (MedicoCupo m : medicos) {
+            for (int d = 0; d < diasBusqueda; d++) {
+                if (!dias.containsKey(clave(m.id(), primerDia.plusDays(d)))) {
+                    faltantes.add(m.id());
+                    break;
+                }
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return;
+        }
+        ZoneId zona = ResumenDiarioService.ZONA_HORARIA;
+        Date inicio = Date.from(primerDia.atStartOfDay(zona).toInstant());
+        Date fin = Date.from(primerDia.plusDays(diasBusqueda).atStartOfDay(zona).toInstant());
+        Map<Long, Dia> cargados = new HashMap<>();
+        for (int idMedico : faltantes) {
+            for (int d = 0; d < diasBusqueda; d++) {
+                cargados.put(clave(idMedico, primerDia.plusDays(d)), new Dia());
+            }
+        }
+        for (AtencionRepository.HoraMedico fila : atencionRepository.findHorasEntre(faltantes, inicio, fin)) {
+            Dia dia = cargados.get(clave(fila.getIdMedico(), ResumenDiarioService.diaDe(fila.getFechaAtencion())));
+            if (dia != null) {
+                dia.agregar(minutoDe(fila.getHoraInicio()));
+            }
+        }
+        cargados.forEach(dias::putIfAbsent);
+        barrerSiHaceFalta();
+    }
+
+    private Dia agenda(int idMedico, LocalDate dia) {
+        long clave = clave(idMedico, dia);
+        Dia agenda = dias.get(clave);
+        if (agenda != null) {
+            return agenda;
+        }
+        // Mismo día de Chile que ResumenDiarioService.diaDe, con el que se arman las reservas
+        ZoneId zona = ResumenDiarioService.ZONA_HORARIA;
+        Date inicio = Date.from(dia.atStartOfDay(zona).toInstant());
+        Date fin = Date.from(dia.plusDays(1).atStartOfDay(zona).toInstant());
+        Dia cargada = new Dia();
+        for (LocalTime hora : atencionRepository.findHorasDelDia(idMedico, inicio, fin)) {
+            cargada.agregar(minutoDe(hora));
+        }
+        // Si otro hilo cargó el mismo día mientras tanto, se usa el suyo
+        agenda = dias.putIfAbsent(clave, cargada);
+        if (agenda == null) {
+            agenda = cargada;
+            barrerSiHaceFalta();
+        }
+        return agenda;
+    }
+
+    // El día marcado con un cambio sin confirmar; si el barrido lo acaba de retirar, se vuelve a cargar
+    private Dia tomar(Reserva reserva) {
+        while (true) {
+            Dia dia = agenda(reserva.idMedico(), reserva.dia());
+            if (dia.tomar()) {
+                return dia;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static long clave(int idMedico, LocalDate dia) {
+        return (dia.toEpochDay() << 32) | (idMedico & 0xFFFF_FFFFL);
+    }
+
+    // Un solo hilo barre a la vez y deja el mapa en DIAS_TRAS_BARRIDO, así el siguiente barrido recién
+    // llega después de MAXIMO_DIAS - DIAS_TRAS_BARRIDO cargas nuevas. dias.size() recorre el mapa,
+    // por eso se mira solo de vez en cuando.
+    private void barrerSiHaceFalta() {
+        if ((cargas.incrementAndGet() & 1023) != 0 || dias.size() <= MAXIMO_DIAS
+                || !barriendo.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            barrer(DIAS_TRAS_BARRIDO);
+        } finally {
+            barriendo.set(false);
+        }
+    }
+
+    // Primero los días pasados y, si no alcanza, los más lejanos. Un día con reservas sin confirmar se
+    // salta: al volver a leerlo de la base no estarían, y se aceptaría una segunda atención en el mismo horario
+    private void barrer(int dejar) {
+        for (Map.Entry<Long, Dia> e : dias.headMap(clave(0, LocalDate.now(ResumenDiarioService.ZONA_HORARIA))).entrySet()) {
+            if (e.getValue().retirar()) {
+                dias.remove(e.getKey(), e.getValue());
+            }
+        }
+        int sobran = dias.size() - dejar;
+        Iterator<Map.Entry<Long, Dia>> lejanos = dias.descendingMap().entrySet().iterator();
+        while (sobran > 0 && lejanos.hasNext()) {
+            Map.Entry<Long, Dia> e = lejanos.next();
+            if (e.getValue().retirar()) {
+                dias.remove(e.getKey(), e.getValue());
+                sobran--;
+            }
+        }
+    }
+
+    // Al terminar la transacción (o de inmediato si no hay una) se suelta el día, y si se revirtió se deshace
+    private static void alTerminar(Dia dia, Runnable deshacer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dia.soltar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status != STATUS_COMMITTED) {
+                        deshacer.run();
+                    }
+                } finally {
+                    dia.soltar();
+                }
+            }
+        });
+    }
+
+    private static int minutoDe(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    private record MedicoCupo(int id, String nombre) {
+    }
+
+    // Minutos de inicio ocupados en un día, ordenados. Los arreglos son cortos (unas decenas de
+    // atenciones por día), así que insertar o quitar con arraycopy es más barato que un árbol.
+    static final class Dia {
+        private int[] inicios = new int[8];
+        private int tamano;
+        // Transacciones con un cambio en este día que aún no terminan; el barrido no retira el día mientras haya
+        private int pendientes;
+        private boolean retirado;
+
+        synchronized boolean tomar() {
+            if (retirado) {
+                return false;
+            }
+            pendientes++;
+            return true;
+        }
+
+        synchronized void soltar() {
+            pendientes--;
+        }
+
+        // Lo llama el barrido antes de sacar el día del mapa; después nadie más lo puede tomar
+        synchronized boolean retirar() {
+            if (pendientes > 0) {
+                return false;
+            }
+            retirado = true;
+            return true;
+        }
+
+        synchronized boolean reservar(int minuto, int duracion) {
+            int i = Arrays.binarySearch(inicios, 0, tamano, minuto);
+            if (i >= 0) {
+                return false;
+            }
+            i = -i - 1;
+            if (i < tamano && inicios[i] - minuto < duracion) {
+                return false;
+            }
+            if (i > 0 && minuto - inicios[i - 1] < duracion) {
+                return false;
+            }
+            insertar(i, minuto);
+            return true;
+        }
+
+        // Sin validar choques: para datos que ya están en la base
+        synchronized void agregar(int minuto) {
+            int i = Arrays.binarySearch(inicios, 0, tamano, minuto);
+            insertar(i >= 0 ? i : -i - 1, minuto);
+        }
+
+        synchronized void liberar(int minuto) {
+            int i = Arrays.binarySearch(inicios, 0, tamano, minuto);
+            if (i >= 0) {
+                System.arraycopy(inicios, i + 1, inicios, i, tamano - i - 1);
+                tamano--;
+            }
+        }
+
+        // Primer minuto >= desde en que cabe una atención completa antes de 'hasta'; -1 si no hay
+        synchronized int primerLibre(int desde, int hasta, int duracion) {
+            int candidato = desde;
+            int i = Arrays.binarySearch(inicios, 0, tamano, candidato - duracion + 1);
+            i = i >= 0 ? primeroIgual(i) : -i - 1;
+            while (i < tamano && inicios[i] < candidato + duracion) {
+                candidato = Math.max(candidato, inicios[i] + duracion);
+                i++;
+            }
+            return candidato + duracion <= hasta ? candidato : -1;
+        }
+
+        private int primeroIgual(int i) {
+            while (i > 0 && inicios[i - 1] == inicios[i]) {
+                i--;
+            }
+            return i;
+        }
+
+        private void insertar(int i, int minuto) {
+            if (tamano == inicios.length) {
+                inicios = Arrays.copyOf(inicios, tamano * 2);
+            }
+            System.arraycopy(inicios, i, inicios, i + 1, tamano - i);
+            inicios[i] = minuto;
+            tamano++;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.ResultadoLote;
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.model.Estado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.*;
+
+// Carga masiva de atenciones. Los IDs IDENTITY impiden que Hibernate agrupe los INSERT,
+// así que el lote se valida con una sola consulta por conjunto y se inserta con JDBC batch,
+// en transacciones de TAMANO_TRAMO filas para no mantener bloqueos durante toda la carga.
+@Service
+public class AtencionLoteService {
+
+    public static final int MAXIMO_LOTE = 10_000;
+    public static final int TAMANO_TRAMO = 500;
+
+    private static final String INSERT = "INSERT INTO atencion " +
+            "(fecha_atencion, hora_inicio, costo, comentario, id_estado, id_paciente, id_medico) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Una sola ida y vuelta para saber qué médicos y pacientes referenciados existen
+    private static final String EXISTENTES =
+            "SELECT 'M' AS tipo, id FROM medico WHERE id IN (:medicos) " +
+            "UNION ALL SELECT 'P' AS tipo, id FROM paciente WHERE id IN (:pacientes)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResumenDiarioService resumenDiarioService;
+
+    @Autowired
+    private AgendaMedicos agendaMedicos;
+
+    @Autowired
+    private CatalogoEstados catalogoEstados;
+
+    @Autowired
+    private ContadoresEstado contadoresEstado;
+
+    @Autowired
+    private IndicePacientesEspecialidad indicePacientesEspecialidad;
+
+    @Autowired
+    private LibroDeudaService libroDeudaService;
+
+    public ResultadoLote guardarLote(List<Atencion> atenciones) {
+        if (atenciones == null || atenciones.isEmpty()) {
+            throw new IllegalArgumentException("El lote no contiene atenciones.");
+        }
+        if (atenciones.size() > MAXIMO_LOTE) {
+            throw new IllegalArgumentException("El lote no puede superar " + MAXIMO_LOTE + " atenciones.");
+        }
+        long inicio = System.nanoTime();
+
+        ResultadoLote.Item[] resultados = new ResultadoLote.Item[atenciones.size()];
+        AgendaMedicos.Reserva[] reservas = new AgendaMedicos.Reserva[atenciones.size()];
+        List<Integer> validas = validar(atenciones, resultados, reservas);
+
+        int insertadas = 0;
+        for (int desde = 0; desde < validas.size(); desde += TAMANO_TRAMO) {
+            List<Integer> tramo = validas.subList(desde, Math.min(desde + TAMANO_TRAMO, validas.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertarTramo(atenciones, tramo));
+                for (int indice : tramo) {
+                    resultados[indice] = new ResultadoLote.Item(indice, true, null);
+                }
+                insertadas += tramo.size();
+            } catch (RuntimeException e) {
+                // El tramo completo se revierte (y devuelve sus horarios); el resto del lote continúa
+                for (int indice : tramo) {
+                    agendaMedicos.liberar(reservas[indice]);
+                }
+                String mensaje = "Error al insertar el tramo: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                for (int indice : tramo) {
+                    resultados[indice] = new ResultadoLote.Item(indice, false, mensaje);
+                }
+            }
+        }
+
+        long duracionNanos = System.nanoTime() - inicio;
+        double filasPorSegundo = insertadas == 0 ? 0 : insertadas / (duracionNanos / 1_000_000_000.0);
+        return new ResultadoLote(atenciones.size(), insertadas, atenciones.size() - insertadas,
+                duracionNanos / 1_000_000, Math.round(filasPorSegundo * 10) / 10.0, Arrays.asList(resultados));
+    }
+
+    // Marca como rechazadas las atenciones incompletas, con referencias inexistentes o que chocan
+    // con otra atención del médico, y devuelve los índices de las que se pueden insertar
+    private List<Integer> validar(List<Atencion> atenciones, ResultadoLote.Item[] resultados,
+                                  AgendaMedicos.Reserva[] reservas) {
+        Set<Integer> medicos = new HashSet<>();
+        Set<Integer> pacientes = new HashSet<>();
+        for (Atencion a : atenciones) {
+            if (a == null) {
+                continue;
+            }
+            if (a.getMedico() != null && a.getMedico().getId() != 0) {
+                medicos.add(a.getMedico().getId());
+            }
+            if (a.getPaciente() != null && a.getPaciente().getId() != 0) {
+                pacientes.add(a.getPaciente().getId());
+            }
+        }
+
+        Set<Integer> medicosExistentes = new HashSet<>();
+        Set<Integer> pacientesExistentes = new HashSet<>();
+        if (!medicos.isEmpty() || !pacientes.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("medicos", medicos.isEmpty() ? List.of(0) : medicos)
+                    .addValue("pacientes", pacientes.isEmpty() ? List.of(0) : pacientes);
+            namedParameterJdbcTemplate.query(EXISTENTES, params, rs -> {
+                ("M".equals(rs.getString("tipo")) ? medicosExistentes : pacientesExistentes).add(rs.getInt("id"));
+            });
+        }
+
+        List<Integer> validas = new ArrayList<>(atenciones.size());
+        for (int i = 0; i < atenciones.size(); i++) {
+            String error = validar(atenciones.get(i), medicosExistentes, pacientesExistentes);
+            if (error == null) {
+                try {
+                    reservas[i] = AgendaMedicos.reservaDe(atenciones.get(i));
+                    agendaMedicos.reservar(reservas[i]);
+                } catch (IllegalStateException e) {
+                    reservas[i] = null;
+                    error = e.getMessage();
+                }
+            }
+            if (error == null) {
+                validas.add(i);
+            } else {
+                resultados[i] = new ResultadoLote.Item(i, false, error);
+            }
+        }
+        return validas;
+    }
+
+    private String validar(Atencion a, Set<Integer> medicosExistentes, Set<Integer> pacientesExistentes) {
+        if (a == null) {
+            return "Atención vacía.";
+        }
+        if (a.getMedico() == null || a.getMedico().getId() == 0) {
+            return "Debe especificar un médico válido.";
+        }
+        if (!medicosExistentes.contains(a.getMedico().getId())) {
+            return "Médico no encontrado.";
+        }
+        if (a.getPaciente() == null || a.getPaciente().getId() == 0) {
+            return "Debe especificar un paciente válido.";
+        }
+        if (!pacientesExistentes.contains(a.getPaciente().getId())) {
+            return "Paciente no encontrado.";
+        }
+        if (a.getFechaAtencion() == null || a.getHoraInicio() == null) {
+            return "La fecha y la hora de inicio son obligatorias.";
+        }
+        if (a.getEstado() == null || a.getEstado().isEmpty()) {
+            a.setEstado("Pendiente");
+        }
+        Optional<Estado> estado = catalogoEstados.buscar(a.getEstado());
+        if (estado.isEmpty()) {
+            return "Estado no válido: " + a.getEstado();
+        }
+        a.setEstado(estado.get().getNombre());
+        return null;
+    }
+
+    private void insertarTramo(List<Atencion> atenciones, List<Integer> tramo) {
+        List<Atencion> filas = tramo.stream().map(atenciones::get).toList();
+        // Se piden los ids generados: el libro de deuda los anota para poder anular cada cargo después
+        GeneratedKeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, new String[]{"id"}), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Atencion a = filas.get(i);
+                ps.setTimestamp(1, new Timestamp(a.getFechaAtencion().getTime()));
+                ps.setTime(2, Time.valueOf(a.getHoraInicio()));
+                ps.setInt(3, a.getCosto());
+                if (a.getComentario() == null) {
+                    ps.setNull(4, Types.VARCHAR);
+                } else {
+                    ps.setString(4, a.getComentario());
+                }
+                ps.setShort(5, catalogoEstados.idDe(a.getEstado()));
+                ps.setInt(6, a.getPaciente().getId());
+                ps.setInt(7, a.getMedico().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return filas.size();
+            }
+        }, claves);
+        // Cada driver nombra distinto la columna generada (GENERATED_KEY en MySQL, id en H2); hay una sola
+        List<Integer> ids = new ArrayList<>(filas.size());
+        for (Map<String, Object> clave : claves.getKeyList()) {
+            ids.add(((Number) clave.values().iterator().next()).intValue());
+        }
+        // En la misma transacción del tramo: si el INSERT se revierte, el resumen y el libro de deuda también
+        resumenDiarioService.sumarTodas(filas);
+        libroDeudaService.cargarTodas(filas, ids);
+        Map<String, Long> porEstado = new HashMap<>();
+        Map<Integer, List<Integer>> pacientesPorMedico = new HashMap<>();
+        for (int indice : tramo) {
+            Atencion a = atenciones.get(indice);
+            porEstado.merge(a.getEstado(), 1L, Long::sum);
+            pacientesPorMedico.computeIfAbsent(a.getMedico().getId(), k -> new ArrayList<>()).add(a.getPaciente().getId());
+        }
+        porEstado.forEach(contadoresEstado::ajustar);
+        indicePacientesEspecialidad.registrarPorMedico(pacientesPorMedico);
+    }
+}
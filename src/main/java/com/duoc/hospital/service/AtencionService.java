@@ -1,20 +1,35 @@
 package com.duoc.hospital.service;
 
+import com.duoc.hospital.dto.AtencionResumen;
+import com.duoc.hospital.dto.ConteoEstados;
+import com.duoc.hospital.dto.CursorAtencion;
+import com.duoc.hospital.dto.PaginaCursor;
+import com.duoc.hospital.dto.ResultadoReconstruccion;
+import com.duoc.hospital.dto.TotalGanancias;
 import com.duoc.hospital.model.Atencion;
 import com.duoc.hospital.model.Medico;
 import com.duoc.hospital.model.Paciente;
 import com.duoc.hospital.repository.AtencionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.*;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class AtencionService {
 
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
     @Autowired
     private AtencionRepository atencionRepository;
 
@@ -24,6 +39,30 @@ public class AtencionService {
     @Autowired
     private PacienteService pacienteService;
 
+    @Autowired
+    private ExportadorNdjson exportadorNdjson;
+
+    @Autowired
+    private ResumenDiarioService resumenDiarioService;
+
+    @Autowired
+    private TablaCoberturas tablaCoberturas;
+
+    @Autowired
+    private AgendaMedicos agendaMedicos;
+
+    @Autowired
+    private CatalogoEstados catalogoEstados;
+
+    @Autowired
+    private ContadoresEstado contadoresEstado;
+
+    @Autowired
+    private IndicePacientesEspecialidad indicePacientesEspecialidad;
+
+    @Autowired
+    private LibroDeudaService libroDeudaService;
+
     public List<Atencion> getAllAtenciones() {
         return atencionRepository.findAll();
     }
@@ -32,10 +71,12 @@ public class AtencionService {
         return atencionRepository.findById(id);
     }
 
+    @Transactional
     public Atencion save(Atencion atencion) {
         if (atencion.getEstado() == null || atencion.getEstado().isEmpty()) {
             atencion.setEstado("Pendiente");
         }
+        atencion.setEstado(normalizarEstado(atencion.getEstado()));
 
         // Validar y cargar médico completo
         if (atencion.getMedico() == null || atencion.getMedico().getId() == 0) {
@@ -53,11 +94,27 @@ public class AtencionService {
                 .orElseThrow(() -> new IllegalArgumentException("Paciente no encontrado."));
         atencion.setPaciente(paciente);
 
-        return atencionRepository.save(atencion);
+        // El médico no puede tener dos atenciones que se crucen
+        agendaMedicos.reservar(AgendaMedicos.reservaDe(atencion));
+
+        Atencion guardada = atencionRepository.save(atencion);
+        resumenDiarioService.sumar(guardada);
+        contadoresEstado.ajustar(guardada.getEstado(), 1);
+        libroDeudaService.cargar(guardada);
+        indicePacientesEspecialidad.registrar(medico.getEspecialidadMedico().getId(), paciente.getId());
+        return guardada;
     }
 
+    @Transactional
     public void deleteById(int id) {
-        atencionRepository.deleteById(id);
+        atencionRepository.findById(id).ifPresent(atencion -> {
+            resumenDiarioService.restar(atencion);
+            agendaMedicos.liberar(AgendaMedicos.reservaDe(atencion));
+            contadoresEstado.ajustar(atencion.getEstado(), -1);
+            indicePacientesEspecialidad.revisar(atencion.getPaciente().getId());
+            libroDeudaService.anular(atencion.getId());
+            atencionRepository.delete(atencion);
+        });
     }
 
     public List<Atencion> findAll() {
@@ -66,6 +123,130 @@ public class AtencionService {
 
     // Buscar atenciones por fecha exacta (en UTC)
     public List<Atencion> findByFecha(Date fecha) {
+        Date[] rango = rangoDiaUtc(fecha);
+        return atencionRepository.findByFechaEnDia(rango[0], rango[1]);
+    }
+
+    // Conversión de fechas de Chile a UTC antes de consultar (así no hay desfases)
+    public List<Atencion> findByFechaBetween(Date desde, Date hasta) {
+        Date[] rango = rangoChile(desde, hasta);
+        return atencionRepository.findBetweenFechas(rango[0], rango[1]);
+    }
+
+    // Exporta las atenciones como NDJSON; con fechas aplica el mismo rango que findByFechaBetween
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida, Date desde, Date hasta) throws IOException {
+        Stream<Atencion> filas;
+        if (desde == null || hasta == null) {
+            filas = atencionRepository.streamTodas();
+        } else {
+            Date[] rango = rangoChile(desde, hasta);
+            filas = atencionRepository.streamEntreFechas(rango[0], new Date(rango[1].getTime() + 1));
+        }
+        try (filas) {
+            return exportadorNdjson.escribir(filas, salida);
+        }
+    }
+
+    // --- Paginación por cursor ---
+
+    public PaginaCursor<Atencion> findPagina(String after, int limite) {
+        int tope = normalizarLimite(limite);
+        CursorAtencion cursor = leerCursor(after);
+        List<Atencion> filas = cursor == null
+                ? atencionRepository.findPagina(Limit.of(tope + 1))
+                : atencionRepository.findPaginaDespues(cursor.getFecha(), cursor.getId(), Limit.of(tope + 1));
+        return armarPagina(filas, tope);
+    }
+
+    public PaginaCursor<Atencion> findPaginaByFecha(Date fecha, String after, int limite) {
+        Date[] rango = rangoDiaUtc(fecha);
+        return findPaginaEntre(rango[0], rango[1], after, limite);
+    }
+
+    public PaginaCursor<Atencion> findPaginaByFechaBetween(Date desde, Date hasta, String after, int limite) {
+        Date[] rango = rangoChile(desde, hasta);
+        // La consulta paginada usa un rango semiabierto [inicio, fin)
+        return findPaginaEntre(rango[0], new Date(rango[1].getTime() + 1), after, limite);
+    }
+
+    public PaginaCursor<Atencion> findPaginaByEstado(String estado, String after, int limite) {
+        int tope = normalizarLimite(limite);
+        CursorAtencion cursor = leerCursor(after);
+        // Un estado que no está en el catálogo no puede tener atenciones
+        if (catalogoEstados.buscar(estado).isEmpty()) {
+            return new PaginaCursor<>(List.of(), null, tope);
+        }
+        List<Atencion> filas = cursor == null
+                ? atencionRepository.findPaginaPorEstado(estado, Limit.of(tope + 1))
+                : atencionRepository.findPaginaPorEstadoDespues(estado, cursor.getFecha(), cursor.getId(), Limit.of(tope + 1));
+        return armarPagina(filas, tope);
+    }
+
+    public PaginaCursor<AtencionResumen> findResumenByMedicoId(int idMedico, String after, int limite) {
+        int tope = normalizarLimite(limite);
+        CursorAtencion cursor = leerCursor(after);
+        List<AtencionResumen> filas = cursor == null
+                ? atencionRepository.findResumenPorMedico(idMedico, Limit.of(tope + 1))
+                : atencionRepository.findResumenPorMedicoDespues(idMedico, cursor.getFecha(), cursor.getId(), Limit.of(tope + 1));
+        return armarPagina(filas, tope, r -> new CursorAtencion(r.getFechaAtencion(), r.getId()));
+    }
+
+    public PaginaCursor<AtencionResumen> findResumenByPacienteId(int idPaciente, String after, int limite) {
+        int tope = normalizarLimite(limite);
+        CursorAtencion cursor = leerCursor(after);
+        List<AtencionResumen> filas = cursor == null
+                ? atencionRepository.findResumenPorPaciente(idPaciente, Limit.of(tope + 1))
+                : atencionRepository.findResumenPorPacienteDespues(idPaciente, cursor.getFecha(), cursor.getId(), Limit.of(tope + 1));
+        return armarPagina(filas, tope, r -> new CursorAtencion(r.getFechaAtencion(), r.getId()));
+    }
+
+    private PaginaCursor<Atencion> findPaginaEntre(Date inicio, Date fin, String after, int limite) {
+        int tope = normalizarLimite(limite);
+        CursorAtencion cursor = leerCursor(after);
+        List<Atencion> filas = cursor == null
+                ? atencionRepository.findPaginaEntreFechas(inicio, fin, Limit.of(tope + 1))
+                : atencionRepository.findPaginaEntreFechasDespues(inicio, fin, cursor.getFecha(), cursor.getId(), Limit.of(tope + 1));
+        return armarPagina(filas, tope);
+    }
+
+    // Se pide una fila extra: si llega, hay página siguiente y el cursor apunta a la última entregada
+    private PaginaCursor<Atencion> armarPagina(List<Atencion> filas, int tope) {
+        return armarPagina(filas, tope, CursorAtencion::de);
+    }
+
+    private <T> PaginaCursor<T> armarPagina(List<T> filas, int tope, Function<T, CursorAtencion> cursorDe) {
+        if (filas.size() <= tope) {
+            return new PaginaCursor<>(filas, null, tope);
+        }
+        List<T> items = filas.subList(0, tope);
+        String siguiente = cursorDe.apply(items.get(tope - 1)).codificar();
+        return new PaginaCursor<>(items, siguiente, tope);
+    }
+
+    private CursorAtencion leerCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return null;
+        }
+        return CursorAtencion.decodificar(after);
+    }
+
+    // Devuelve el nombre tal como está en el catálogo ("alta" -> "Alta")
+    private String normalizarEstado(String estado) {
+        return catalogoEstados.buscar(estado)
+                .orElseThrow(() -> new IllegalArgumentException("Estado no válido: " + estado))
+                .getNombre();
+    }
+
+    private int normalizarLimite(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor que cero.");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    // Día completo en UTC: [00:00, 00:00 del día siguiente)
+    private Date[] rangoDiaUtc(Date fecha) {
         java.util.Calendar cal = java.util.Calendar.getInstance(java.util.TimeZone.getTimeZone("UTC"));
         cal.setTime(fecha);
         cal.set(java.util.Calendar.HOUR_OF_DAY, 0);
@@ -76,13 +257,12 @@ public class AtencionService {
 
         cal.add(java.util.Calendar.DAY_OF_MONTH, 1);
         Date fin = cal.getTime();
-
-        return atencionRepository.findByFechaEnDia(inicio, fin);
+        return new Date[]{inicio, fin};
     }
 
-    // Conversión de fechas de Chile a UTC antes de consultar (así no hay desfases)
-    public List<Atencion> findByFechaBetween(Date desde, Date hasta) {
-        ZoneId chileZone = ZoneId.of("America/Santiago");
+    // Desde el inicio del día 'desde' hasta el último milisegundo del día 'hasta', ambos en hora de Chile
+    private Date[] rangoChile(Date desde, Date hasta) {
+        ZoneId chileZone = ResumenDiarioService.ZONA_HORARIA;
 
         // Convertir 'desde' a UTC (inicio del día en Chile)
         Instant desdeUtc = LocalDateTime.ofInstant(desde.toInstant(), chileZone)
@@ -96,10 +276,7 @@ public class AtencionService {
                 .withHour(23).withMinute(59).withSecond(59).withNano(999_000_000)
                 .toInstant();
 
-        Date desdeDateUtc = Date.from(desdeUtc);
-        Date hastaDateUtc = Date.from(hastaUtc);
-
-        return atencionRepository.findBetweenFechas(desdeDateUtc, hastaDateUtc);
+        return new Date[]{Date.from(desdeUtc), Date.from(hastaUtc)};
     }
 
     public List<Atencion> findByCostoMenorA(int costo) {
@@ -119,35 +296,69 @@ public class AtencionService {
     }
 
     public List<Atencion> findByEstado(String estado) {
+        if (catalogoEstados.buscar(estado).isEmpty()) {
+            return List.of();
+        }
         return atencionRepository.findByEstado(estado);
     }
 
+    // Suma el resumen diario en vez de cargar todas las atenciones dadas de alta
     public int calcularGananciaTotalAlta() {
-        List<Atencion> atenciones = atencionRepository.findByEstado("Alta");
-        return atenciones.stream().mapToInt(Atencion::getCosto).sum();
+        return Math.toIntExact(resumenDiarioService.totalPorEstado("Alta"));
+    }
+
+    public TotalGanancias calcularGanancias(LocalDate desde, LocalDate hasta, String estado, Integer idMedico) {
+        return resumenDiarioService.totalEntre(desde, hasta, estado, idMedico);
+    }
+
+    public ConteoEstados contarPorEstado() {
+        return contadoresEstado.conteo();
+    }
+
+    public ResultadoReconstruccion reconstruirResumenDiario() {
+        return resumenDiarioService.reconstruir();
     }
 
+    // Copago exacto al peso: la base suma los costos por previsión y la cobertura sale de la tabla en memoria
     public int calcularCostoTotalPaciente(int idPaciente) {
-        List<Atencion> atenciones = atencionRepository.findAtencionesByPacienteId(idPaciente);
-        return (int) Math.round(atenciones.stream()
-                .mapToDouble(a -> {
-                    double cobertura = 0.0;
-                    try {
-                        cobertura = Double.parseDouble(a.getPaciente().getPrevision().getCobertura().replace("%", "")) / 100.0;
-                    } catch (Exception e) {
-                        cobertura = 0.0;
-                    }
-                    return a.getCosto() * (1 - cobertura);
-                })
-                .sum());
+        long total = 0;
+        for (AtencionRepository.CostoPorPrevision fila : atencionRepository.sumarCostoPorPrevision(idPaciente)) {
+            int puntosBase = fila.getIdPrevision() == null ? 0 : tablaCoberturas.puntosBase(fila.getIdPrevision());
+            total += TablaCoberturas.copago(fila.getTotal(), puntosBase);
+        }
+        return Math.toIntExact(total);
     }
+
     // Agrega este método a tu clase AtencionService
+    @Transactional
     public Optional<Atencion> update(int id, Atencion atencionActualizada) {
         return atencionRepository.findById(id)
                 .map(atencionExistente -> {
+                    // Se descuenta con los valores anteriores antes de que el merge los reemplace
+                    // Sin estado en la solicitud se conserva el actual
+                    atencionActualizada.setEstado(atencionActualizada.getEstado() == null
+                            ? atencionExistente.getEstado()
+                            : normalizarEstado(atencionActualizada.getEstado()));
+                    resumenDiarioService.restar(atencionExistente);
+                    contadoresEstado.ajustar(atencionExistente.getEstado(), -1);
+                    // El merge reemplaza el paciente de atencionExistente, así que se toma antes
+                    int idPacienteAnterior = atencionExistente.getPaciente().getId();
+                    indicePacientesEspecialidad.revisar(idPacienteAnterior);
+                    // Se anula lo cobrado y se vuelve a cargar con el costo, estado y paciente nuevos
+                    libroDeudaService.anular(id);
+                    // Se suelta el horario anterior antes de tomar el nuevo, por si no cambió
+                    agendaMedicos.liberar(AgendaMedicos.reservaDe(atencionExistente));
+                    agendaMedicos.reservar(AgendaMedicos.reservaDe(atencionActualizada));
                     atencionActualizada.setId(id);
                     // Aquí puedes añadir la lógica para cargar Medico y Paciente si es necesario
-                    return atencionRepository.save(atencionActualizada);
+                    Atencion guardada = atencionRepository.save(atencionActualizada);
+                    resumenDiarioService.sumar(guardada);
+                    contadoresEstado.ajustar(guardada.getEstado(), 1);
+                    libroDeudaService.cargar(guardada);
+                    if (guardada.getPaciente() != null && guardada.getPaciente().getId() != idPacienteAnterior) {
+                        indicePacientesEspecialidad.revisar(guardada.getPaciente().getId());
+                    }
+                    return guardada;
                 });
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.service.IndiceUnicidad.Registro;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.List;
+
+// Búsqueda aproximada por nombre y apellido de pacientes y médicos, con un índice de trigramas por tabla.
+// Se carga al iniciar; PacienteService y MedicoService lo mantienen al guardar, actualizar y borrar.
+@Component
+public class BuscadorNombres {
+
+    public static final int LIMITE_MAXIMO = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final IndiceTrigramas[] indices = {new IndiceTrigramas(), new IndiceTrigramas()};
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        for (Registro registro : Registro.values()) {
+            IndiceTrigramas indice = indices[registro.ordinal()];
+            String sql = "SELECT id, nombre, apellido FROM " + registro.tabla();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> indice.actualizar(rs.getInt(1), rs.getString(2) + " " + rs.getString(3)));
+        }
+    }
+
+    public void actualizar(Registro registro, int id, String nombre, String apellido) {
+        indices[registro.ordinal()].actualizar(id, nombre + " " + apellido);
+    }
+
+    public void quitar(Registro registro, int id) {
+        indices[registro.ordinal()].quitar(id);
+    }
+
+    // Ids de los registros más parecidos, de mayor a menor similitud
+    public List<Integer> buscar(Registro registro, String consulta, int limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("Debe indicar el texto a buscar.");
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+        }
+        return Arrays.stream(indices[registro.ordinal()].buscar(consulta, limite))
+                .map(IndiceTrigramas.Resultado::id)
+                .toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.EstadisticaCache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Caché de lectura con tamaño máximo y vencimiento. Las claves se reparten en segmentos; cada uno es un
+// LinkedHashMap en orden de acceso que desaloja su entrada menos usada al llenarse (LRU por segmento),
+// así dos lecturas solo compiten si caen en el mismo segmento. La carga desde la base se hace fuera de
+// cualquier bloqueo y no se guardan resultados vacíos.
+public final class CacheAcotado<K, V> {
+
+    private static final int SEGMENTOS = 16;
+
+    private final String nombre;
+    private final int maximo;
+    private final long ttlNanos;
+    private final List<Segmento> segmentos = new ArrayList<>();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder vencidas = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    private record Entrada<V>(V valor, long vence) {
+    }
+
+    private final class Segmento extends LinkedHashMap<K, Entrada<V>> {
+        private final int capacidad;
+
+        // Sube con cada invalidación del segmento: una carga que empezó antes no guarda su resultado, que puede
+        // ser viejo. Es por segmento para que invalidar una clave no descarte las cargas de todas las demás.
+        private long generacion;
+
+        Segmento(int capacidad) {
+            super(16, 0.75f, true);
+            this.capacidad = capacidad;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> masAntigua) {
+            if (size() > capacidad) {
+                desalojos.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // ttlMs = 0: las entradas solo salen por desalojo o invalidación
+    public CacheAcotado(String nombre, int maximo, long ttlMs) {
+        if (maximo < 1) {
+            throw new IllegalArgumentException("El máximo de la caché " + nombre + " debe ser mayor que cero.");
+        }
+        if (ttlMs < 0) {
+            throw new IllegalArgumentException("El vencimiento de la caché " + nombre + " no puede ser negativo.");
+        }
+        this.nombre = nombre;
+        this.maximo = maximo;
+        this.ttlNanos = ttlMs * 1_000_000;
+        int cantidad = Math.min(SEGMENTOS, maximo);
+        for (int i = 0; i < cantidad; i++) {
+            // Los primeros segmentos reciben el resto, así la suma de capacidades es exactamente 'maximo'
+            segmentos.add(new Segmento(maximo / cantidad + (i < maximo % cantidad ? 1 : 0)));
+        }
+    }
+
+    public Optional<V> obtener(K clave, Function<K, Optional<V>> cargador) {
+        Segmento segmento = segmento(clave);
+        long antes;
+        synchronized (segmento) {
+            antes = segmento.generacion;
+            Entrada<V> entrada = segmento.get(clave);
+            if (entrada != null) {
+                if (ttlNanos == 0 || System.nanoTime() - entrada.vence() < 0) {
+                    aciertos.increment();
+                    return Optional.of(entrada.valor());
+                }
+                segmento.remove(clave);
+                vencidas.increment();
+            }
+        }
+        fallos.increment();
+        Optional<V> valor = cargador.apply(clave);
+        valor.ifPresent(v -> {
+            synchronized (segmento) {
+                if (segmento.generacion == antes) {
+                    segmento.put(clave, new Entrada<>(v, System.nanoTime() + ttlNanos));
+                }
+            }
+        });
+        return valor;
+    }
+
+    public void invalidar(K clave) {
+        Segmento segmento = segmento(clave);
+        synchronized (segmento) {
+            segmento.generacion++;
+            if (segmento.remove(clave) != null) {
+                invalidaciones.increment();
+            }
+        }
+    }
+
+    public void invalidarTodo() {
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                segmento.generacion++;
+                invalidaciones.add(segmento.size());
+                segmento.clear();
+            }
+        }
+    }
+
+    public int entradas() {
+        int total = 0;
+        for (Segmento segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.size();
+            }
+        }
+        return total;
+    }
+
+    public EstadisticaCache estadistica() {
+        long a = aciertos.sum();
+        long f = fallos.sum();
+        return new EstadisticaCache(nombre, entradas(), maximo, ttlNanos / 1_000_000, a, f,
+                a + f == 0 ? 0 : (double) a / (a + f), desalojos.sum(), vencidas.sum(), invalidaciones.sum());
+    }
+
+    private Segmento segmento(K clave) {
+        int h = clave.hashCode();
+        return segmentos.get(Math.floorMod(h ^ (h >>> 16), segmentos.size()));
+    }
+}
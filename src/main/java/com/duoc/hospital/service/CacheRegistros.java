@@ -0,0 +1,124 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.EstadisticaCache;
+import com.duoc.hospital.model.Especialidad;
+import com.duoc.hospital.model.Medico;
+import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Prevision;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Cachés de lectura de médicos y pacientes: por id, y la lista de médicos por nombre de especialidad.
+// El RUN no necesita caché propia: IndiceRun ya lo resuelve a un id en memoria.
+// Se guardan copias sin colecciones perezosas ni sesión de Hibernate, compartidas entre hilos y que nadie
+// modifica. Cada cambio las invalida de inmediato y otra vez al confirmar la transacción, así una lectura
+// que alcanzó a ver la base antes del commit no deja un valor viejo guardado.
+@Component
+public class CacheRegistros {
+
+    @Value("${hospital.cache.medicos.maximo:1000}")
+    private int maximoMedicos;
+
+    @Value("${hospital.cache.pacientes.maximo:10000}")
+    private int maximoPacientes;
+
+    @Value("${hospital.cache.especialidades.maximo:200}")
+    private int maximoEspecialidades;
+
+    @Value("${hospital.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    private CacheAcotado<Integer, Medico> medicos;
+    private CacheAcotado<Integer, Paciente> pacientes;
+    private CacheAcotado<String, List<Medico>> medicosPorEspecialidad;
+
+    @PostConstruct
+    void configurar() {
+        medicos = new CacheAcotado<>("medicos", maximoMedicos, ttlMs);
+        pacientes = new CacheAcotado<>("pacientes", maximoPacientes, ttlMs);
+        medicosPorEspecialidad = new CacheAcotado<>("medicosPorEspecialidad", maximoEspecialidades, ttlMs);
+    }
+
+    public Optional<Medico> medico(int id, Function<Integer, Optional<Medico>> cargador) {
+        return medicos.obtener(id, k -> cargador.apply(k).map(CacheRegistros::copia));
+    }
+
+    public Optional<Paciente> paciente(int id, Function<Integer, Optional<Paciente>> cargador) {
+        return pacientes.obtener(id, k -> cargador.apply(k).map(CacheRegistros::copia));
+    }
+
+    public List<Medico> medicosDeEspecialidad(String nombre, Function<String, List<Medico>> cargador) {
+        return medicosPorEspecialidad.obtener(nombre,
+                k -> Optional.of(cargador.apply(k).stream().map(CacheRegistros::copia).toList())).orElseThrow();
+    }
+
+    // Un médico cambió: su entrada y todas las listas por especialidad (pudo cambiar de especialidad)
+    public void olvidarMedico(int id) {
+        alCambiar(() -> {
+            medicos.invalidar(id);
+            medicosPorEspecialidad.invalidarTodo();
+        });
+    }
+
+    // Cambió una especialidad: los médicos guardan una copia de la suya
+    public void olvidarMedicos() {
+        alCambiar(() -> {
+            medicos.invalidarTodo();
+            medicosPorEspecialidad.invalidarTodo();
+        });
+    }
+
+    public void olvidarPaciente(int id) {
+        alCambiar(() -> pacientes.invalidar(id));
+    }
+
+    // Pacientes cuya deuda cambió en un lote
+    public void olvidarPacientes(Collection<Integer> ids) {
+        List<Integer> copia = List.copyOf(ids);
+        alCambiar(() -> copia.forEach(pacientes::invalidar));
+    }
+
+    // Cambió una previsión: los pacientes guardan una copia de la suya
+    public void olvidarTodosLosPacientes() {
+        alCambiar(pacientes::invalidarTodo);
+    }
+
+    public List<EstadisticaCache> estadisticas() {
+        return List.of(medicos.estadistica(), pacientes.estadistica(), medicosPorEspecialidad.estadistica());
+    }
+
+    private static void alCambiar(Runnable invalidar) {
+        invalidar.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidar.run();
+                }
+            });
+        }
+    }
+
+    private static Medico copia(Medico m) {
+        Especialidad e = m.getEspecialidadMedico();
+        return new Medico(m.getId(), m.getRun(), m.getRunNum(), m.getNombre(), m.getApellido(), m.getFecha_contrato(),
+                m.getSueldoBase(), m.getCorreo(), m.getTelefono(), null,
+                e == null ? null : new Especialidad(e.getId(), e.getNombre(), e.getDescripcion(), null));
+    }
+
+    private static Paciente copia(Paciente p) {
+        Prevision v = p.getPrevision();
+        return new Paciente(p.getId(), p.getRun(), p.getRunNum(), p.getNombre(), p.getApellido(), p.getFechaNacimiento(),
+                p.getCorreo(), p.getTelefono(), null,
+                v == null ? null : new Prevision(v.getId(), v.getNombre(), v.getCobertura(), v.getCoberturaPb(), null),
+                p.getDeuda());
+    }
+}
@@ -0,0 +1,100 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+import com.duoc.hospital.model.Especialidad;
+import com.duoc.hospital.repository.EspecialidadRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Catálogo de especialidades en memoria, igual que CatalogoEstados: una copia inmutable indexada por id y
+// por nombre (sin distinguir mayúsculas, como la collation de MySQL) que se reemplaza completa al recargar.
+// EspecialidadService la recarga al guardar o borrar; un id desconocido (creado desde otra instancia) fuerza
+// una recarga, a lo más una por segundo, y un nombre desconocido no.
+@Component
+public class CatalogoEspecialidades {
+
+    @Autowired
+    private EspecialidadRepository especialidadRepository;
+
+    private final MetricasCatalogo metricas = new MetricasCatalogo("especialidades");
+
+    private volatile Catalogo catalogo;
+
+    // Igual que en CatalogoEstados: la recarga espera a la base con el candado tomado
+    private final ReentrantLock recarga = new ReentrantLock();
+
+    private record Catalogo(Especialidad[] porId, Map<String, Especialidad> porNombre, List<Especialidad> todas) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+    }
+
+    // Se guardan copias sin la lista de médicos: lo que se comparte entre hilos no toca la sesión de Hibernate
+    public void recargar() {
+        recarga.lock();
+        try {
+            List<Especialidad> especialidades = especialidadRepository.findAll().stream()
+                    .map(e -> new Especialidad(e.getId(), e.getNombre(), e.getDescripcion(), null))
+                    .sorted(Comparator.comparingInt(Especialidad::getId))
+                    .toList();
+            int maximo = especialidades.stream().mapToInt(Especialidad::getId).max().orElse(0);
+            Especialidad[] porId = new Especialidad[maximo + 1];
+            Map<String, Especialidad> porNombre = new HashMap<>();
+            for (Especialidad e : especialidades) {
+                porId[e.getId()] = e;
+                porNombre.putIfAbsent(clave(e.getNombre()), e);
+            }
+            catalogo = new Catalogo(porId, porNombre, especialidades);
+            metricas.cargado(especialidades);
+        } finally {
+            recarga.unlock();
+        }
+    }
+
+    public List<Especialidad> todas() {
+        return actual().todas();
+    }
+
+    public Optional<Especialidad> buscar(int id) {
+        Optional<Especialidad> especialidad = metricas.contar(porId(actual(), id));
+        if (especialidad.isEmpty() && metricas.recargarPorFallo()) {
+            recargar();
+            especialidad = porId(catalogo, id);
+        }
+        return especialidad;
+    }
+
+    public Optional<Especialidad> buscar(String nombre) {
+        return metricas.contar(nombre == null
+                ? Optional.empty()
+                : Optional.ofNullable(actual().porNombre().get(clave(nombre))));
+    }
+
+    public EstadisticaCatalogo estadistica() {
+        return metricas.estadistica(actual().todas().size());
+    }
+
+    private static Optional<Especialidad> porId(Catalogo c, int id) {
+        return id >= 0 && id < c.porId().length ? Optional.ofNullable(c.porId()[id]) : Optional.empty();
+    }
+
+    private Catalogo actual() {
+        Catalogo c = catalogo;
+        if (c == null) {
+            recargar();
+            c = catalogo;
+        }
+        return c;
+    }
+
+    private static String clave(String nombre) {
+        return nombre.trim().toUpperCase(Locale.ROOT);
+    }
+}
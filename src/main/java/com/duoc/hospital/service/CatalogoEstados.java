@@ -0,0 +1,104 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+import com.duoc.hospital.model.Estado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Catálogo de estados en memoria: un arreglo inmutable indexado por id y un mapa por nombre
+// (sin distinguir mayúsculas). Se reemplaza completo al recargar, así que las lecturas no se bloquean.
+// Se lee con JDBC y no con el repositorio porque lo usa EstadoConverter en medio de un flush de Hibernate.
+@Component
+public class CatalogoEstados {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MetricasCatalogo metricas = new MetricasCatalogo("estados");
+
+    private volatile Catalogo catalogo;
+
+    // Un ReentrantLock y no synchronized: la recarga consulta la base, y un hilo virtual que se bloquea en E/S
+    // dentro de un synchronized deja fijado su hilo portador (JDK 21)
+    private final ReentrantLock recarga = new ReentrantLock();
+
+    private record Catalogo(Estado[] porId, Map<String, Estado> porNombre, List<Estado> todos) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+    }
+
+    public void recargar() {
+        recarga.lock();
+        try {
+            List<Estado> estados = jdbcTemplate.query("SELECT id, nombre, descripcion FROM estado ORDER BY id",
+                    (rs, i) -> new Estado(rs.getShort("id"), rs.getString("nombre"), rs.getString("descripcion")));
+            int maximo = estados.stream().mapToInt(Estado::getId).max().orElse(0);
+            Estado[] porId = new Estado[maximo + 1];
+            Map<String, Estado> porNombre = new HashMap<>();
+            for (Estado e : estados) {
+                porId[e.getId()] = e;
+                porNombre.putIfAbsent(clave(e.getNombre()), e);
+            }
+            catalogo = new Catalogo(porId, porNombre, List.copyOf(estados));
+            metricas.cargado(catalogo.todos());
+        } finally {
+            recarga.unlock();
+        }
+    }
+
+    public List<Estado> todos() {
+        return actual().todos();
+    }
+
+    public Optional<Estado> buscar(int id) {
+        Estado[] porId = actual().porId();
+        return metricas.contar(id >= 0 && id < porId.length ? Optional.ofNullable(porId[id]) : Optional.empty());
+    }
+
+    // Nombres desconocidos no fuerzan una recarga: los estados nuevos llegan por EstadoService
+    public Optional<Estado> buscar(String nombre) {
+        return metricas.contar(nombre == null ? Optional.empty() : Optional.ofNullable(actual().porNombre().get(clave(nombre))));
+    }
+
+    public short idDe(String nombre) {
+        return buscar(nombre)
+                .orElseThrow(() -> new IllegalArgumentException("Estado no válido: " + nombre))
+                .getId();
+    }
+
+    // Un id que viene de la base siempre existe; si no está, el catálogo quedó atrasado
+    public String nombreDe(short id) {
+        Optional<Estado> estado = buscar(id);
+        if (estado.isEmpty()) {
+            recargar();
+            estado = buscar(id);
+        }
+        return estado.orElseThrow(() -> new IllegalStateException("Estado " + id + " no existe en el catálogo.")).getNombre();
+    }
+
+    public EstadisticaCatalogo estadistica() {
+        return metricas.estadistica(actual().todos().size());
+    }
+
+    private Catalogo actual() {
+        Catalogo c = catalogo;
+        if (c == null) {
+            recargar();
+            c = catalogo;
+        }
+        return c;
+    }
+
+    private static String clave(String nombre) {
+        return nombre.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,5 +1,6 @@
 package com.duoc.hospital.service;
 
+import com.duoc.hospital.dto.EstadisticaCatalogo;
 import com.duoc.hospital.model.Especialidad;
 import com.duoc.hospital.repository.EspecialidadRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,22 +15,39 @@ public class EspecialidadService {
     @Autowired
     private EspecialidadRepository especialidadRepository;
 
+    @Autowired
+    private CatalogoEspecialidades catalogoEspecialidades;
+
+    @Autowired
+    private CacheRegistros cacheRegistros;
+
     /*GET, GETBYID, GUARDAR, ACTUALIZAR, BORRAR */
 
-    public List<Especialidad> getAllEspecialidades() { return especialidadRepository.findAll(); }
+    // Las lecturas salen del catálogo en memoria; las escrituras lo recargan
+    public List<Especialidad> getAllEspecialidades() { return catalogoEspecialidades.todas(); }
 
-    public Optional<Especialidad> findById(int id) { return especialidadRepository.findById(id); }
+    public Optional<Especialidad> findById(int id) { return catalogoEspecialidades.buscar(id); }
 
     public Especialidad save(Especialidad especialidad) {
-        return especialidadRepository.save(especialidad);
+        Especialidad guardada = especialidadRepository.save(especialidad);
+        catalogoEspecialidades.recargar();
+        cacheRegistros.olvidarMedicos();
+        return guardada;
     }
 
     public void deleteById(int id) {
         especialidadRepository.deleteById(id);
+        catalogoEspecialidades.recargar();
+        cacheRegistros.olvidarMedicos();
     }
 
     public List<Especialidad> findAll() {
-        return especialidadRepository.findAll();
+        return catalogoEspecialidades.todas();
+    }
+
+    // Versión y fecha de la copia vigente; con ellas el listado responde 304 sin ir a la base
+    public EstadisticaCatalogo estadistica() {
+        return catalogoEspecialidades.estadistica();
     }
     
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.duoc.hospital.service;
 
+import com.duoc.hospital.dto.EstadisticaCatalogo;
 import com.duoc.hospital.model.Estado;
 import com.duoc.hospital.repository.EstadoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,15 +15,32 @@ public class EstadoService{
 @Autowired
 private EstadoRepository estadoRepository;
 
+@Autowired
+private CatalogoEstados catalogoEstados;
+
 /*GET, GETBYID, GUARDAR, ACTUALIZAR, BORRAR */
 
-public List<Estado> getAllEstados() { return estadoRepository.findAll();}
+// Las lecturas salen del catálogo en memoria; las escrituras lo recargan
+public List<Estado> getAllEstados() { return catalogoEstados.todos();}
+
+public Optional<Estado> findById(int id) {return catalogoEstados.buscar(id);}
 
-public Optional<Estado> findById(int id) {return estadoRepository.findById(id);}
+public Estado save(Estado estado) {
+    Estado guardado = estadoRepository.save(estado);
+    catalogoEstados.recargar();
+    return guardado;
+}
 
-public Estado save(Estado estado) {return estadoRepository.save(estado);}
+public void deleteById(int id) {
+    if (id < 0 || id > Short.MAX_VALUE) {
+        return;
+    }
+    estadoRepository.deleteById((short) id);
+    catalogoEstados.recargar();
+}
 
-public void deleteById(int id) {estadoRepository.deleteById(id);}
+public List<Estado> findAll() {return catalogoEstados.todos();}
 
-public List<Estado> findAll() {return estadoRepository.findAll();}
+// Versión y fecha de la copia vigente; con ellas el listado responde 304 sin ir a la base
+public EstadisticaCatalogo estadistica() {return catalogoEstados.estadistica();}
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.duoc.hospital.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Escribe un Stream de entidades como NDJSON (un objeto JSON por línea).
+// Cada LOTE filas vacía el buffer hacia el cliente y desacopla las entidades ya escritas
+// del contexto de persistencia, así la memoria usada no crece con el tamaño de la exportación.
+// Debe llamarse dentro de una transacción de solo lectura que mantenga abierto el cursor.
+@Component
+public class ExportadorNdjson {
+
+    public static final int LOTE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // ObjectWriter es inmutable y seguro entre hilos: se arma una vez y lo comparten todas las exportaciones
+    private ObjectWriter writer;
+
+    @PostConstruct
+    void configurar() {
+        writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public <T> long escribir(Stream<T> filas, OutputStream salida) throws IOException {
+        long escritas = 0;
+        try (JsonGenerator generator = writer.createGenerator(salida)) {
+            Iterator<T> it = filas.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                escritas++;
+                if (escritas % LOTE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            generator.flush();
+        }
+        return escritas;
+    }
+}
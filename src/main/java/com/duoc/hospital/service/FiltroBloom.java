@@ -0,0 +1,70 @@
+package com.duoc.hospital.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom sobre texto: responde "seguro que no está" o "puede estar".
+// Nunca da falsos negativos para lo agregado; los falsos positivos quedan cerca de la tasa pedida
+// mientras no se superen los elementos esperados. Es seguro entre hilos sin bloqueos.
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int cantidadBits;
+    private final int funciones;
+
+    public FiltroBloom(int esperados, double tasaFalsosPositivos) {
+        if (esperados <= 0 || tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("Parámetros de filtro no válidos.");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-esperados * Math.log(tasaFalsosPositivos) / (ln2 * ln2));
+        this.cantidadBits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.funciones = Math.max(1, (int) Math.round((double) cantidadBits / esperados * ln2));
+        this.bits = new AtomicLongArray((cantidadBits + 63) >>> 6);
+    }
+
+    public void agregar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            int bit = indice(h1 + i * h2);
+            long mascara = 1L << bit;
+            int palabra = bit >>> 6;
+            long actual;
+            while (((actual = bits.get(palabra)) & mascara) == 0
+                    && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                // Otro hilo cambió la palabra: reintentar con el valor nuevo
+            }
+        }
+    }
+
+    public boolean puedeContener(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            int bit = indice(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indice(int combinado) {
+        return (combinado & Integer.MAX_VALUE) % cantidadBits;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres, con una mezcla final para repartir ambas mitades
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
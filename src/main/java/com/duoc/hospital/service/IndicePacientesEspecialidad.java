@@ -0,0 +1,170 @@
+package com.duoc.hospital.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Pacientes atendidos por cada especialidad: un MapaBits de ids de paciente por id de especialidad.
+// Se arma al iniciar con una pasada sobre atencion y después cambia solo cuando una transacción confirma,
+// igual que ContadoresEstado. Las consultas combinan mapas (y, o, menos) y entregan ids en orden.
+@Component
+public class IndicePacientesEspecialidad {
+
+    // Sin DISTINCT: la base no tiene que ordenar nada y agregar un id repetido no cambia el mapa
+    private static final String PARES =
+            "SELECT m.id_especialidad, a.id_paciente FROM atencion a JOIN medico m ON m.id = a.id_medico";
+
+    private static final String ESPECIALIDADES_PACIENTE =
+            "SELECT DISTINCT m.id_especialidad FROM atencion a JOIN medico m ON m.id = a.id_medico WHERE a.id_paciente = ?";
+
+    private static final String ESPECIALIDAD_MEDICOS = "SELECT id, id_especialidad FROM medico WHERE id IN (:ids)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    private Map<Integer, MapaBits> porEspecialidad = new HashMap<>();
+
+    // La carga completa se hace con el candado tomado: los cambios que confirmen mientras tanto esperan
+    // y se aplican sobre el mapa nuevo en vez de perderse al reemplazarlo
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        candado.writeLock().lock();
+        try {
+            Map<Integer, MapaBits> nuevo = new HashMap<>();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(PARES);
+                ps.setFetchSize(1000);
+                return ps;
+            }, (RowCallbackHandler) rs -> nuevo.computeIfAbsent(rs.getInt(1), k -> new MapaBits()).agregar(rs.getInt(2)));
+            porEspecialidad = nuevo;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Una atención nueva: el paciente queda en la especialidad de su médico
+    public void registrar(int idEspecialidad, int idPaciente) {
+        alConfirmar(() -> {
+            candado.writeLock().lock();
+            try {
+                porEspecialidad.computeIfAbsent(idEspecialidad, k -> new MapaBits()).agregar(idPaciente);
+            } finally {
+                candado.writeLock().unlock();
+            }
+        });
+    }
+
+    // Atenciones insertadas por lote, agrupadas por médico. La especialidad de cada médico se lee dentro
+    // de la misma transacción, con una sola consulta
+    public void registrarPorMedico(Map<Integer, List<Integer>> pacientesPorMedico) {
+        if (pacientesPorMedico.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> especialidadDe = new HashMap<>();
+        namedParameterJdbcTemplate.query(ESPECIALIDAD_MEDICOS, Map.of("ids", pacientesPorMedico.keySet()),
+                (RowCallbackHandler) rs -> especialidadDe.put(rs.getInt(1), rs.getInt(2)));
+        alConfirmar(() -> {
+            candado.writeLock().lock();
+            try {
+                pacientesPorMedico.forEach((idMedico, pacientes) -> {
+                    Integer idEspecialidad = especialidadDe.get(idMedico);
+                    if (idEspecialidad != null) {
+                        MapaBits mapa = porEspecialidad.computeIfAbsent(idEspecialidad, k -> new MapaBits());
+                        pacientes.forEach(mapa::agregar);
+                    }
+                });
+            } finally {
+                candado.writeLock().unlock();
+            }
+        });
+    }
+
+    // Al borrar o mover una atención no se sabe si el paciente tiene otras con la misma especialidad,
+    // así que después de confirmar se vuelven a leer sus especialidades desde la base
+    public void revisar(int idPaciente) {
+        alConfirmar(() -> {
+            Set<Integer> actuales = new HashSet<>(
+                    jdbcTemplate.queryForList(ESPECIALIDADES_PACIENTE, Integer.class, idPaciente));
+            candado.writeLock().lock();
+            try {
+                for (Map.Entry<Integer, MapaBits> e : porEspecialidad.entrySet()) {
+                    if (!actuales.contains(e.getKey())) {
+                        e.getValue().quitar(idPaciente);
+                    }
+                }
+                for (Integer idEspecialidad : actuales) {
+                    porEspecialidad.computeIfAbsent(idEspecialidad, k -> new MapaBits()).agregar(idPaciente);
+                }
+            } finally {
+                candado.writeLock().unlock();
+            }
+        });
+    }
+
+    // Un médico cambió de especialidad: todas sus atenciones cambian de grupo y se rearma el índice
+    public void recargar() {
+        alConfirmar(this::cargar);
+    }
+
+    // Pacientes atendidos en todas las especialidades de 'con' y en ninguna de 'sin'. Devuelve una copia
+    // propia del llamador, que puede paginarla sin el candado
+    public MapaBits pacientes(Collection<Integer> con, Collection<Integer> sin) {
+        if (con.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos una especialidad.");
+        }
+        candado.readLock().lock();
+        try {
+            // Se intersecta primero con los mapas más chicos, así los resultados intermedios son pequeños
+            List<MapaBits> incluidos = new ArrayList<>();
+            for (Integer id : con) {
+                MapaBits mapa = porEspecialidad.get(id);
+                if (mapa == null) {
+                    return new MapaBits();
+                }
+                incluidos.add(mapa);
+            }
+            incluidos.sort(Comparator.comparingLong(MapaBits::cardinalidad));
+            MapaBits resultado = incluidos.get(0).copiar();
+            for (int i = 1; i < incluidos.size() && !resultado.estaVacio(); i++) {
+                resultado = MapaBits.y(resultado, incluidos.get(i));
+            }
+            for (Integer id : sin) {
+                MapaBits mapa = porEspecialidad.get(id);
+                if (mapa != null && !resultado.estaVacio()) {
+                    resultado = MapaBits.menos(resultado, mapa);
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private static void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+}
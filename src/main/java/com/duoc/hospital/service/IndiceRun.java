@@ -0,0 +1,68 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.service.IndiceUnicidad.Registro;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// RUN numérico -> id de paciente o médico, en memoria. Se carga al iniciar y los servicios lo mantienen
+// al guardar y borrar. Es solo un atajo: quien lo usa confirma el RUN de la fila que encuentra,
+// y ante una ausencia consulta el índice run_num de la base (puede venir de otra instancia).
+@Component
+public class IndiceRun {
+
+    public static final int SIN_ID = MapaLongInt.SIN_VALOR;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MapaLongInt[] mapas = new MapaLongInt[Registro.values().length];
+
+    // Ver CatalogoEstados: la recarga hace E/S con el candado tomado
+    private final ReentrantLock recarga = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        for (Registro registro : Registro.values()) {
+            recargar(registro);
+        }
+    }
+
+    public void recargar(Registro registro) {
+        recarga.lock();
+        try {
+            String tabla = registro.tabla();
+            Long filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tabla, Long.class);
+            MapaLongInt mapa = new MapaLongInt((int) Math.min(filas == null ? 0 : filas, 50_000_000));
+            jdbcTemplate.query("SELECT run_num, id FROM " + tabla + " WHERE run_num IS NOT NULL",
+                    (RowCallbackHandler) rs -> mapa.put(rs.getInt(1), rs.getInt(2)));
+            mapas[registro.ordinal()] = mapa;
+        } finally {
+            recarga.unlock();
+        }
+    }
+
+    public int buscar(Registro registro, int runNum) {
+        MapaLongInt mapa = mapas[registro.ordinal()];
+        return mapa == null || runNum <= 0 ? SIN_ID : mapa.get(runNum);
+    }
+
+    public void registrar(Registro registro, Integer runNum, int id) {
+        MapaLongInt mapa = mapas[registro.ordinal()];
+        if (mapa != null && runNum != null && runNum > 0) {
+            mapa.put(runNum, id);
+        }
+    }
+
+    public void quitar(Registro registro, Integer runNum) {
+        MapaLongInt mapa = mapas[registro.ordinal()];
+        if (mapa != null && runNum != null && runNum > 0) {
+            mapa.remove(runNum);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.duoc.hospital.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido de trigramas para búsqueda aproximada de nombres.
+// El texto se pliega (minúsculas, sin acentos, solo letras y dígitos) y cada palabra se rellena como en
+// pg_trgm ("  ana " -> "  a", " an", "ana", "na "). Cada trigrama se codifica como un int y apunta a una
+// lista ordenada de ids; la búsqueda cuenta trigramas compartidos por id y ordena por similitud de Jaccard.
+// Todo en arreglos de int, sin objetos por entrada, para que quepa un millón de nombres.
+public class IndiceTrigramas {
+
+    // Espacio = 0, a-z = 1..26, 0-9 = 27..36
+    private static final int ALFABETO = 37;
+    private static final int TRIGRAMAS = ALFABETO * ALFABETO * ALFABETO;
+    // Fracción mínima de los trigramas de la consulta que debe compartir un resultado
+    private static final double COINCIDENCIA_MINIMA = 0.5;
+    private static final int MAXIMO_TRIGRAMAS_CONSULTA = 255;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    private final int[][] listas = new int[TRIGRAMAS][];
+    private final int[] largos = new int[TRIGRAMAS];
+    // Por id: texto plegado (para quitar sus trigramas al actualizar) y cantidad de trigramas distintos
+    private String[] textos = new String[1024];
+    private int[] tamanos = new int[1024];
+    private int cantidad;
+
+    public record Resultado(int id, double similitud) {
+    }
+
+    public void actualizar(int id, String texto) {
+        String plegado = plegar(texto);
+        int[] nuevos = trigramas(plegado);
+        cerrojo.writeLock().lock();
+        try {
+            quitarSinBloqueo(id);
+            asegurarCapacidad(id);
+            textos[id] = plegado;
+            tamanos[id] = nuevos.length;
+            cantidad++;
+            for (int t : nuevos) {
+                int[] lista = listas[t];
+                if (lista == null) {
+                    lista = listas[t] = new int[4];
+                } else if (largos[t] == lista.length) {
+                    lista = listas[t] = Arrays.copyOf(lista, lista.length * 2);
+                }
+                // Los ids nuevos suelen ser los mayores: casi siempre se agrega al final sin mover nada
+                int n = largos[t];
+                int i = n == 0 || lista[n - 1] < id ? n : -(Arrays.binarySearch(lista, 0, n, id) + 1);
+                System.arraycopy(lista, i, lista, i + 1, n - i);
+                lista[i] = id;
+                largos[t] = n + 1;
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    public void quitar(int id) {
+        cerrojo.writeLock().lock();
+        try {
+            quitarSinBloqueo(id);
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        cerrojo.readLock().lock();
+        try {
+            return cantidad;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // Los k ids más parecidos a la consulta, de mayor a menor similitud (empates por id ascendente)
+    public Resultado[] buscar(String consulta, int k) {
+        int[] q = trigramas(plegar(consulta));
+        if (q.length == 0 || k <= 0) {
+            return new Resultado[0];
+        }
+        int minimo = Math.max(1, (int) Math.ceil(Math.min(q.length, MAXIMO_TRIGRAMAS_CONSULTA) * COINCIDENCIA_MINIMA));
+        cerrojo.readLock().lock();
+        try {
+            // Listas de la consulta de la más corta a la más larga. Un resultado debe aparecer en al menos
+            // 'minimo' de ellas, así que también aparece en alguna de las primeras (q.length - minimo + 1):
+            // solo esas generan candidatos; en las largas solo se suman coincidencias de candidatos ya vistos,
+            // buscando cada uno en la lista ordenada cuando son pocos en vez de recorrerla entera.
+            int[] orden = ordenarPorLargo(q);
+            int generadoras = orden.length - minimo + 1;
+            byte[] cuenta = new byte[textos.length];
+            int[] candidatos = new int[64];
+            int cantidadCandidatos = 0;
+            for (int j = 0; j < generadoras; j++) {
+                int t = orden[j];
+                int[] lista = listas[t];
+                for (int i = 0, n = largos[t]; i < n; i++) {
+                    int id = lista[i];
+                    if (cuenta[id]++ == 0) {
+                        if (cantidadCandidatos == candidatos.length) {
+                            candidatos = Arrays.copyOf(candidatos, candidatos.length * 2);
+                        }
+                        candidatos[cantidadCandidatos++] = id;
+                    }
+                }
+            }
+            boolean ordenados = false;
+            for (int j = generadoras; j < orden.length; j++) {
+                // Descarta candidatos que ya no alcanzan el mínimo aunque aparezcan en todas las listas que quedan
+                int faltan = orden.length - j;
+                int vigentes = 0;
+                for (int c = 0; c < cantidadCandidatos; c++) {
+                    int id = candidatos[c];
+                    if ((cuenta[id] & 0xFF) + faltan >= minimo) {
+                        candidatos[vigentes++] = id;
+                    } else {
+                        cuenta[id] = 0;
+                    }
+                }
+                cantidadCandidatos = vigentes;
+                int t = orden[j];
+                int[] lista = listas[t];
+                int n = largos[t];
+                // Con pocos candidatos conviene ordenarlos una vez (el filtrado conserva el orden) y avanzar
+                // por la lista a saltos; con muchos, recorrer la lista completa
+                if (!ordenados && cantidadCandidatos * 8L < n) {
+                    Arrays.sort(candidatos, 0, cantidadCandidatos);
+                    ordenados = true;
+                }
+                if (ordenados) {
+                    int posicion = 0;
+                    for (int c = 0; c < cantidadCandidatos && posicion < n; c++) {
+                        posicion = galopar(lista, posicion, n, candidatos[c]);
+                        if (posicion < n && lista[posicion] == candidatos[c]) {
+                            cuenta[candidatos[c]]++;
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < n; i++) {
+                        if (cuenta[lista[i]] != 0) {
+                            cuenta[lista[i]]++;
+                        }
+                    }
+                }
+            }
+            // Montículo de mínimos con los k mejores: la cabeza es el peor de los que quedan
+            PriorityQueue<Resultado> mejores = new PriorityQueue<>(k + 1,
+                    (a, b) -> a.similitud() != b.similitud()
+                            ? Double.compare(a.similitud(), b.similitud())
+                            : Integer.compare(b.id(), a.id()));
+            for (int c = 0; c < cantidadCandidatos; c++) {
+                int id = candidatos[c];
+                int comunes = cuenta[id] & 0xFF;
+                if (comunes < minimo) {
+                    continue;
+                }
+                double similitud = (double) comunes / (orden.length + tamanos[id] - comunes);
+                Resultado peor = mejores.peek();
+                if (mejores.size() < k || similitud > peor.similitud()
+                        || (similitud == peor.similitud() && id < peor.id())) {
+                    mejores.offer(new Resultado(id, similitud));
+                    if (mejores.size() > k) {
+                        mejores.poll();
+                    }
+                }
+            }
+            Resultado[] resultado = new Resultado[mejores.size()];
+            for (int i = resultado.length - 1; i >= 0; i--) {
+                resultado[i] = mejores.poll();
+            }
+            return resultado;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // Primera posición desde 'desde' con un id >= buscado: salta de a 1, 2, 4... y termina con búsqueda binaria
+    private static int galopar(int[] lista, int desde, int n, int buscado) {
+        int salto = 1;
+        int hasta = desde;
+        while (hasta < n && lista[hasta] < buscado) {
+            desde = hasta + 1;
+            hasta += salto;
+            salto <<= 1;
+        }
+        int i = Arrays.binarySearch(lista, desde, Math.min(hasta + 1, n), buscado);
+        return i >= 0 ? i : -(i + 1);
+    }
+
+    // Trigramas de la consulta ordenados por largo de lista; como los contadores son de un byte,
+    // se usan a lo más los 255 más escasos
+    private int[] ordenarPorLargo(int[] q) {
+        long[] pares = new long[q.length];
+        for (int j = 0; j < q.length; j++) {
+            pares[j] = ((long) largos[q[j]] << 32) | q[j];
+        }
+        Arrays.sort(pares);
+        int[] orden = new int[Math.min(pares.length, MAXIMO_TRIGRAMAS_CONSULTA)];
+        for (int j = 0; j < orden.length; j++) {
+            orden[j] = (int) pares[j];
+        }
+        return orden;
+    }
+
+    private void quitarSinBloqueo(int id) {
+        if (id < 0 || id >= textos.length || textos[id] == null) {
+            return;
+        }
+        for (int t : trigramas(textos[id])) {
+            int[] lista = listas[t];
+            int n = largos[t];
+            int i = Arrays.binarySearch(lista, 0, n, id);
+            if (i >= 0) {
+                System.arraycopy(lista, i + 1, lista, i, n - i - 1);
+                largos[t] = n - 1;
+            }
+        }
+        textos[id] = null;
+        tamanos[id] = 0;
+        cantidad--;
+    }
+
+    private void asegurarCapacidad(int id) {
+        if (id >= textos.length) {
+            int capacidad = Math.max(id + 1, textos.length * 2);
+            textos = Arrays.copyOf(textos, capacidad);
+            tamanos = Arrays.copyOf(tamanos, capacidad);
+        }
+    }
+
+    // Minúsculas, sin acentos (á -> a, ñ -> n) y cualquier otro carácter como separador de palabras
+    static String plegar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        StringBuilder plegado = new StringBuilder(sinAcentos.length());
+        boolean separador = true;
+        for (int i = 0; i < sinAcentos.length(); i++) {
+            char c = Character.toLowerCase(sinAcentos.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                plegado.append(c);
+                separador = false;
+            } else if (!separador) {
+                plegado.append(' ');
+                separador = true;
+            }
+        }
+        return plegado.toString().strip().toLowerCase(Locale.ROOT);
+    }
+
+    // Trigramas distintos del texto plegado, ordenados
+    static int[] trigramas(String plegado) {
+        if (plegado.isEmpty()) {
+            return new int[0];
+        }
+        int[] codigos = new int[plegado.length() * 3 + 3];
+        int n = 0;
+        for (String palabra : plegado.split(" ")) {
+            String rellena = "  " + palabra + " ";
+            for (int i = 0; i + 3 <= rellena.length(); i++) {
+                codigos[n++] = (codigo(rellena.charAt(i)) * ALFABETO + codigo(rellena.charAt(i + 1))) * ALFABETO
+                        + codigo(rellena.charAt(i + 2));
+            }
+        }
+        int[] ordenados = Arrays.copyOf(codigos, n);
+        Arrays.sort(ordenados);
+        int distintos = 0;
+        for (int i = 0; i < ordenados.length; i++) {
+            if (i == 0 || ordenados[i] != ordenados[i - 1]) {
+                ordenados[distintos++] = ordenados[i];
+            }
+        }
+        return Arrays.copyOf(ordenados, distintos);
+    }
+
+    private static int codigo(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a' + 1;
+        if (c >= '0' && c <= '9') return c - '0' + 27;
+        return 0;
+    }
+}
@@ -0,0 +1,128 @@
+package com.duoc.hospital.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Filtros de Bloom con los RUN, correos y teléfonos ya registrados de pacientes y médicos.
+// Si el filtro dice que ningún valor existe, el registro se inserta directo y la restricción única
+// de la base queda como última palabra; si alguno "puede existir", se confirma con una sola consulta.
+// Un falso positivo solo cuesta esa consulta y un valor que falte en el filtro lo atrapa la restricción,
+// por eso no se bloquea nada: valores de registros borrados o revertidos simplemente quedan en el filtro.
+@Component
+public class IndiceUnicidad {
+
+    private static final double TASA_FALSOS_POSITIVOS = 0.01;
+    private static final int CAPACIDAD_MINIMA = 4_096;
+
+    public enum Registro {
+        PACIENTE("paciente"), MEDICO("medico");
+
+        private final String tabla;
+
+        Registro(String tabla) {
+            this.tabla = tabla;
+        }
+
+        public String tabla() {
+            return tabla;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final FiltroBloom[] filtros = new FiltroBloom[Registro.values().length];
+    private final int[] registrados = new int[Registro.values().length];
+    private final int[] capacidades = new int[Registro.values().length];
+
+    // Reentrante porque agregar() puede recargar con el candado tomado; y no synchronized, porque recargar
+    // lee la tabla completa y un hilo virtual bloqueado en E/S dentro de un monitor fija su hilo portador
+    private final ReentrantLock candado = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        for (Registro registro : Registro.values()) {
+            recargar(registro);
+        }
+    }
+
+    // Mientras el filtro no esté cargado, todo "puede existir" y se consulta la base
+    public boolean puedeExistir(Registro registro, String run, String correo, String telefono) {
+        FiltroBloom filtro = filtros[registro.ordinal()];
+        return filtro == null
+                || filtro.puedeContener(clave("run", run))
+                || filtro.puedeContener(clave("correo", correo))
+                || filtro.puedeContener(clave("telefono", telefono));
+    }
+
+    public void agregar(Registro registro, String run, String correo, String telefono) {
+        FiltroBloom filtro;
+        candado.lock();
+        try {
+            if (filtros[registro.ordinal()] == null) {
+                return;
+            }
+            if (++registrados[registro.ordinal()] > capacidades[registro.ordinal()]) {
+                // El filtro se llenó: se reconstruye con el doble de espacio desde la tabla
+                recargar(registro);
+            }
+            filtro = filtros[registro.ordinal()];
+        } finally {
+            candado.unlock();
+        }
+        filtro.agregar(clave("run", run));
+        filtro.agregar(clave("correo", correo));
+        filtro.agregar(clave("telefono", telefono));
+    }
+
+    public void recargar(Registro registro) {
+        candado.lock();
+        try {
+            Long filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + registro.tabla, Long.class);
+            int existentes = filas == null ? 0 : (int) Math.min(filas, 100_000_000);
+            int capacidad = Math.max(existentes * 2, CAPACIDAD_MINIMA);
+            // Cada registro aporta tres valores al filtro
+            FiltroBloom filtro = new FiltroBloom(capacidad * 3, TASA_FALSOS_POSITIVOS);
+            jdbcTemplate.query("SELECT run, correo, telefono FROM " + registro.tabla, rs -> {
+                filtro.agregar(clave("run", rs.getString(1)));
+                filtro.agregar(clave("correo", rs.getString(2)));
+                filtro.agregar(clave("telefono", rs.getString(3)));
+            });
+            filtros[registro.ordinal()] = filtro;
+            registrados[registro.ordinal()] = existentes;
+            capacidades[registro.ordinal()] = capacidad;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    // Campo (run, correo o telefono) cuya restricción única rechazó el INSERT o UPDATE, según el nombre
+    // de la restricción en el mensaje del motor (uk_paciente_run, uk_medico_correo, ...)
+    public static Optional<String> campoDuplicado(Registro registro, DataIntegrityViolationException e) {
+        String mensaje = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage()).toLowerCase(Locale.ROOT);
+        for (String campo : new String[]{"run", "correo", "telefono"}) {
+            if (mensaje.contains("uk_" + registro.tabla + "_" + campo)) {
+                return Optional.of(campo);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // MySQL compara sin distinguir mayúsculas ni acentos; el filtro normaliza igual para no dar falsos negativos
+    private static String clave(String campo, String valor) {
+        String normalizado = Normalizer.normalize(valor == null ? "" : valor.strip(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        return campo + ':' + normalizado;
+    }
+}
@@ -0,0 +1,154 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.ResultadoConciliacion;
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.model.Paciente;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+// Libro de deuda de pacientes. Cada atención que se guarda, cambia o borra deja movimientos en
+// movimiento_deuda (un CARGO por su copago, una ANULACION que revierte lo cargado antes) y la deuda
+// del paciente se ajusta en la misma transacción con UPDATE deuda = deuda + ?, sin leer el paciente:
+// los cobros concurrentes se suman en la base y leer la deuda sigue siendo una lectura por clave.
+@Service
+public class LibroDeudaService {
+
+    public static final String CARGO = "CARGO";
+    public static final String ANULACION = "ANULACION";
+
+    private static final Logger log = LoggerFactory.getLogger(LibroDeudaService.class);
+
+    private static final String INSERT =
+            "INSERT INTO movimiento_deuda (id_paciente, id_atencion, tipo, monto) VALUES (?, ?, ?, ?)";
+
+    private static final String SUMAR_DEUDA = "UPDATE paciente SET deuda = deuda + ? WHERE id = ?";
+
+    // Lo cargado neto por cada paciente que tuvo la atención (el paciente pudo cambiar en una actualización)
+    private static final String NETO_ATENCION =
+            "SELECT id_paciente, SUM(monto) FROM movimiento_deuda WHERE id_atencion = ? GROUP BY id_paciente";
+
+    private static final String PREVISIONES = "SELECT id, prevision FROM paciente WHERE id IN (:ids)";
+
+    // Una sola lectura: deuda y suma del libro salen de la misma foto de la base
+    private static final String DIFERENCIAS = "SELECT p.id, p.deuda, COALESCE(SUM(m.monto), 0) FROM paciente p "
+            + "LEFT JOIN movimiento_deuda m ON m.id_paciente = p.id "
+            + "GROUP BY p.id, p.deuda HAVING p.deuda <> COALESCE(SUM(m.monto), 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TablaCoberturas tablaCoberturas;
+
+    @Autowired
+    private CacheRegistros cacheRegistros;
+
+    // Copago de la atención según la previsión actual del paciente
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cargar(Atencion atencion) {
+        Paciente paciente = atencion.getPaciente();
+        Integer idPrevision = paciente.getPrevision() == null ? null : paciente.getPrevision().getId();
+        registrar(paciente.getId(), atencion.getId(), CARGO, copago(atencion.getCosto(), idPrevision));
+    }
+
+    // Revierte todo lo cargado por la atención hasta ahora, no un copago recalculado:
+    // si la previsión cambió entremedio, lo que se anula es exactamente lo que se cobró
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void anular(int idAtencion) {
+        Map<Integer, Long> netos = new LinkedHashMap<>();
+        jdbcTemplate.query(NETO_ATENCION, (RowCallbackHandler) rs -> netos.put(rs.getInt(1), rs.getLong(2)), idAtencion);
+        netos.forEach((idPaciente, neto) -> {
+            if (neto != 0) {
+                registrar(idPaciente, idAtencion, ANULACION, -neto);
+            }
+        });
+    }
+
+    // Para la carga masiva: las atenciones solo traen el id del paciente, así que las previsiones se leen
+    // con una consulta; los movimientos van en un batch y hay un solo UPDATE por paciente del tramo
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cargarTodas(List<Atencion> atenciones, List<Integer> idsAtencion) {
+        Map<Integer, Integer> previsionDe = new HashMap<>();
+        Set<Integer> pacientes = new HashSet<>();
+        atenciones.forEach(a -> pacientes.add(a.getPaciente().getId()));
+        namedParameterJdbcTemplate.query(PREVISIONES, Map.of("ids", pacientes), (RowCallbackHandler) rs -> {
+            int idPrevision = rs.getInt(2);
+            previsionDe.put(rs.getInt(1), rs.wasNull() ? null : idPrevision);
+        });
+
+        long[] montos = new long[atenciones.size()];
+        Map<Integer, Long> porPaciente = new HashMap<>();
+        for (int i = 0; i < atenciones.size(); i++) {
+            Atencion a = atenciones.get(i);
+            montos[i] = copago(a.getCosto(), previsionDe.get(a.getPaciente().getId()));
+            porPaciente.merge(a.getPaciente().getId(), montos[i], Long::sum);
+        }
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, atenciones.get(i).getPaciente().getId());
+                ps.setInt(2, idsAtencion.get(i));
+                ps.setString(3, CARGO);
+                ps.setLong(4, montos[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return atenciones.size();
+            }
+        });
+        List<Object[]> deltas = new ArrayList<>();
+        porPaciente.forEach((idPaciente, total) -> deltas.add(new Object[]{total, idPaciente}));
+        jdbcTemplate.batchUpdate(SUMAR_DEUDA, deltas, new int[]{Types.BIGINT, Types.INTEGER});
+        cacheRegistros.olvidarPacientes(porPaciente.keySet());
+    }
+
+    // Compara cada deuda con la suma de su libro y corrige la columna con la diferencia. El ajuste también es
+    // un "deuda = deuda + ?", así que un cobro que confirme mientras tanto se conserva
+    @Scheduled(fixedDelayString = "${hospital.deuda.conciliar-ms:3600000}",
+            initialDelayString = "${hospital.deuda.conciliar-ms:3600000}")
+    @Transactional
+    public ResultadoConciliacion conciliar() {
+        long inicio = System.nanoTime();
+        List<long[]> diferencias = new ArrayList<>();
+        jdbcTemplate.query(DIFERENCIAS, (RowCallbackHandler) rs ->
+                diferencias.add(new long[]{rs.getInt(1), rs.getLong(3) - rs.getLong(2)}));
+        long ajusteTotal = 0;
+        for (long[] d : diferencias) {
+            log.warn("Deuda del paciente {} no coincide con su libro; se ajusta en {}", d[0], d[1]);
+            jdbcTemplate.update(SUMAR_DEUDA, d[1], (int) d[0]);
+            cacheRegistros.olvidarPaciente((int) d[0]);
+            ajusteTotal += d[1];
+        }
+        return new ResultadoConciliacion(diferencias.size(), ajusteTotal, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void registrar(int idPaciente, int idAtencion, String tipo, long monto) {
+        jdbcTemplate.update(INSERT, idPaciente, idAtencion, tipo, monto);
+        jdbcTemplate.update(SUMAR_DEUDA, monto, idPaciente);
+        // La copia en caché del paciente trae la deuda anterior
+        cacheRegistros.olvidarPaciente(idPaciente);
+    }
+
+    private long copago(int costo, Integer idPrevision) {
+        int puntosBase = idPrevision == null ? 0 : tablaCoberturas.puntosBase(idPrevision);
+        return TablaCoberturas.copago(costo, puntosBase);
+    }
+}
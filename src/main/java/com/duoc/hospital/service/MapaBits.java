@@ -0,0 +1,488 @@
+package com.duoc.hospital.service;
+
+import java.util.Arrays;
+
+// Conjunto de enteros no negativos comprimido al estilo Roaring. Los 16 bits altos de cada valor eligen un
+// contenedor y los 16 bajos se guardan en él: como arreglo ordenado mientras tenga hasta 4096 valores
+// (8 KB como máximo) y como mapa de 65536 bits (8 KB fijos) cuando tiene más. Las operaciones de conjunto
+// recorren las claves de ambos lados en orden y combinan solo los contenedores que coinciden.
+// No es seguro entre hilos: quien lo comparte debe sincronizar.
+public final class MapaBits {
+
+    static final int MAXIMO_ARREGLO = 4096;
+
+    private char[] claves = new char[4];
+    private Contenedor[] contenedores = new Contenedor[4];
+    private int tamano;
+
+    public boolean agregar(int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("Solo se admiten valores no negativos: " + valor);
+        }
+        char clave = alta(valor);
+        int i = buscarClave(clave);
+        if (i < 0) {
+            i = -i - 1;
+            insertar(i, clave, new Arreglo());
+        }
+        Contenedor contenedor = contenedores[i];
+        int antes = contenedor.cardinalidad();
+        contenedores[i] = contenedor.agregar(baja(valor));
+        return contenedores[i].cardinalidad() != antes;
+    }
+
+    public boolean quitar(int valor) {
+        int i = valor < 0 ? -1 : buscarClave(alta(valor));
+        if (i < 0) {
+            return false;
+        }
+        int antes = contenedores[i].cardinalidad();
+        Contenedor nuevo = contenedores[i].quitar(baja(valor));
+        if (nuevo.cardinalidad() == 0) {
+            System.arraycopy(claves, i + 1, claves, i, tamano - i - 1);
+            System.arraycopy(contenedores, i + 1, contenedores, i, tamano - i - 1);
+            contenedores[--tamano] = null;
+        } else {
+            contenedores[i] = nuevo;
+        }
+        return nuevo.cardinalidad() != antes;
+    }
+
+    public boolean contiene(int valor) {
+        int i = valor < 0 ? -1 : buscarClave(alta(valor));
+        return i >= 0 && contenedores[i].contiene(baja(valor));
+    }
+
+    public long cardinalidad() {
+        long total = 0;
+        for (int i = 0; i < tamano; i++) {
+            total += contenedores[i].cardinalidad();
+        }
+        return total;
+    }
+
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+
+    public MapaBits copiar() {
+        MapaBits copia = new MapaBits();
+        for (int i = 0; i < tamano; i++) {
+            copia.anexar(claves[i], contenedores[i].clonar());
+        }
+        return copia;
+    }
+
+    // Hasta 'limite' valores mayores que 'despuesDe', en orden ascendente; con -1 parte desde el inicio
+    public int[] siguientes(int despuesDe, int limite) {
+        if (despuesDe == Integer.MAX_VALUE || limite <= 0) {
+            return new int[0];
+        }
+        int desde = Math.max(despuesDe + 1, 0);
+        char claveDesde = alta(desde);
+        int i = buscarClave(claveDesde);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        int[] salida = new int[(int) Math.min(limite, cardinalidad())];
+        int n = 0;
+        for (; i < tamano && n < salida.length; i++) {
+            int bajaDesde = claves[i] == claveDesde ? baja(desde) : 0;
+            n = contenedores[i].copiar(bajaDesde, claves[i] << 16, salida, n);
+        }
+        return n == salida.length ? salida : Arrays.copyOf(salida, n);
+    }
+
+    public int[] valores() {
+        return siguientes(-1, Integer.MAX_VALUE);
+    }
+
+    // Intersección: valores presentes en ambos
+    public static MapaBits y(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int i = 0, j = 0;
+        while (i < a.tamano && j < b.tamano) {
+            char ca = a.claves[i], cb = b.claves[j];
+            if (ca < cb) {
+                i++;
+            } else if (ca > cb) {
+                j++;
+            } else {
+                resultado.anexarSiNoVacio(ca, a.contenedores[i++].y(b.contenedores[j++]));
+            }
+        }
+        return resultado;
+    }
+
+    // Unión: valores presentes en cualquiera de los dos
+    public static MapaBits o(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int i = 0, j = 0;
+        while (i < a.tamano || j < b.tamano) {
+            if (j == b.tamano || (i < a.tamano && a.claves[i] < b.claves[j])) {
+                resultado.anexar(a.claves[i], a.contenedores[i++].clonar());
+            } else if (i == a.tamano || b.claves[j] < a.claves[i]) {
+                resultado.anexar(b.claves[j], b.contenedores[j++].clonar());
+            } else {
+                resultado.anexar(a.claves[i], a.contenedores[i++].o(b.contenedores[j++]));
+            }
+        }
+        return resultado;
+    }
+
+    // Diferencia: valores de 'a' que no están en 'b'
+    public static MapaBits menos(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int j = 0;
+        for (int i = 0; i < a.tamano; i++) {
+            char clave = a.claves[i];
+            while (j < b.tamano && b.claves[j] < clave) {
+                j++;
+            }
+            if (j < b.tamano && b.claves[j] == clave) {
+                resultado.anexarSiNoVacio(clave, a.contenedores[i].menos(b.contenedores[j]));
+            } else {
+                resultado.anexar(clave, a.contenedores[i].clonar());
+            }
+        }
+        return resultado;
+    }
+
+    private int buscarClave(char clave) {
+        return Arrays.binarySearch(claves, 0, tamano, clave);
+    }
+
+    private void insertar(int i, char clave, Contenedor contenedor) {
+        asegurarCapacidad();
+        System.arraycopy(claves, i, claves, i + 1, tamano - i);
+        System.arraycopy(contenedores, i, contenedores, i + 1, tamano - i);
+        claves[i] = clave;
+        contenedores[i] = contenedor;
+        tamano++;
+    }
+
+    // Solo para armar resultados, que se construyen con las claves ya en orden
+    private void anexar(char clave, Contenedor contenedor) {
+        asegurarCapacidad();
+        claves[tamano] = clave;
+        contenedores[tamano++] = contenedor;
+    }
+
+    private void anexarSiNoVacio(char clave, Contenedor contenedor) {
+        if (contenedor.cardinalidad() > 0) {
+            anexar(clave, contenedor);
+        }
+    }
+
+    private void asegurarCapacidad() {
+        if (tamano == claves.length) {
+            claves = Arrays.copyOf(claves, tamano * 2);
+            contenedores = Arrays.copyOf(contenedores, tamano * 2);
+        }
+    }
+
+    private static char alta(int valor) {
+        return (char) (valor >>> 16);
+    }
+
+    private static char baja(int valor) {
+        return (char) valor;
+    }
+
+    // Los métodos que modifican pueden devolver otro contenedor (al cruzar los 4096 valores); las
+    // operaciones de conjunto siempre devuelven uno nuevo y no comparten arreglos con sus operandos
+    private abstract static sealed class Contenedor permits Arreglo, Bits {
+
+        abstract Contenedor agregar(char valor);
+
+        abstract Contenedor quitar(char valor);
+
+        abstract boolean contiene(char valor);
+
+        abstract int cardinalidad();
+
+        abstract Contenedor clonar();
+
+        abstract Contenedor y(Contenedor otro);
+
+        abstract Contenedor o(Contenedor otro);
+
+        abstract Contenedor menos(Contenedor otro);
+
+        // Copia a 'salida' los valores desde 'desde' (16 bits bajos) sumándoles 'base'; devuelve la nueva posición
+        abstract int copiar(int desde, int base, int[] salida, int n);
+    }
+
+    private static final class Arreglo extends Contenedor {
+
+        private char[] valores;
+        private int cantidad;
+
+        Arreglo() {
+            this(new char[4], 0);
+        }
+
+        Arreglo(char[] valores, int cantidad) {
+            this.valores = valores;
+            this.cantidad = cantidad;
+        }
+
+        private int buscar(char valor) {
+            return Arrays.binarySearch(valores, 0, cantidad, valor);
+        }
+
+        @Override
+        Contenedor agregar(char valor) {
+            int i = buscar(valor);
+            if (i >= 0) {
+                return this;
+            }
+            if (cantidad == MAXIMO_ARREGLO) {
+                return aBits().agregar(valor);
+            }
+            i = -i - 1;
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(MAXIMO_ARREGLO, cantidad * 2));
+            }
+            System.arraycopy(valores, i, valores, i + 1, cantidad - i);
+            valores[i] = valor;
+            cantidad++;
+            return this;
+        }
+
+        @Override
+        Contenedor quitar(char valor) {
+            int i = buscar(valor);
+            if (i >= 0) {
+                System.arraycopy(valores, i + 1, valores, i, cantidad - i - 1);
+                cantidad--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contiene(char valor) {
+            return buscar(valor) >= 0;
+        }
+
+        @Override
+        int cardinalidad() {
+            return cantidad;
+        }
+
+        @Override
+        Contenedor clonar() {
+            return new Arreglo(Arrays.copyOf(valores, Math.max(cantidad, 4)), cantidad);
+        }
+
+        @Override
+        Contenedor y(Contenedor otro) {
+            if (otro instanceof Arreglo b) {
+                char[] salida = new char[Math.max(Math.min(cantidad, b.cantidad), 4)];
+                int n = 0, i = 0, j = 0;
+                while (i < cantidad && j < b.cantidad) {
+                    if (valores[i] < b.valores[j]) {
+                        i++;
+                    } else if (valores[i] > b.valores[j]) {
+                        j++;
+                    } else {
+                        salida[n++] = valores[i++];
+                        j++;
+                    }
+                }
+                return new Arreglo(salida, n);
+            }
+            return filtrar(otro, true);
+        }
+
+        @Override
+        Contenedor o(Contenedor otro) {
+            if (otro instanceof Bits) {
+                return otro.o(this);
+            }
+            Arreglo b = (Arreglo) otro;
+            char[] salida = new char[Math.max(cantidad + b.cantidad, 4)];
+            int n = 0, i = 0, j = 0;
+            while (i < cantidad || j < b.cantidad) {
+                if (j == b.cantidad || (i < cantidad && valores[i] < b.valores[j])) {
+                    salida[n++] = valores[i++];
+                } else if (i == cantidad || b.valores[j] < valores[i]) {
+                    salida[n++] = b.valores[j++];
+                } else {
+                    salida[n++] = valores[i++];
+                    j++;
+                }
+            }
+            Arreglo union = new Arreglo(salida, n);
+            return n > MAXIMO_ARREGLO ? union.aBits() : union;
+        }
+
+        @Override
+        Contenedor menos(Contenedor otro) {
+            return filtrar(otro, false);
+        }
+
+        // Valores propios que están (o no están) en el otro contenedor
+        private Arreglo filtrar(Contenedor otro, boolean presentes) {
+            char[] salida = new char[Math.max(cantidad, 4)];
+            int n = 0;
+            for (int i = 0; i < cantidad; i++) {
+                if (otro.contiene(valores[i]) == presentes) {
+                    salida[n++] = valores[i];
+                }
+            }
+            return new Arreglo(salida, n);
+        }
+
+        @Override
+        int copiar(int desde, int base, int[] salida, int n) {
+            int i = buscar((char) desde);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            while (i < cantidad && n < salida.length) {
+                salida[n++] = base | valores[i++];
+            }
+            return n;
+        }
+
+        Bits aBits() {
+            long[] palabras = new long[1024];
+            for (int i = 0; i < cantidad; i++) {
+                palabras[valores[i] >>> 6] |= 1L << valores[i];
+            }
+            return new Bits(palabras, cantidad);
+        }
+    }
+
+    private static final class Bits extends Contenedor {
+
+        private final long[] palabras;
+        private int cantidad;
+
+        Bits(long[] palabras, int cantidad) {
+            this.palabras = palabras;
+            this.cantidad = cantidad;
+        }
+
+        // Para resultados de operaciones: cuenta los bits y vuelve a arreglo si quedaron pocos
+        static Contenedor de(long[] palabras) {
+            int cantidad = 0;
+            for (long palabra : palabras) {
+                cantidad += Long.bitCount(palabra);
+            }
+            Bits bits = new Bits(palabras, cantidad);
+            return cantidad <= MAXIMO_ARREGLO ? bits.aArreglo() : bits;
+        }
+
+        @Override
+        Contenedor agregar(char valor) {
+            long mascara = 1L << valor;
+            if ((palabras[valor >>> 6] & mascara) == 0) {
+                palabras[valor >>> 6] |= mascara;
+                cantidad++;
+            }
+            return this;
+        }
+
+        @Override
+        Contenedor quitar(char valor) {
+            long mascara = 1L << valor;
+            if ((palabras[valor >>> 6] & mascara) != 0) {
+                palabras[valor >>> 6] &= ~mascara;
+                cantidad--;
+            }
+            return cantidad <= MAXIMO_ARREGLO ? aArreglo() : this;
+        }
+
+        @Override
+        boolean contiene(char valor) {
+            return (palabras[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        @Override
+        int cardinalidad() {
+            return cantidad;
+        }
+
+        @Override
+        Contenedor clonar() {
+            return new Bits(palabras.clone(), cantidad);
+        }
+
+        @Override
+        Contenedor y(Contenedor otro) {
+            if (otro instanceof Arreglo a) {
+                return a.y(this);
+            }
+            long[] b = ((Bits) otro).palabras;
+            long[] salida = new long[1024];
+            for (int i = 0; i < salida.length; i++) {
+                salida[i] = palabras[i] & b[i];
+            }
+            return de(salida);
+        }
+
+        @Override
+        Contenedor o(Contenedor otro) {
+            long[] salida = palabras.clone();
+            if (otro instanceof Arreglo a) {
+                for (int i = 0; i < a.cantidad; i++) {
+                    salida[a.valores[i] >>> 6] |= 1L << a.valores[i];
+                }
+            } else {
+                long[] b = ((Bits) otro).palabras;
+                for (int i = 0; i < salida.length; i++) {
+                    salida[i] |= b[i];
+                }
+            }
+            return de(salida);
+        }
+
+        @Override
+        Contenedor menos(Contenedor otro) {
+            long[] salida = palabras.clone();
+            if (otro instanceof Arreglo a) {
+                for (int i = 0; i < a.cantidad; i++) {
+                    salida[a.valores[i] >>> 6] &= ~(1L << a.valores[i]);
+                }
+            } else {
+                long[] b = ((Bits) otro).palabras;
+                for (int i = 0; i < salida.length; i++) {
+                    salida[i] &= ~b[i];
+                }
+            }
+            return de(salida);
+        }
+
+        @Override
+        int copiar(int desde, int base, int[] salida, int n) {
+            int i = desde >>> 6;
+            long palabra = palabras[i] & (-1L << desde);
+            while (n < salida.length) {
+                if (palabra != 0) {
+                    salida[n++] = base | (i << 6) | Long.numberOfTrailingZeros(palabra);
+                    palabra &= palabra - 1;
+                } else if (++i < palabras.length) {
+                    palabra = palabras[i];
+                } else {
+                    break;
+                }
+            }
+            return n;
+        }
+
+        Arreglo aArreglo() {
+            char[] valores = new char[Math.max(cantidad, 4)];
+            int n = 0;
+            for (int i = 0; i < palabras.length; i++) {
+                long palabra = palabras[i];
+                while (palabra != 0) {
+                    valores[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+            return new Arreglo(valores, n);
+        }
+    }
+}
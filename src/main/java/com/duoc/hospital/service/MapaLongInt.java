@@ -0,0 +1,154 @@
+package com.duoc.hospital.service;
+
+import java.util.concurrent.locks.StampedLock;
+
+// Mapa long -> int de direccionamiento abierto (sondeo lineal), sin cajas ni objetos por entrada.
+// La clave 0 marca una celda vacía, así que no se admite como clave. Los borrados desplazan hacia atrás
+// las entradas siguientes en vez de dejar lápidas. Las lecturas son optimistas: solo se bloquean si
+// coinciden con una escritura.
+public class MapaLongInt {
+
+    public static final int SIN_VALOR = -1;
+
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private final StampedLock cerrojo = new StampedLock();
+
+    private long[] claves;
+    private int[] valores;
+    private int tamano;
+
+    public MapaLongInt(int esperados) {
+        int capacidad = Integer.highestOneBit(Math.max(CAPACIDAD_MINIMA, esperados * 2 - 1)) << 1;
+        claves = new long[capacidad];
+        valores = new int[capacidad];
+    }
+
+    public int get(long clave) {
+        long sello = cerrojo.tryOptimisticRead();
+        int valor = buscar(clave);
+        if (!cerrojo.validate(sello)) {
+            sello = cerrojo.readLock();
+            try {
+                valor = buscar(clave);
+            } finally {
+                cerrojo.unlockRead(sello);
+            }
+        }
+        return valor;
+    }
+
+    public void put(long clave, int valor) {
+        validar(clave);
+        long sello = cerrojo.writeLock();
+        try {
+            if ((tamano + 1) * 2 > claves.length) {
+                crecer();
+            }
+            int mascara = claves.length - 1;
+            int i = posicion(clave, mascara);
+            while (claves[i] != 0 && claves[i] != clave) {
+                i = (i + 1) & mascara;
+            }
+            if (claves[i] == 0) {
+                claves[i] = clave;
+                tamano++;
+            }
+            valores[i] = valor;
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    public void remove(long clave) {
+        validar(clave);
+        long sello = cerrojo.writeLock();
+        try {
+            int mascara = claves.length - 1;
+            int i = posicion(clave, mascara);
+            while (claves[i] != clave) {
+                if (claves[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            // Desplaza hacia atrás las entradas que quedarían inalcanzables tras vaciar la celda
+            int vacia = i;
+            for (int j = (i + 1) & mascara; claves[j] != 0; j = (j + 1) & mascara) {
+                int ideal = posicion(claves[j], mascara);
+                if (((j - ideal) & mascara) >= ((j - vacia) & mascara)) {
+                    claves[vacia] = claves[j];
+                    valores[vacia] = valores[j];
+                    vacia = j;
+                }
+            }
+            claves[vacia] = 0;
+            tamano--;
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    public int size() {
+        long sello = cerrojo.readLock();
+        try {
+            return tamano;
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    // Con una lectura optimista los arreglos pueden cambiar a mitad de camino: se toman una sola vez
+    // y el recorrido se corta tras una vuelta completa; validate() descarta cualquier resultado inconsistente
+    private int buscar(long clave) {
+        long[] c = claves;
+        int[] v = valores;
+        if (c.length != v.length) {
+            return SIN_VALOR;
+        }
+        int mascara = c.length - 1;
+        int i = posicion(clave, mascara);
+        for (int pasos = 0; pasos < c.length; pasos++) {
+            long actual = c[i];
+            if (actual == clave) {
+                return v[i];
+            }
+            if (actual == 0) {
+                return SIN_VALOR;
+            }
+            i = (i + 1) & mascara;
+        }
+        return SIN_VALOR;
+    }
+
+    private void crecer() {
+        long[] clavesAntes = claves;
+        int[] valoresAntes = valores;
+        long[] nuevasClaves = new long[clavesAntes.length * 2];
+        int[] nuevosValores = new int[clavesAntes.length * 2];
+        int mascara = nuevasClaves.length - 1;
+        for (int j = 0; j < clavesAntes.length; j++) {
+            if (clavesAntes[j] != 0) {
+                int i = posicion(clavesAntes[j], mascara);
+                while (nuevasClaves[i] != 0) {
+                    i = (i + 1) & mascara;
+                }
+                nuevasClaves[i] = clavesAntes[j];
+                nuevosValores[i] = valoresAntes[j];
+            }
+        }
+        valores = nuevosValores;
+        claves = nuevasClaves;
+    }
+
+    private static int posicion(long clave, int mascara) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private static void validar(long clave) {
+        if (clave == 0) {
+            throw new IllegalArgumentException("La clave 0 está reservada.");
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package com.duoc.hospital.service;
 
+import com.duoc.hospital.dto.CupoDisponible;
+import com.duoc.hospital.dto.Histograma;
+import com.duoc.hospital.dto.TramoHistograma;
 import com.duoc.hospital.model.Medico;
+import com.duoc.hospital.model.Run;
 import com.duoc.hospital.model.Especialidad;
 import com.duoc.hospital.repository.MedicoRepository;
-import com.duoc.hospital.repository.EspecialidadRepository;
+import com.duoc.hospital.repository.MedicoRepository.Coincidencia;
 import com.duoc.hospital.repository.AtencionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class MedicoService {
@@ -20,17 +36,39 @@ public class MedicoService {
     private MedicoRepository medicoRepository;
 
     @Autowired
-    private EspecialidadRepository especialidadRepository;
+    private CatalogoEspecialidades catalogoEspecialidades;
 
     @Autowired
     private AtencionRepository atencionRepository;
 
+    @Autowired
+    private ExportadorNdjson exportadorNdjson;
+
+    @Autowired
+    private AgendaMedicos agendaMedicos;
+
+    @Autowired
+    private IndiceUnicidad indiceUnicidad;
+
+    @Autowired
+    private IndiceRun indiceRun;
+
+    @Autowired
+    private BuscadorNombres buscadorNombres;
+
+    @Autowired
+    private IndicePacientesEspecialidad indicePacientesEspecialidad;
+
+    @Autowired
+    private CacheRegistros cacheRegistros;
+
     public List<Medico> getAllMedicos() {
         return medicoRepository.findAll();
     }
 
+    // Lectura por id desde la caché acotada; va a la base solo si no está o venció
     public Optional<Medico> findById(int id) {
-        return medicoRepository.findById(id);
+        return cacheRegistros.medico(id, medicoRepository::findById);
     }
 
     public Medico save(Medico medico) {
@@ -42,52 +80,92 @@ public class MedicoService {
                 || medico.getApellido() == null || medico.getApellido().isEmpty()) {
             throw new IllegalArgumentException("Todos los campos obligatorios deben estar completos.");
         }
+        // El RUN se guarda siempre normalizado y con dígito verificador correcto
+        medico.setRun(Run.normalizar(medico.getRun()));
 
-        // Validar unicidad solo si es nuevo (id == 0)
-        if (medico.getId() == 0) {
-            if (medicoRepository.findByRun(medico.getRun()).isPresent()) {
-                throw new IllegalArgumentException("El run ya está registrado para otro médico.");
-            }
-            if (medicoRepository.findByCorreo(medico.getCorreo()).isPresent()) {
-                throw new IllegalArgumentException("El correo ya está registrado para otro médico.");
-            }
-            if (medicoRepository.findByTelefono(medico.getTelefono()).isPresent()) {
-                throw new IllegalArgumentException("El teléfono ya está registrado para otro médico.");
-            }
+        // Validar unicidad solo si es nuevo (id == 0). Si el filtro de unicidad descarta los tres valores
+        // no se consulta nada y la restricción única de la base cubre las carreras
+        if (medico.getId() == 0 && indiceUnicidad.puedeExistir(IndiceUnicidad.Registro.MEDICO,
+                medico.getRun(), medico.getCorreo(), medico.getTelefono())) {
+            validarUnicos(medico, 0, true);
         }
 
-        // Asignar especialidad por defecto si no se especifica
+        // Asignar especialidad por defecto si no se especifica (ambas búsquedas salen del catálogo en memoria)
         if (medico.getEspecialidadMedico() == null) {
-            Especialidad especialidad = especialidadRepository.findByNombre("MEDICINA GENERAL")
+            Especialidad especialidad = catalogoEspecialidades.buscar("MEDICINA GENERAL")
                     .orElseThrow(() -> new RuntimeException("Especialidad 'MEDICINA GENERAL' no encontrada"));
             medico.setEspecialidadMedico(especialidad);
         } else {
-            Especialidad especialidad = especialidadRepository.findById(medico.getEspecialidadMedico().getId())
+            Especialidad especialidad = catalogoEspecialidades.buscar(medico.getEspecialidadMedico().getId())
                     .orElseThrow(() -> new RuntimeException("Especialidad no encontrada"));
             medico.setEspecialidadMedico(especialidad);
         }
-        return medicoRepository.save(medico);
+        Medico guardado = guardarUnico(medico, medico.getId() == 0);
+        agendaMedicos.olvidarMedicos();
+        return guardado;
     }
 
     public void deleteById(int id) {
-        medicoRepository.deleteById(id);
+        medicoRepository.findById(id).ifPresent(medico -> {
+            medicoRepository.delete(medico);
+            indiceRun.quitar(IndiceUnicidad.Registro.MEDICO, medico.getRunNum());
+            buscadorNombres.quitar(IndiceUnicidad.Registro.MEDICO, medico.getId());
+        });
+        cacheRegistros.olvidarMedico(id);
+        agendaMedicos.olvidarMedicos();
+    }
+
+    // Exportar todos los médicos como NDJSON sin cargarlos todos en memoria
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida) throws IOException {
+        try (Stream<Medico> filas = medicoRepository.streamTodos()) {
+            return exportadorNdjson.escribir(filas, salida);
+        }
     }
 
     public List<Medico> findAll() {
         return medicoRepository.findAll();
     }
 
+    // Búsqueda aproximada por nombre y apellido (sin acentos ni mayúsculas, tolera errores de tipeo),
+    // ordenada por parecido; el índice en memoria da los ids y se cargan solo esos
+    public List<Medico> buscar(String consulta, int limite) {
+        List<Integer> ids = buscadorNombres.buscar(IndiceUnicidad.Registro.MEDICO, consulta, limite);
+        Map<Integer, Medico> porId = new HashMap<>();
+        for (Medico medico : medicoRepository.findAllById(ids)) {
+            porId.put(medico.getId(), medico);
+        }
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
     public List<Medico> findByNombreAndApellido(String nombre, String apellido) {
         return medicoRepository.findByNombreAndApellido(nombre, apellido);
     }
 
+    // Acepta cualquier formato de RUN y resuelve el id con el índice en memoria
     public Optional<Medico> findByRun(String run) {
-        return medicoRepository.findByRun(run);
+        int runNum;
+        try {
+            runNum = Run.numeroDe(run);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        int id = indiceRun.buscar(IndiceUnicidad.Registro.MEDICO, runNum);
+        if (id != IndiceRun.SIN_ID) {
+            Optional<Medico> medico = findById(id)
+                    .filter(m -> Integer.valueOf(runNum).equals(m.getRunNum()));
+            if (medico.isPresent()) {
+                return medico;
+            }
+        }
+        Optional<Medico> medico = medicoRepository.findByRunNum(runNum);
+        medico.ifPresent(m -> indiceRun.registrar(IndiceUnicidad.Registro.MEDICO, runNum, m.getId()));
+        return medico;
     }
 
     // Calcula el sueldo total: sueldo base + 20% de atenciones
     public int calcularSueldoTotal(int id) {
-        if (!medicoRepository.existsById(id)) {
+        if (findById(id).isEmpty()) {
             throw new IllegalArgumentException("El médico con ID " + id + " no existe.");
         }
         Double sueldo = atencionRepository.calcularSueldoTotalMedico(id);
@@ -112,30 +190,115 @@ public class MedicoService {
         return medicoRepository.findByAntiguedadMayorA(fechaLimite);
     }
 
+    // Médicos por tramo de antigüedad (por defecto, un tramo por año) con una sola consulta agrupada
+    public Histograma histogramaAntiguedad(int ancho) {
+        if (ancho < 1 || ancho > 60) {
+            throw new IllegalArgumentException("El ancho del tramo debe estar entre 1 y 60 años.");
+        }
+        LocalDate corte = LocalDate.now();
+        List<TramoHistograma> tramos = new ArrayList<>();
+        long total = 0;
+        for (MedicoRepository.ConteoTramo fila : medicoRepository.contarPorTramoAntiguedad(
+                corte.plusDays(1), corte.getYear(), corte.getMonthValue() * 100 + corte.getDayOfMonth(), ancho)) {
+            int tramo = fila.getTramo().intValue();
+            tramos.add(new TramoHistograma(tramo * ancho, tramo * ancho + ancho - 1, null, fila.getCantidad()));
+            total += fila.getCantidad();
+        }
+        tramos.sort(Comparator.comparingInt(TramoHistograma::getDesde));
+        return new Histograma(corte, ancho, total, tramos);
+    }
+
     public List<Medico> findByEspecialidad(String nombreEspecialidad) {
-        return medicoRepository.findByEspecialidadNombre(nombreEspecialidad);
+        if (nombreEspecialidad == null) {
+            return List.of();
+        }
+        return cacheRegistros.medicosDeEspecialidad(nombreEspecialidad, medicoRepository::findByEspecialidadNombre);
+    }
+
+    // Primer horario libre entre los médicos de una especialidad, resuelto con la agenda en memoria
+    public Optional<CupoDisponible> findProximoCupo(String nombreEspecialidad) {
+        return agendaMedicos.proximoCupo(nombreEspecialidad, LocalDateTime.now());
     }
     public Optional<Medico> update(int id, Medico medicoActualizado) {
         return medicoRepository.findById(id)
                 .map(medicoExistente -> {
+                    medicoActualizado.setRun(Run.normalizar(medicoActualizado.getRun()));
+                    medicoActualizado.setRunNum(Run.numeroDe(medicoActualizado.getRun()));
                     // Valida que los datos únicos no se repitan con OTROS médicos
-                    medicoRepository.findByRun(medicoActualizado.getRun()).ifPresent(m -> {
-                        if (m.getId() != id) throw new IllegalArgumentException("El RUN ya está en uso por otro médico.");
-                    });
-                    medicoRepository.findByCorreo(medicoActualizado.getCorreo()).ifPresent(m -> {
-                        if (m.getId() != id) throw new IllegalArgumentException("El correo ya está en uso por otro médico.");
-                    });
+                    validarUnicos(medicoActualizado, id, false);
 
                     medicoActualizado.setId(id);
-                    return medicoRepository.save(medicoActualizado);
+                    Medico guardado = guardarUnico(medicoActualizado, false);
+                    if (!Objects.equals(medicoExistente.getRunNum(), guardado.getRunNum())) {
+                        indiceRun.quitar(IndiceUnicidad.Registro.MEDICO, medicoExistente.getRunNum());
+                    }
+                    // Si cambió de especialidad, sus pacientes cambian de grupo en el índice
+                    if (!Objects.equals(idEspecialidad(medicoExistente), idEspecialidad(guardado))) {
+                        indicePacientesEspecialidad.recargar();
+                    }
+                    agendaMedicos.olvidarMedicos();
+                    return guardado;
                 });
     }
 
+    private static Integer idEspecialidad(Medico medico) {
+        return medico.getEspecialidadMedico() == null ? null : medico.getEspecialidadMedico().getId();
+    }
+
+    // Una sola consulta por los tres valores únicos; el orden de los mensajes es RUN, correo, teléfono
+    private void validarUnicos(Medico medico, int idPropio, boolean nuevo) {
+        List<Coincidencia> coincidencias = medicoRepository.findCoincidencias(
+                Run.numeroDe(medico.getRun()), medico.getRun(), medico.getCorreo(), medico.getTelefono());
+        for (String campo : new String[]{"run", "correo", "telefono"}) {
+            for (Coincidencia c : coincidencias) {
+                if (c.getId() != idPropio && coincide(campo, c, medico)) {
+                    throw new IllegalArgumentException(mensajeDuplicado(campo, nuevo));
+                }
+            }
+        }
+    }
+
+    // INSERT o UPDATE directo; si otro registro ganó la carrera, la restricción única dice qué campo chocó
+    private Medico guardarUnico(Medico medico, boolean nuevo) {
+        Medico guardado;
+        try {
+            guardado = medicoRepository.saveAndFlush(medico);
+        } catch (DataIntegrityViolationException e) {
+            throw IndiceUnicidad.campoDuplicado(IndiceUnicidad.Registro.MEDICO, e)
+                    .map(campo -> new IllegalArgumentException(mensajeDuplicado(campo, nuevo)))
+                    .orElseThrow(() -> e);
+        }
+        indiceUnicidad.agregar(IndiceUnicidad.Registro.MEDICO,
+                guardado.getRun(), guardado.getCorreo(), guardado.getTelefono());
+        indiceRun.registrar(IndiceUnicidad.Registro.MEDICO, guardado.getRunNum(), guardado.getId());
+        buscadorNombres.actualizar(IndiceUnicidad.Registro.MEDICO, guardado.getId(), guardado.getNombre(), guardado.getApellido());
+        cacheRegistros.olvidarMedico(guardado.getId());
+        return guardado;
+    }
+
+    private static boolean coincide(String campo, Coincidencia c, Medico medico) {
+        return switch (campo) {
+            case "run" -> medico.getRun() != null && (medico.getRun().equalsIgnoreCase(c.getRun())
+                    || Integer.valueOf(Run.numeroDe(medico.getRun())).equals(c.getRunNum()));
+            case "correo" -> medico.getCorreo() != null && medico.getCorreo().equalsIgnoreCase(c.getCorreo());
+            default -> medico.getTelefono() != null && medico.getTelefono().equalsIgnoreCase(c.getTelefono());
+        };
+    }
+
+    private static String mensajeDuplicado(String campo, boolean nuevo) {
+        String nombre = switch (campo) {
+            case "run" -> nuevo ? "run" : "RUN";
+            case "correo" -> "correo";
+            default -> "teléfono";
+        };
+        return "El " + nombre + (nuevo ? " ya está registrado para otro médico." : " ya está en uso por otro médico.");
+    }
+
     public List<Medico> findByAntiguedadExacta(int antiguedad) {
         return medicoRepository.findByAntiguedadExacta(antiguedad);
     }
 
     public Optional<Medico> getMedicoById(int id) {
-        return medicoRepository.findById(id);
+        return findById(id);
     }
 }
\ No newline at end of file
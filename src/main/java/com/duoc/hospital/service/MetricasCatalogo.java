@@ -0,0 +1,68 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aciertos, fallos y cargas de un catálogo en memoria. Las búsquedas llegan desde muchos hilos a la vez,
+// así que los contadores son LongAdder y nunca se leen en el camino de la búsqueda.
+final class MetricasCatalogo {
+
+    // Un id desconocido recarga el catálogo a lo más una vez por intervalo: sin el tope, cada GET de un id
+    // inexistente leía la tabla completa con el candado de recarga tomado
+    private static final long INTERVALO_RECARGA_POR_FALLO = TimeUnit.SECONDS.toNanos(1);
+
+    private final String catalogo;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant ultimaCarga;
+    private final AtomicLong ultimaRecargaPorFallo = new AtomicLong(System.nanoTime() - INTERVALO_RECARGA_POR_FALLO);
+
+    // Contenido de la última carga; solo se toca con el candado de recarga del catálogo tomado
+    private Object contenido;
+
+    MetricasCatalogo(String catalogo) {
+        this.catalogo = catalogo;
+    }
+
+    void acierto() {
+        aciertos.increment();
+    }
+
+    void fallo() {
+        fallos.increment();
+    }
+
+    <T> Optional<T> contar(Optional<T> resultado) {
+        (resultado.isPresent() ? aciertos : fallos).increment();
+        return resultado;
+    }
+
+    // La versión sube solo si la carga trajo algo distinto: CuerposCatalogo vuelve a serializar con cada versión
+    void cargado(Object contenido) {
+        if (!contenido.equals(this.contenido)) {
+            this.contenido = contenido;
+            version.incrementAndGet();
+        }
+        ultimaCarga = Instant.now();
+    }
+
+    // true para un solo hilo por intervalo; los demás fallos se responden con la copia vigente
+    boolean recargarPorFallo() {
+        long ahora = System.nanoTime();
+        long ultima = ultimaRecargaPorFallo.get();
+        return ahora - ultima >= INTERVALO_RECARGA_POR_FALLO && ultimaRecargaPorFallo.compareAndSet(ultima, ahora);
+    }
+
+    EstadisticaCatalogo estadistica(int elementos) {
+        long a = aciertos.sum();
+        long f = fallos.sum();
+        return new EstadisticaCatalogo(catalogo, elementos, version.get(), a, f,
+                a + f == 0 ? 0 : (double) a / (a + f), ultimaCarga);
+    }
+}
@@ -0,0 +1,155 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.NominaDetalle;
+import com.duoc.hospital.model.Nomina;
+import com.duoc.hospital.repository.NominaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Liquidación mensual de sueldos: sueldo base + COMISION_PORCENTAJE % de las atenciones del mes.
+// Una sola consulta agrupada cruza todos los médicos con el resumen diario del mes (no con la
+// tabla de atenciones) y el resultado se guarda como una foto inmutable en nomina / nomina_detalle.
+@Service
+public class NominaService {
+
+    public static final int COMISION_PORCENTAJE = 20;
+
+    private static final String LIQUIDAR =
+            "SELECT m.id, m.run, m.nombre, m.apellido, m.sueldo_base, " +
+            "COALESCE(SUM(r.cantidad), 0) AS atenciones, COALESCE(SUM(r.total), 0) AS monto " +
+            "FROM medico m LEFT JOIN resumen_diario_atencion r " +
+            "ON r.id_medico = m.id AND r.dia >= ? AND r.dia < ? " +
+            "GROUP BY m.id, m.run, m.nombre, m.apellido, m.sueldo_base " +
+            "ORDER BY m.id";
+
+    private static final String INSERT_DETALLE = "INSERT INTO nomina_detalle " +
+            "(id_nomina, id_medico, run, medico, sueldo_base, atenciones, monto_atenciones, comision, sueldo_total) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DETALLE = "SELECT id_medico, run, medico, sueldo_base, atenciones, " +
+            "monto_atenciones, comision, sueldo_total FROM nomina_detalle WHERE id_nomina = ? ORDER BY id_medico";
+
+    private static final RowMapper<NominaDetalle> FILA_DETALLE = (rs, i) -> new NominaDetalle(
+            rs.getInt("id_medico"), rs.getString("run"), rs.getString("medico"), rs.getInt("sueldo_base"),
+            rs.getLong("atenciones"), rs.getLong("monto_atenciones"), rs.getLong("comision"), rs.getLong("sueldo_total"));
+
+    @Autowired
+    private NominaRepository nominaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExportadorNdjson exportadorNdjson;
+
+    // Comisión entera redondeada al peso (0,5 hacia arriba)
+    public static long comision(long montoAtenciones) {
+        return Math.floorDiv(montoAtenciones * COMISION_PORCENTAJE + 50, 100);
+    }
+
+    public static YearMonth leerPeriodo(String periodo) {
+        try {
+            return YearMonth.parse(periodo);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("El período debe tener el formato yyyy-MM.");
+        }
+    }
+
+    @Transactional
+    public Nomina liquidar(YearMonth periodo) {
+        List<NominaDetalle> detalle = jdbcTemplate.query(LIQUIDAR, (rs, i) -> {
+            int sueldoBase = rs.getInt("sueldo_base");
+            long monto = rs.getLong("monto");
+            long comision = comision(monto);
+            return new NominaDetalle(rs.getInt("id"), rs.getString("run"),
+                    rs.getString("nombre") + " " + rs.getString("apellido"), sueldoBase,
+                    rs.getLong("atenciones"), monto, comision, sueldoBase + comision);
+        }, Date.valueOf(periodo.atDay(1)), Date.valueOf(periodo.plusMonths(1).atDay(1)));
+
+        long totalBase = 0;
+        long totalComision = 0;
+        for (NominaDetalle d : detalle) {
+            totalBase += d.getSueldoBase();
+            totalComision += d.getComision();
+        }
+        Nomina nomina = nominaRepository.save(new Nomina(0, periodo.toString(), LocalDateTime.now(),
+                detalle.size(), totalBase, totalComision, totalBase + totalComision));
+
+        jdbcTemplate.batchUpdate(INSERT_DETALLE, detalle, AtencionLoteService.TAMANO_TRAMO, (ps, d) -> {
+            ps.setInt(1, nomina.getId());
+            ps.setInt(2, d.getIdMedico());
+            ps.setString(3, d.getRun());
+            ps.setString(4, d.getMedico());
+            ps.setInt(5, d.getSueldoBase());
+            ps.setLong(6, d.getAtenciones());
+            ps.setLong(7, d.getMontoAtenciones());
+            ps.setLong(8, d.getComision());
+            ps.setLong(9, d.getSueldoTotal());
+        });
+        return nomina;
+    }
+
+    public Optional<Nomina> findById(int id) {
+        return nominaRepository.findById(id);
+    }
+
+    public List<Nomina> findByPeriodo(YearMonth periodo) {
+        return nominaRepository.findByPeriodoOrderByIdDesc(periodo.toString());
+    }
+
+    @Transactional(readOnly = true)
+    public long exportarNdjson(int idNomina, OutputStream salida) throws IOException {
+        try (Stream<NominaDetalle> filas = leerDetalle(idNomina)) {
+            return exportadorNdjson.escribir(filas, salida);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportarCsv(int idNomina, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write("id_medico,run,medico,sueldo_base,atenciones,monto_atenciones,comision,sueldo_total\n");
+        long escritas = 0;
+        try (Stream<NominaDetalle> filas = leerDetalle(idNomina)) {
+            for (NominaDetalle d : (Iterable<NominaDetalle>) filas::iterator) {
+                writer.write(d.getIdMedico() + "," + csv(d.getRun()) + "," + csv(d.getMedico()) + ","
+                        + d.getSueldoBase() + "," + d.getAtenciones() + "," + d.getMontoAtenciones() + ","
+                        + d.getComision() + "," + d.getSueldoTotal() + "\n");
+                escritas++;
+            }
+        }
+        writer.flush();
+        return escritas;
+    }
+
+    // Recorre el detalle con cursor de la base en vez de cargarlo entero
+    private Stream<NominaDetalle> leerDetalle(int idNomina) {
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement ps = con.prepareStatement(DETALLE);
+            ps.setFetchSize(1000);
+            ps.setInt(1, idNomina);
+            return ps;
+        }, FILA_DETALLE);
+    }
+
+    private static String csv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
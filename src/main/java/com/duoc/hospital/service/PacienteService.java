@@ -1,36 +1,86 @@
 package com.duoc.hospital.service;
 
+import com.duoc.hospital.dto.Histograma;
+import com.duoc.hospital.dto.PaginaCursor;
+import com.duoc.hospital.dto.ResultadoConciliacion;
+import com.duoc.hospital.dto.TramoHistograma;
+import com.duoc.hospital.model.Especialidad;
 import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Run;
 import com.duoc.hospital.model.Prevision;
 import com.duoc.hospital.repository.PacienteRepository;
+import com.duoc.hospital.repository.PacienteRepository.Coincidencia;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service
 public class PacienteService {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final int IDS_POR_CONSULTA = 1_000;
+
     @Autowired
     private PacienteRepository pacienteRepository;
 
     @Autowired
-    private PrevisionService previsionService;
+    private CatalogoEspecialidades catalogoEspecialidades;
+
+    @Autowired
+    private IndicePacientesEspecialidad indicePacientesEspecialidad;
+
+    @Autowired
+    private LibroDeudaService libroDeudaService;
+
+    @Autowired
+    private TablaCoberturas tablaCoberturas;
+
+    @Autowired
+    private IndiceUnicidad indiceUnicidad;
+
+    @Autowired
+    private IndiceRun indiceRun;
+
+    @Autowired
+    private BuscadorNombres buscadorNombres;
+
+    @Autowired
+    private ExportadorNdjson exportadorNdjson;
+
+    @Autowired
+    private CacheRegistros cacheRegistros;
 
     // Obtener todos los pacientes
     public List<Paciente> getAllPacientes() {
         return pacienteRepository.findAll();
     }
 
-    // Buscar paciente por ID
+    // Buscar paciente por ID: desde la caché acotada, y en la base solo si no está o venció
     public Optional<Paciente> findById(int id) {
-        return pacienteRepository.findById(id);
+        return cacheRegistros.paciente(id, pacienteRepository::findById);
     }
 
-    // Guardar paciente con validaciones de negocio
+    // Guardar paciente con validaciones de negocio.
+    // Si el filtro de unicidad descarta el RUN, correo y teléfono, el registro es un solo INSERT;
+    // si alguno puede existir, una consulta combinada dice cuál. La restricción única cubre las carreras.
     public Paciente save(Paciente paciente) {
         // Validar campos obligatorios (NN)
         if (paciente.getRun() == null || paciente.getRun().isEmpty()
@@ -42,20 +92,17 @@ public class PacienteService {
                 || paciente.getPrevision() == null) {
             throw new IllegalArgumentException("Todos los campos obligatorios deben estar completos.");
         }
+        // El RUN se guarda siempre normalizado y con dígito verificador correcto
+        paciente.setRun(Run.normalizar(paciente.getRun()));
 
         // Validar unicidad
-        if (pacienteRepository.findByRun(paciente.getRun()).isPresent()) {
-            throw new IllegalArgumentException("El run ya está registrado para otro paciente.");
-        }
-        if (pacienteRepository.findByCorreo(paciente.getCorreo()).isPresent()) {
-            throw new IllegalArgumentException("El correo ya está registrado para otro paciente.");
-        }
-        if (pacienteRepository.findByTelefono(paciente.getTelefono()).isPresent()) {
-            throw new IllegalArgumentException("El teléfono ya está registrado para otro paciente.");
+        if (indiceUnicidad.puedeExistir(IndiceUnicidad.Registro.PACIENTE,
+                paciente.getRun(), paciente.getCorreo(), paciente.getTelefono())) {
+            validarUnicos(paciente, paciente.getId(), true);
         }
 
         // Validar previsión solo FONASA o ISAPRE
-        Prevision prevision = previsionService.findById(paciente.getPrevision().getId())
+        Prevision prevision = tablaCoberturas.buscar(paciente.getPrevision().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Previsión no encontrada"));
         String nombrePrevision = prevision.getNombre();
         if (!nombrePrevision.equalsIgnoreCase("FONASA") && !nombrePrevision.equalsIgnoreCase("ISAPRE")) {
@@ -63,12 +110,36 @@ public class PacienteService {
         }
         paciente.setPrevision(prevision);
 
-        return pacienteRepository.save(paciente);
+        return guardarUnico(paciente, true);
+    }
+
+    // Exportar todos los pacientes como NDJSON sin cargarlos todos en memoria
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida) throws IOException {
+        try (Stream<Paciente> filas = pacienteRepository.streamTodos()) {
+            return exportadorNdjson.escribir(filas, salida);
+        }
     }
 
     // Eliminar paciente por ID
     public void deleteById(int id) {
-        pacienteRepository.deleteById(id);
+        pacienteRepository.findById(id).ifPresent(paciente -> {
+            pacienteRepository.delete(paciente);
+            indiceRun.quitar(IndiceUnicidad.Registro.PACIENTE, paciente.getRunNum());
+            buscadorNombres.quitar(IndiceUnicidad.Registro.PACIENTE, paciente.getId());
+        });
+        cacheRegistros.olvidarPaciente(id);
+    }
+
+    // Búsqueda aproximada por nombre y apellido (sin acentos ni mayúsculas, tolera errores de tipeo),
+    // ordenada por parecido; el índice en memoria da los ids y se cargan solo esos
+    public List<Paciente> buscar(String consulta, int limite) {
+        List<Integer> ids = buscadorNombres.buscar(IndiceUnicidad.Registro.PACIENTE, consulta, limite);
+        Map<Integer, Paciente> porId = new HashMap<>();
+        for (Paciente paciente : pacienteRepository.findAllById(ids)) {
+            porId.put(paciente.getId(), paciente);
+        }
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
     }
 
     // Buscar pacientes por nombre y apellido
@@ -81,9 +152,25 @@ public class PacienteService {
         return pacienteRepository.findByPrevisionNombre(nombre);
     }
 
-    // Buscar paciente por run
+    // Buscar paciente por run: acepta cualquier formato y resuelve el id con el índice en memoria
     public Optional<Paciente> findByRun(String run) {
-        return pacienteRepository.findByRun(run);
+        int runNum;
+        try {
+            runNum = Run.numeroDe(run);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        int id = indiceRun.buscar(IndiceUnicidad.Registro.PACIENTE, runNum);
+        if (id != IndiceRun.SIN_ID) {
+            Optional<Paciente> paciente = findById(id)
+                    .filter(p -> Integer.valueOf(runNum).equals(p.getRunNum()));
+            if (paciente.isPresent()) {
+                return paciente;
+            }
+        }
+        Optional<Paciente> paciente = pacienteRepository.findByRunNum(runNum);
+        paciente.ifPresent(p -> indiceRun.registrar(IndiceUnicidad.Registro.PACIENTE, runNum, p.getId()));
+        return paciente;
     }
 
     // Buscar pacientes menores de cierta edad
@@ -98,6 +185,30 @@ public class PacienteService {
         return pacienteRepository.findMayoresDe(fechaLimite);
     }
 
+    // Pacientes por tramo de edad (opcionalmente por previsión) con una sola consulta agrupada;
+    // los nombres de previsión salen de la tabla en memoria en vez de un JOIN
+    public Histograma histogramaEdades(int ancho, boolean porPrevision) {
+        if (ancho < 1 || ancho > 120) {
+            throw new IllegalArgumentException("El ancho del tramo debe estar entre 1 y 120 años.");
+        }
+        LocalDate corte = LocalDate.now();
+        Map<Integer, Map<String, Long>> porTramo = new TreeMap<>();
+        long total = 0;
+        for (PacienteRepository.ConteoTramo fila : pacienteRepository.contarPorTramoEdad(
+                corte, corte.getYear(), corte.getMonthValue() * 100 + corte.getDayOfMonth(), ancho)) {
+            String prevision = porPrevision
+                    ? tablaCoberturas.buscar(fila.getIdPrevision()).map(Prevision::getNombre).orElse("SIN PREVISIÓN")
+                    : null;
+            porTramo.computeIfAbsent(fila.getTramo().intValue(), t -> new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .merge(prevision, fila.getCantidad(), Long::sum);
+            total += fila.getCantidad();
+        }
+        List<TramoHistograma> tramos = new ArrayList<>();
+        porTramo.forEach((tramo, conteos) -> conteos.forEach((prevision, cantidad) ->
+                tramos.add(new TramoHistograma(tramo * ancho, tramo * ancho + ancho - 1, prevision, cantidad))));
+        return new Histograma(corte, ancho, total, tramos);
+    }
+
     // Métodos agregados para compatibilidad con el controller
     public List<Paciente> findMenoresDeEdad(int edad) {
         return findMenoresDe(edad);
@@ -107,9 +218,82 @@ public class PacienteService {
         return findMayoresDe(edad);
     }
 
-    // Buscar pacientes por especialidad
+    // Buscar pacientes por especialidad: los ids salen del índice en memoria, sin recorrer atencion
     public List<Paciente> findByEspecialidadNombre(String nombreEspecialidad) {
-        return pacienteRepository.findByEspecialidadNombre(nombreEspecialidad);
+        Optional<Especialidad> especialidad = catalogoEspecialidades.buscar(nombreEspecialidad);
+        if (especialidad.isEmpty()) {
+            return List.of();
+        }
+        int[] ids = indicePacientesEspecialidad.pacientes(List.of(especialidad.get().getId()), List.of()).valores();
+        return cargarEnOrden(ids, ids.length);
+    }
+
+    // Pacientes atendidos en todas las especialidades de 'con' y en ninguna de 'sin', por id ascendente.
+    // El conjunto se resuelve con los mapas de bits y solo se cargan los pacientes de la página pedida;
+    // el cursor es el id del último paciente entregado
+    public PaginaCursor<Paciente> findPaginaPorEspecialidades(List<String> con, List<String> sin, String after, int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor que cero.");
+        }
+        int tope = Math.min(limite, LIMITE_MAXIMO);
+        int despuesDe = leerCursor(after);
+        if (con == null || con.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos una especialidad.");
+        }
+        List<Integer> incluidas = new ArrayList<>();
+        for (String nombre : con) {
+            Optional<Especialidad> especialidad = catalogoEspecialidades.buscar(nombre);
+            // Una especialidad que no existe no tiene pacientes, y la intersección queda vacía
+            if (especialidad.isEmpty()) {
+                return new PaginaCursor<>(List.of(), null, tope);
+            }
+            incluidas.add(especialidad.get().getId());
+        }
+        List<Integer> excluidas = new ArrayList<>();
+        for (String nombre : sin == null ? List.<String>of() : sin) {
+            catalogoEspecialidades.buscar(nombre).ifPresent(e -> excluidas.add(e.getId()));
+        }
+        // Se pide un id extra: si llega, hay página siguiente
+        int[] ids = indicePacientesEspecialidad.pacientes(incluidas, excluidas).siguientes(despuesDe, tope + 1);
+        List<Paciente> items = cargarEnOrden(ids, Math.min(ids.length, tope));
+        String siguiente = ids.length > tope ? String.valueOf(ids[tope - 1]) : null;
+        return new PaginaCursor<>(items, siguiente, tope);
+    }
+
+    private int leerCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return -1;
+        }
+        int id;
+        try {
+            id = Integer.parseInt(after.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + after);
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("Cursor no válido: " + after);
+        }
+        return id;
+    }
+
+    // findAllById no garantiza orden; se devuelve en el orden de los ids (los que ya no existan se omiten)
+    // Se cargan de a IDS_POR_CONSULTA: un IN (...) sin tope puede pasar el límite de 65.535 parámetros
+    // de una sentencia preparada en el servidor MySQL (useCursorFetch=true las activa)
+    private List<Paciente> cargarEnOrden(int[] ids, int cantidad) {
+        List<Paciente> pacientes = new ArrayList<>(cantidad);
+        for (int desde = 0; desde < cantidad; desde += IDS_POR_CONSULTA) {
+            int hasta = Math.min(desde + IDS_POR_CONSULTA, cantidad);
+            List<Integer> pedidos = new ArrayList<>(hasta - desde);
+            for (int i = desde; i < hasta; i++) {
+                pedidos.add(ids[i]);
+            }
+            Map<Integer, Paciente> porId = new HashMap<>();
+            for (Paciente paciente : pacienteRepository.findAllById(pedidos)) {
+                porId.put(paciente.getId(), paciente);
+            }
+            pedidos.stream().map(porId::get).filter(Objects::nonNull).forEach(pacientes::add);
+        }
+        return pacientes;
     }
 
     // Utilidad para calcular la fecha límite según la edad
@@ -120,21 +304,82 @@ public class PacienteService {
     public Optional<Paciente> update(int id, Paciente pacienteActualizado) {
         return pacienteRepository.findById(id)
                 .map(pacienteExistente -> {
+                    pacienteActualizado.setRun(Run.normalizar(pacienteActualizado.getRun()));
+                    pacienteActualizado.setRunNum(Run.numeroDe(pacienteActualizado.getRun()));
                     // Valida que los datos únicos no se repitan con OTROS pacientes
-                    pacienteRepository.findByRun(pacienteActualizado.getRun()).ifPresent(p -> {
-                        if (p.getId() != id) throw new IllegalArgumentException("El RUN ya está en uso por otro paciente.");
-                    });
-                    pacienteRepository.findByCorreo(pacienteActualizado.getCorreo()).ifPresent(p -> {
-                        if (p.getId() != id) throw new IllegalArgumentException("El correo ya está en uso por otro paciente.");
-                    });
+                    validarUnicos(pacienteActualizado, id, false);
 
                     pacienteActualizado.setId(id); // Asegura que se actualice el registro correcto
-                    return pacienteRepository.save(pacienteActualizado);
+                    // La deuda no se guarda desde aquí (la lleva el libro); se responde con la vigente
+                    pacienteActualizado.setDeuda(pacienteExistente.getDeuda());
+                    Paciente guardado = guardarUnico(pacienteActualizado, false);
+                    if (!Objects.equals(pacienteExistente.getRunNum(), guardado.getRunNum())) {
+                        indiceRun.quitar(IndiceUnicidad.Registro.PACIENTE, pacienteExistente.getRunNum());
+                    }
+                    return guardado;
                 });
     }
+
+    // Una sola consulta por los tres valores únicos; el orden de los mensajes es RUN, correo, teléfono
+    private void validarUnicos(Paciente paciente, int idPropio, boolean nuevo) {
+        List<Coincidencia> coincidencias = pacienteRepository.findCoincidencias(
+                Run.numeroDe(paciente.getRun()), paciente.getRun(), paciente.getCorreo(), paciente.getTelefono());
+        for (String campo : new String[]{"run", "correo", "telefono"}) {
+            for (Coincidencia c : coincidencias) {
+                if (c.getId() != idPropio && coincide(campo, c, paciente)) {
+                    throw new IllegalArgumentException(mensajeDuplicado(campo, nuevo));
+                }
+            }
+        }
+    }
+
+    // INSERT o UPDATE directo; si otro registro ganó la carrera, la restricción única dice qué campo chocó
+    private Paciente guardarUnico(Paciente paciente, boolean nuevo) {
+        Paciente guardado;
+        try {
+            guardado = pacienteRepository.saveAndFlush(paciente);
+        } catch (DataIntegrityViolationException e) {
+            throw IndiceUnicidad.campoDuplicado(IndiceUnicidad.Registro.PACIENTE, e)
+                    .map(campo -> new IllegalArgumentException(mensajeDuplicado(campo, nuevo)))
+                    .orElseThrow(() -> e);
+        }
+        indiceUnicidad.agregar(IndiceUnicidad.Registro.PACIENTE,
+                guardado.getRun(), guardado.getCorreo(), guardado.getTelefono());
+        indiceRun.registrar(IndiceUnicidad.Registro.PACIENTE, guardado.getRunNum(), guardado.getId());
+        buscadorNombres.actualizar(IndiceUnicidad.Registro.PACIENTE, guardado.getId(), guardado.getNombre(), guardado.getApellido());
+        cacheRegistros.olvidarPaciente(guardado.getId());
+        return guardado;
+    }
+
+    private static boolean coincide(String campo, Coincidencia c, Paciente paciente) {
+        return switch (campo) {
+            case "run" -> paciente.getRun() != null && (paciente.getRun().equalsIgnoreCase(c.getRun())
+                    || Integer.valueOf(Run.numeroDe(paciente.getRun())).equals(c.getRunNum()));
+            case "correo" -> paciente.getCorreo() != null && paciente.getCorreo().equalsIgnoreCase(c.getCorreo());
+            default -> paciente.getTelefono() != null && paciente.getTelefono().equalsIgnoreCase(c.getTelefono());
+        };
+    }
+
+    private static String mensajeDuplicado(String campo, boolean nuevo) {
+        String nombre = switch (campo) {
+            case "run" -> nuevo ? "run" : "RUN";
+            case "correo" -> "correo";
+            default -> "teléfono";
+        };
+        return "El " + nombre + (nuevo ? " ya está registrado para otro paciente." : " ya está en uso por otro paciente.");
+    }
     
     // Metodo nuevo agregado
     public Optional<Paciente> getPacienteById(int id) {
-        return pacienteRepository.findById(id);
+        return findById(id);
+    }
+
+    // Lectura por clave primaria de la columna que mantiene LibroDeudaService
+    public Optional<Integer> getDeuda(int id) {
+        return pacienteRepository.findDeudaById(id);
+    }
+
+    public ResultadoConciliacion conciliarDeudas() {
+        return libroDeudaService.conciliar();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.duoc.hospital.service;
 
+import com.duoc.hospital.dto.EstadisticaCatalogo;
 import com.duoc.hospital.model.Prevision;
 import com.duoc.hospital.repository.PrevisionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,17 +14,38 @@ public class PrevisionService {
     @Autowired
     private PrevisionRepository previsionRepository;
 
+    @Autowired
+    private TablaCoberturas tablaCoberturas;
+
+    @Autowired
+    private CacheRegistros cacheRegistros;
+
     /*GET, GETBYID, GUARDAR, ACTUALIZAR, BORRAR */
 
-    public List<Prevision> getAllPrevisiones() { return previsionRepository.findAll(); }
+    // Las lecturas salen de la tabla en memoria; las escrituras la recargan
+    public List<Prevision> getAllPrevisiones() { return tablaCoberturas.todas(); }
+
+    public Optional<Prevision> findById(int id) { return tablaCoberturas.buscar(id); }
 
-    public Optional<Prevision> findById(int id) { return previsionRepository.findById(id); }
+    // La cobertura se valida antes de guardar y la tabla en memoria se recarga con el cambio
+    public Prevision save(Prevision prevision) {
+        prevision.setCoberturaPb(Prevision.puntosBaseDe(prevision.getCobertura()));
+        Prevision guardada = previsionRepository.save(prevision);
+        tablaCoberturas.recargar();
+        cacheRegistros.olvidarTodosLosPacientes();
+        return guardada;
+    }
 
-    public Prevision save(Prevision prevision) { return previsionRepository.save(prevision); }
+    public void deleteById(int id) {
+        previsionRepository.deleteById(id);
+        tablaCoberturas.recargar();
+        cacheRegistros.olvidarTodosLosPacientes();
+    }
 
-    public void deleteById(int id) { previsionRepository.deleteById(id); }
+    public List<Prevision> findAll() { return tablaCoberturas.todas(); }
 
-    public List<Prevision> findAll() { return previsionRepository.findAll(); }
+    // Versión y fecha de la copia vigente; con ellas el listado responde 304 sin ir a la base
+    public EstadisticaCatalogo estadistica() { return tablaCoberturas.estadistica(); }
 
     // Nuevo método para verificar si una previsión existe por su nombre
     public boolean existsByNombre(String nombre) {return previsionRepository.existsByNombre(nombre);}
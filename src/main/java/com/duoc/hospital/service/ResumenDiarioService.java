@@ -0,0 +1,184 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.ResultadoReconstruccion;
+import com.duoc.hospital.dto.TotalGanancias;
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.model.Estado;
+import com.duoc.hospital.model.ResumenDiario;
+import com.duoc.hospital.repository.ResumenDiarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+// Mantiene el resumen diario (día, médico, estado) -> cantidad y total de costos.
+// Cada alta, cambio o baja de una atención aplica su diferencia dentro de la transacción
+// de quien llama, así el resumen nunca queda con cambios que no se confirmaron.
+@Service
+public class ResumenDiarioService {
+
+    // Los días del resumen son días de Chile, los mismos que usan las búsquedas por rango de fechas
+    public static final ZoneId ZONA_HORARIA = ZoneId.of("America/Santiago");
+
+    // Filas que entran al resumen; fecha_atencion se lee como instante (Hibernate la guarda en la zona de la JVM)
+    private static final String FILAS_ATENCION =
+            "SELECT fecha_atencion, id_medico, id_estado, costo FROM atencion WHERE id_medico IS NOT NULL";
+
+    // Lectura con bloqueo de todo el resumen. En InnoDB (REPEATABLE READ) recorrer la tabla completa bloquea
+    // también los huecos entre filas, así que ningún acumular() puede insertar ni sumar hasta que la
+    // reconstrucción confirme, y uno que ya había sumado sin confirmar se espera aquí antes de leer atencion
+    private static final String BLOQUEAR_RESUMEN =
+            "SELECT dia, id_medico, id_estado, cantidad, total FROM resumen_diario_atencion FOR UPDATE";
+
+    private static final String INSERTAR =
+            "INSERT INTO resumen_diario_atencion (dia, id_medico, id_estado, cantidad, total) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ResumenDiarioRepository resumenDiarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogoEstados catalogoEstados;
+
+    // Día de Chile al que pertenece una atención, sin importar la zona horaria del servidor
+    public static LocalDate diaDe(Date fecha) {
+        return fecha.toInstant().atZone(ZONA_HORARIA).toLocalDate();
+    }
+
+    // Suma las atenciones por (día de Chile, médico, estado). El día se calcula aquí con diaDe y no con CAST
+    // en SQL: la base no sabe de zonas horarias y agruparía por el día del servidor, que no es el de Chile
+    // cerca de medianoche. Lo usan reconstruir() y la migración V10, que corrige la carga inicial de V3 y V5.
+    public static Map<ResumenDiario.Clave, long[]> calcular(JdbcTemplate jdbc) {
+        Map<ResumenDiario.Clave, long[]> calculados = new HashMap<>();
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FILAS_ATENCION);
+            ps.setFetchSize(1000);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long[] suma = calculados.computeIfAbsent(
+                    new ResumenDiario.Clave(diaDe(rs.getTimestamp(1)), rs.getInt(2), rs.getShort(3)), c -> new long[2]);
+            suma[0]++;
+            suma[1] += rs.getLong(4);
+        });
+        return calculados;
+    }
+
+    // Deja en resumen_diario_atencion exactamente las filas calculadas
+    public static void reemplazar(JdbcTemplate jdbc, Map<ResumenDiario.Clave, long[]> calculados) {
+        List<Object[]> filas = new ArrayList<>(calculados.size());
+        calculados.forEach((clave, suma) -> filas.add(new Object[]{
+                java.sql.Date.valueOf(clave.getDia()), clave.getIdMedico(), clave.getIdEstado(), suma[0], suma[1]}));
+        jdbc.update("DELETE FROM resumen_diario_atencion");
+        jdbc.batchUpdate(INSERTAR, filas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sumar(Atencion atencion) {
+        aplicar(atencion, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void restar(Atencion atencion) {
+        aplicar(atencion, -1);
+    }
+
+    // Para la carga masiva: agrupa el tramo por clave y hace un solo acumulado por fila de resumen
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sumarTodas(Collection<Atencion> atenciones) {
+        Map<ResumenDiario.Clave, long[]> deltas = new HashMap<>();
+        for (Atencion a : atenciones) {
+            ResumenDiario.Clave clave = claveDe(a);
+            if (clave != null) {
+                long[] delta = deltas.computeIfAbsent(clave, c -> new long[2]);
+                delta[0]++;
+                delta[1] += a.getCosto();
+            }
+        }
+        deltas.forEach((clave, delta) -> resumenDiarioRepository.acumular(
+                clave.getDia(), clave.getIdMedico(), clave.getIdEstado(), delta[0], delta[1]));
+    }
+
+    public TotalGanancias totalEntre(LocalDate desde, LocalDate hasta, String estado, Integer idMedico) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Debe indicar 'desde' y 'hasta'.");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("'hasta' no puede ser anterior a 'desde'.");
+        }
+        Optional<Estado> conocido = catalogoEstados.buscar(estado);
+        if (conocido.isEmpty()) {
+            return new TotalGanancias(desde, hasta, estado, idMedico, 0, 0);
+        }
+        ResumenDiarioRepository.Totales totales =
+                resumenDiarioRepository.sumarEntre(conocido.get().getId(), desde, hasta, idMedico);
+        return new TotalGanancias(desde, hasta, conocido.get().getNombre(), idMedico, totales.getCantidad(), totales.getTotal());
+    }
+
+    public long totalPorEstado(String estado) {
+        return catalogoEstados.buscar(estado)
+                .map(e -> resumenDiarioRepository.sumarTotalPorEstado(e.getId()))
+                .orElse(0L);
+    }
+
+    // Recalcula todo desde la tabla de atenciones y cuenta cuántas filas no coincidían,
+    // lo que sirve para verificar que el mantenimiento incremental no se ha desviado.
+    // Se puede correr con el sistema en uso: el resumen se bloquea antes de leer atencion, y las altas,
+    // cambios y bajas que lleguen mientras tanto esperan a que termine y suman sobre lo reconstruido.
+    @Transactional
+    public ResultadoReconstruccion reconstruir() {
+        long inicio = System.nanoTime();
+        // Las atenciones pendientes en el contexto de persistencia tienen que estar en la base antes de leerla
+        resumenDiarioRepository.flush();
+        // Primero el bloqueo y después la lectura de atencion: la foto de la transacción se toma en la
+        // primera lectura sin bloqueo, así incluye a quien confirmó mientras se esperaba el bloqueo
+        Map<ResumenDiario.Clave, long[]> actuales = new HashMap<>();
+        jdbcTemplate.query(BLOQUEAR_RESUMEN, (RowCallbackHandler) rs -> actuales.put(
+                new ResumenDiario.Clave(rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getShort(3)),
+                new long[]{rs.getLong(4), rs.getLong(5)}));
+        Map<ResumenDiario.Clave, long[]> calculados = calcular(jdbcTemplate);
+
+        int diferencias = 0;
+        for (Map.Entry<ResumenDiario.Clave, long[]> calculado : calculados.entrySet()) {
+            long[] suma = calculado.getValue();
+            long[] actual = actuales.remove(calculado.getKey());
+            if (actual == null || actual[0] != suma[0] || actual[1] != suma[1]) {
+                diferencias++;
+            }
+        }
+        // Las que quedan no tienen atenciones detrás; solo cuentan si no están en cero
+        for (long[] sobrante : actuales.values()) {
+            if (sobrante[0] != 0 || sobrante[1] != 0) {
+                diferencias++;
+            }
+        }
+
+        reemplazar(jdbcTemplate, calculados);
+        return new ResultadoReconstruccion(calculados.size(), diferencias, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void aplicar(Atencion atencion, int signo) {
+        ResumenDiario.Clave clave = claveDe(atencion);
+        if (clave != null) {
+            resumenDiarioRepository.acumular(clave.getDia(), clave.getIdMedico(), clave.getIdEstado(),
+                    signo, (long) signo * atencion.getCosto());
+        }
+    }
+
+    // Las atenciones sin médico, fecha o estado no entran al resumen (igual que en la carga inicial)
+    private ResumenDiario.Clave claveDe(Atencion a) {
+        if (a == null || a.getMedico() == null || a.getMedico().getId() == 0
+                || a.getFechaAtencion() == null || a.getEstado() == null) {
+            return null;
+        }
+        return new ResumenDiario.Clave(diaDe(a.getFechaAtencion()), a.getMedico().getId(), catalogoEstados.idDe(a.getEstado()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.duoc.hospital.service;
+
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+import com.duoc.hospital.model.Prevision;
+import com.duoc.hospital.repository.PrevisionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Cobertura de cada previsión en puntos base, en un arreglo indexado por id, junto a la previsión completa.
+// Las previsiones son pocas y casi nunca cambian: PrevisionService la recarga al guardar o borrar,
+// y una consulta por un id desconocido (creado desde otra instancia) fuerza una recarga, a lo más una por segundo.
+@Component
+public class TablaCoberturas {
+
+    private static final int SIN_PREVISION = -1;
+
+    @Autowired
+    private PrevisionRepository previsionRepository;
+
+    private final MetricasCatalogo metricas = new MetricasCatalogo("previsiones");
+
+    private volatile Tabla tabla;
+
+    // cargar() lee la base con el candado tomado; un ReentrantLock no fija el hilo portador de un hilo virtual
+    private final ReentrantLock recarga = new ReentrantLock();
+
+    private record Tabla(int[] puntosBase, Prevision[] previsiones, List<Prevision> todas) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        cargar();
+    }
+
+    public int puntosBase(int idPrevision) {
+        Tabla actual = vigente(idPrevision);
+        return contiene(actual, idPrevision) ? actual.puntosBase()[idPrevision] : 0;
+    }
+
+    // Previsión por id sin ir a la base; sirve para validar y asignar la previsión de un paciente nuevo
+    public Optional<Prevision> buscar(int idPrevision) {
+        Tabla actual = vigente(idPrevision);
+        return contiene(actual, idPrevision) ? Optional.of(actual.previsiones()[idPrevision]) : Optional.empty();
+    }
+
+    public List<Prevision> todas() {
+        Tabla actual = tabla;
+        return (actual == null ? cargar() : actual).todas();
+    }
+
+    public void recargar() {
+        cargar();
+    }
+
+    public EstadisticaCatalogo estadistica() {
+        return metricas.estadistica(todas().size());
+    }
+
+    // La tabla vigente si conoce el id; si no (o si aún no se carga), una recién leída de la base
+    private Tabla vigente(int idPrevision) {
+        Tabla actual = tabla;
+        if (contiene(actual, idPrevision)) {
+            metricas.acierto();
+            return actual;
+        }
+        metricas.fallo();
+        return actual == null || metricas.recargarPorFallo() ? cargar() : actual;
+    }
+
+    // Se guardan copias sin la lista de pacientes, como en CatalogoEspecialidades: la tabla se comparte entre
+    // hilos y PacienteService asigna estas previsiones a pacientes nuevos, así que no pueden arrastrar una
+    // colección perezosa de una sesión de Hibernate ya cerrada
+    private Tabla cargar() {
+        recarga.lock();
+        try {
+            List<Prevision> previsiones = previsionRepository.findAll().stream()
+                    .map(p -> new Prevision(p.getId(), p.getNombre(), p.getCobertura(), p.getCoberturaPb(), null))
+                    .toList();
+            int maximo = previsiones.stream().mapToInt(Prevision::getId).max().orElse(0);
+            int[] puntosBase = new int[maximo + 1];
+            Prevision[] porId = new Prevision[maximo + 1];
+            Arrays.fill(puntosBase, SIN_PREVISION);
+            for (Prevision p : previsiones) {
+                puntosBase[p.getId()] = p.getCoberturaPb();
+                porId[p.getId()] = p;
+            }
+            tabla = new Tabla(puntosBase, porId, previsiones.stream().sorted(Comparator.comparingInt(Prevision::getId)).toList());
+            metricas.cargado(tabla.todas());
+            return tabla;
+        } finally {
+            recarga.unlock();
+        }
+    }
+
+    // Monto que paga el paciente: total * (1 - cobertura), redondeado al peso más cercano (0,5 hacia arriba)
+    public static long copago(long total, int puntosBase) {
+        return Math.floorDiv(total * (10_000 - puntosBase) + 5_000, 10_000);
+    }
+
+    private static boolean contiene(Tabla tabla, int idPrevision) {
+        return tabla != null && idPrevision >= 0 && idPrevision < tabla.puntosBase().length
+                && tabla.puntosBase()[idPrevision] != SIN_PREVISION;
+    }
+}
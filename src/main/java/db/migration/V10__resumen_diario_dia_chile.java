@@ -0,0 +1,21 @@
+package db.migration;
+
+import com.duoc.hospital.service.ResumenDiarioService;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+// V3 y V5 sembraron el resumen diario con CAST(fecha_atencion AS DATE), que agrupa por el día del servidor:
+// con el contenedor en UTC, las atenciones después de las 20:00 de Chile quedaban en el día siguiente.
+// Se vuelve a calcular con ResumenDiarioService.diaDe, igual que la reconstrucción. Es una migración en Java
+// porque la base no sabe en qué día de Chile cae cada atención.
+public class V10__resumen_diario_dia_chile extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) {
+        // La conexión es de Flyway: la fuente de datos no la cierra
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        ResumenDiarioService.reemplazar(jdbc, ResumenDiarioService.calcular(jdbc));
+    }
+}
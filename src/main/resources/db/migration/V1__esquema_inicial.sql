@@ -0,0 +1,70 @@
+-- Esquema base: mismas tablas y columnas que generaba Hibernate con ddl-auto=create-drop,
+-- con nombres explícitos para las restricciones únicas y foráneas.
+-- Las foráneas de atencion se crean en V2, después de sus índices compuestos.
+
+CREATE TABLE especialidad (
+    id          INT          NOT NULL AUTO_INCREMENT,
+    nombre      VARCHAR(50)  NOT NULL,
+    descripcion VARCHAR(200) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE estado (
+    id          INT          NOT NULL AUTO_INCREMENT,
+    nombre      VARCHAR(50)  NOT NULL,
+    descripcion VARCHAR(200) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE prevision (
+    id        INT          NOT NULL AUTO_INCREMENT,
+    nombre    VARCHAR(50)  NOT NULL,
+    cobertura VARCHAR(200) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE medico (
+    id              INT          NOT NULL AUTO_INCREMENT,
+    run             VARCHAR(12)  NOT NULL,
+    nombre          VARCHAR(50)  NOT NULL,
+    apellido        VARCHAR(50)  NOT NULL,
+    fecha_contrato  DATETIME(6)  NOT NULL,
+    sueldo_base     INT          NOT NULL,
+    correo          VARCHAR(100) NOT NULL,
+    telefono        VARCHAR(20)  NOT NULL,
+    id_especialidad INT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_medico_run UNIQUE (run),
+    CONSTRAINT uk_medico_correo UNIQUE (correo),
+    CONSTRAINT uk_medico_telefono UNIQUE (telefono),
+    CONSTRAINT fk_medico_especialidad FOREIGN KEY (id_especialidad) REFERENCES especialidad (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE paciente (
+    id               INT          NOT NULL AUTO_INCREMENT,
+    run              VARCHAR(12)  NOT NULL,
+    nombre           VARCHAR(50)  NOT NULL,
+    apellido         VARCHAR(50)  NOT NULL,
+    fecha_nacimiento DATE         NOT NULL,
+    correo           VARCHAR(100) NOT NULL,
+    telefono         VARCHAR(20)  NOT NULL,
+    prevision        INT          NOT NULL,
+    deuda            INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_paciente_run UNIQUE (run),
+    CONSTRAINT uk_paciente_correo UNIQUE (correo),
+    CONSTRAINT uk_paciente_telefono UNIQUE (telefono),
+    CONSTRAINT fk_paciente_prevision FOREIGN KEY (prevision) REFERENCES prevision (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE atencion (
+    id             INT          NOT NULL AUTO_INCREMENT,
+    fecha_atencion DATETIME(6)  NOT NULL,
+    hora_inicio    TIME(6)      NOT NULL,
+    costo          INT          DEFAULT 0,
+    comentario     VARCHAR(300),
+    estado         VARCHAR(20)  NOT NULL,
+    id_paciente    INT,
+    id_medico      INT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,23 @@
+-- Índices para los patrones de consulta de AtencionRepository.
+-- En InnoDB cada índice secundario incluye la PK, así que (x, fecha_atencion) también
+-- sirve a la paginación por cursor (fecha_atencion, id) filtrada por x.
+
+-- findByMedicoId, resúmenes por médico, sueldo total
+CREATE INDEX idx_atencion_medico_fecha ON atencion (id_medico, fecha_atencion);
+
+-- findByPacienteId, resúmenes por paciente, costo total del paciente
+CREATE INDEX idx_atencion_paciente_fecha ON atencion (id_paciente, fecha_atencion);
+
+-- findByEstado y su paginación
+CREATE INDEX idx_atencion_estado_fecha ON atencion (estado, fecha_atencion);
+
+-- findByCostoLessThan / findByCostoGreaterThan
+CREATE INDEX idx_atencion_costo ON atencion (costo);
+
+-- Listado completo paginado y búsquedas por fecha o rango de fechas
+CREATE INDEX idx_atencion_fecha ON atencion (fecha_atencion);
+
+-- Las foráneas se agregan al final para que MySQL reutilice los índices compuestos
+-- en vez de crear uno propio por cada columna
+ALTER TABLE atencion ADD CONSTRAINT fk_atencion_medico FOREIGN KEY (id_medico) REFERENCES medico (id);
+ALTER TABLE atencion ADD CONSTRAINT fk_atencion_paciente FOREIGN KEY (id_paciente) REFERENCES paciente (id);
@@ -0,0 +1,20 @@
+-- Resumen diario de atenciones por (día, médico, estado): cantidad y suma de costos.
+-- Lo mantiene AtencionService en la misma transacción que cada alta, cambio o baja,
+-- para que los reportes de ganancias sumen pocas filas en vez de recorrer toda la historia.
+CREATE TABLE resumen_diario_atencion (
+    dia       DATE        NOT NULL,
+    id_medico INT         NOT NULL,
+    estado    VARCHAR(20) NOT NULL,
+    cantidad  BIGINT      NOT NULL DEFAULT 0,
+    total     BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (dia, id_medico, estado)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_resumen_estado_dia ON resumen_diario_atencion (estado, dia);
+
+-- Carga inicial desde las atenciones existentes
+INSERT INTO resumen_diario_atencion (dia, id_medico, estado, cantidad, total)
+SELECT CAST(fecha_atencion AS DATE), id_medico, estado, COUNT(*), COALESCE(SUM(costo), 0)
+FROM atencion
+WHERE id_medico IS NOT NULL
+GROUP BY CAST(fecha_atencion AS DATE), id_medico, estado;
@@ -0,0 +1,9 @@
+-- Cobertura de la previsión como entero en puntos base (50% = 5000), para calcular
+-- copagos con aritmética entera en vez de interpretar el texto en cada atención.
+ALTER TABLE prevision ADD COLUMN cobertura_pb INT NOT NULL DEFAULT 0;
+
+UPDATE prevision
+SET cobertura_pb = CAST(REPLACE(TRIM(cobertura), '%', '') AS DECIMAL(5, 2)) * 100
+WHERE REGEXP_LIKE(TRIM(cobertura), '^[0-9]{1,3}([.][0-9]{1,2})?%?$');
+
+ALTER TABLE prevision ADD CONSTRAINT ck_prevision_cobertura_pb CHECK (cobertura_pb BETWEEN 0 AND 10000);
@@ -0,0 +1,48 @@
+-- El estado de cada atención pasa de un VARCHAR(20) a una clave SMALLINT hacia el catálogo estado.
+-- Los filtros por estado comparan 2 bytes y el índice (id_estado, fecha_atencion) queda más chico.
+ALTER TABLE estado MODIFY id SMALLINT NOT NULL AUTO_INCREMENT;
+
+-- Estados base (los mismos que crea DataInitializar), para que la conversión los encuentre
+INSERT INTO estado (nombre, descripcion)
+SELECT 'Alta', 'Paciente en estado libre' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM estado WHERE nombre = 'Alta');
+INSERT INTO estado (nombre, descripcion)
+SELECT 'Pendiente', 'Paciente a espera de ser atendido' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM estado WHERE nombre = 'Pendiente');
+INSERT INTO estado (nombre, descripcion)
+SELECT 'Hospitalizado', 'Paciente hospitalizado' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM estado WHERE nombre = 'Hospitalizado');
+
+-- Cualquier otro texto usado en atenciones se agrega al catálogo en vez de perderse
+INSERT INTO estado (nombre, descripcion)
+SELECT DISTINCT a.estado, a.estado FROM atencion a
+WHERE NOT EXISTS (SELECT 1 FROM estado e WHERE e.nombre = a.estado);
+
+ALTER TABLE atencion ADD COLUMN id_estado SMALLINT;
+UPDATE atencion SET id_estado = (SELECT MIN(e.id) FROM estado e WHERE e.nombre = atencion.estado);
+ALTER TABLE atencion MODIFY id_estado SMALLINT NOT NULL;
+
+DROP INDEX idx_atencion_estado_fecha ON atencion;
+ALTER TABLE atencion DROP COLUMN estado;
+CREATE INDEX idx_atencion_estado_fecha ON atencion (id_estado, fecha_atencion);
+ALTER TABLE atencion ADD CONSTRAINT fk_atencion_estado FOREIGN KEY (id_estado) REFERENCES estado (id);
+
+-- El resumen diario se deriva de atencion: se recrea con la misma clave y se vuelve a calcular
+DROP TABLE resumen_diario_atencion;
+
+CREATE TABLE resumen_diario_atencion (
+    dia       DATE     NOT NULL,
+    id_medico INT      NOT NULL,
+    id_estado SMALLINT NOT NULL,
+    cantidad  BIGINT   NOT NULL DEFAULT 0,
+    total     BIGINT   NOT NULL DEFAULT 0,
+    PRIMARY KEY (dia, id_medico, id_estado)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_resumen_estado_dia ON resumen_diario_atencion (id_estado, dia);
+
+INSERT INTO resumen_diario_atencion (dia, id_medico, id_estado, cantidad, total)
+SELECT CAST(fecha_atencion AS DATE), id_medico, id_estado, COUNT(*), COALESCE(SUM(costo), 0)
+FROM atencion
+WHERE id_medico IS NOT NULL
+GROUP BY CAST(fecha_atencion AS DATE), id_medico, id_estado;
@@ -0,0 +1,28 @@
+-- Liquidaciones de sueldo mensuales. Cada ejecución queda guardada tal cual se calculó
+-- (nombre, sueldo base y comisión del momento), para releerla sin recalcular.
+CREATE TABLE nomina (
+    id             INT         NOT NULL AUTO_INCREMENT,
+    periodo        VARCHAR(7)  NOT NULL,
+    generada       DATETIME(6) NOT NULL,
+    medicos        INT         NOT NULL,
+    total_base     BIGINT      NOT NULL,
+    total_comision BIGINT      NOT NULL,
+    total          BIGINT      NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_nomina_periodo ON nomina (periodo, id);
+
+CREATE TABLE nomina_detalle (
+    id_nomina        INT          NOT NULL,
+    id_medico        INT          NOT NULL,
+    run              VARCHAR(12)  NOT NULL,
+    medico           VARCHAR(101) NOT NULL,
+    sueldo_base      INT          NOT NULL,
+    atenciones       BIGINT       NOT NULL,
+    monto_atenciones BIGINT       NOT NULL,
+    comision         BIGINT       NOT NULL,
+    sueldo_total     BIGINT       NOT NULL,
+    PRIMARY KEY (id_nomina, id_medico),
+    CONSTRAINT fk_nomina_detalle_nomina FOREIGN KEY (id_nomina) REFERENCES nomina (id)
+) ENGINE = InnoDB;
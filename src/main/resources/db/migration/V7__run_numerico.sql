@@ -0,0 +1,22 @@
+-- Cuerpo numérico del RUN (sin puntos, guion ni dígito verificador) como clave compacta con índice único.
+-- Las filas antiguas con RUN mal formado quedan en NULL; si dos variantes del mismo RUN ya existían
+-- ("12.345.678-5" y "12345678-5"), solo la más antigua recibe el número y la otra queda para revisión.
+ALTER TABLE paciente ADD COLUMN run_num INT NULL;
+ALTER TABLE medico ADD COLUMN run_num INT NULL;
+
+UPDATE paciente
+SET run_num = CAST(LEFT(REPLACE(REPLACE(run, '.', ''), '-', ''), CHAR_LENGTH(REPLACE(REPLACE(run, '.', ''), '-', '')) - 1) AS DECIMAL(10, 0))
+WHERE REGEXP_LIKE(REPLACE(REPLACE(run, '.', ''), '-', ''), '^[0-9]{1,9}[0-9Kk]$');
+
+UPDATE medico
+SET run_num = CAST(LEFT(REPLACE(REPLACE(run, '.', ''), '-', ''), CHAR_LENGTH(REPLACE(REPLACE(run, '.', ''), '-', '')) - 1) AS DECIMAL(10, 0))
+WHERE REGEXP_LIKE(REPLACE(REPLACE(run, '.', ''), '-', ''), '^[0-9]{1,9}[0-9Kk]$');
+
+UPDATE paciente SET run_num = NULL
+WHERE id IN (SELECT id FROM (SELECT p.id FROM paciente p JOIN paciente q ON q.run_num = p.run_num AND q.id < p.id) duplicados);
+
+UPDATE medico SET run_num = NULL
+WHERE id IN (SELECT id FROM (SELECT m.id FROM medico m JOIN medico q ON q.run_num = m.run_num AND q.id < m.id) duplicados);
+
+CREATE UNIQUE INDEX uk_paciente_run_num ON paciente (run_num);
+CREATE UNIQUE INDEX uk_medico_run_num ON medico (run_num);
@@ -0,0 +1,4 @@
+-- Los histogramas de edad y antigüedad agrupan por fecha_nacimiento / fecha_contrato;
+-- con estos índices la consulta se resuelve leyendo solo el índice
+CREATE INDEX idx_paciente_nacimiento_prevision ON paciente (fecha_nacimiento, prevision);
+CREATE INDEX idx_medico_fecha_contrato ON medico (fecha_contrato);
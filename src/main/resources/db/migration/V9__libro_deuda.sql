@@ -0,0 +1,19 @@
+-- Libro de deuda de pacientes. Cada cargo o anulación por atención queda como un movimiento y
+-- paciente.deuda es la suma de los movimientos del paciente, mantenida con UPDATE deuda = deuda + ?.
+-- Sin clave foránea a paciente ni a atencion: el libro es historia y se conserva aunque se borren.
+CREATE TABLE movimiento_deuda (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    id_paciente INT         NOT NULL,
+    id_atencion INT         NULL,
+    tipo        VARCHAR(10) NOT NULL,
+    monto       INT         NOT NULL,
+    fecha       DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_movimiento_deuda_paciente ON movimiento_deuda (id_paciente);
+CREATE INDEX idx_movimiento_deuda_atencion ON movimiento_deuda (id_atencion);
+
+-- Saldo de apertura: la deuda que cada paciente ya tenía, para que el libro cuadre desde el inicio
+INSERT INTO movimiento_deuda (id_paciente, id_atencion, tipo, monto)
+SELECT id, NULL, 'APERTURA', deuda FROM paciente WHERE deuda <> 0;
@@ -0,0 +1,197 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.CupoDisponible;
+import com.duoc.hospital.model.Medico;
+import com.duoc.hospital.repository.AtencionRepository;
+import com.duoc.hospital.repository.MedicoRepository;
+import com.duoc.hospital.service.AgendaMedicos;
+import com.duoc.hospital.service.ResumenDiarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AgendaMedicosTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 6, 2);
+
+    @Mock
+    private AtencionRepository atencionRepository;
+
+    @Mock
+    private MedicoRepository medicoRepository;
+
+    @InjectMocks
+    private AgendaMedicos agendaMedicos;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(agendaMedicos, "duracion", 30);
+        ReflectionTestUtils.setField(agendaMedicos, "horaInicio", "08:00");
+        ReflectionTestUtils.setField(agendaMedicos, "horaFin", "10:00");
+        ReflectionTestUtils.setField(agendaMedicos, "diasBusqueda", 3);
+        ReflectionTestUtils.invokeMethod(agendaMedicos, "configurar");
+        when(atencionRepository.findHorasDelDia(anyInt(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void testReservar_RechazaCruces() {
+        // Prueba: con atenciones de 30 minutos, una a las 10:00 bloquea de 09:31 a 10:29
+        when(atencionRepository.findHorasDelDia(eq(1), any(), any())).thenReturn(List.of(LocalTime.of(10, 0)));
+
+        assertThrows(IllegalStateException.class, () -> agendaMedicos.reservar(reserva(1, 10, 15)));
+        assertThrows(IllegalStateException.class, () -> agendaMedicos.reservar(reserva(1, 9, 45)));
+        agendaMedicos.reservar(reserva(1, 10, 30));
+        agendaMedicos.reservar(reserva(1, 9, 30));
+        // 09:30 ya quedó tomada por la reserva anterior
+        assertThrows(IllegalStateException.class, () -> agendaMedicos.reservar(reserva(1, 9, 30)));
+        // Otro médico no se ve afectado
+        agendaMedicos.reservar(reserva(2, 10, 0));
+    }
+
+    @Test
+    void testLiberar_DevuelveElHorario() {
+        // Prueba: al liberar un horario se puede volver a reservar
+        agendaMedicos.reservar(reserva(1, 9, 0));
+        agendaMedicos.liberar(reserva(1, 9, 0));
+        agendaMedicos.reservar(reserva(1, 9, 15));
+    }
+
+    @Test
+    void testAgenda_SeCargaUnaVezPorDia() {
+        // Prueba: la agenda de un médico en un día se lee de la base solo la primera vez
+        agendaMedicos.reservar(reserva(1, 8, 0));
+        agendaMedicos.reservar(reserva(1, 9, 0));
+        agendaMedicos.reservar(new AgendaMedicos.Reserva(1, DIA.plusDays(1), 8 * 60));
+        verify(atencionRepository, times(2)).findHorasDelDia(eq(1), any(), any());
+    }
+
+    @Test
+    void testBarrer_ConservaDiasConReservasSinConfirmar() {
+        // Prueba: el barrido no retira un día con una reserva cuya transacción no ha terminado (la base aún
+        // no la ve); una vez confirmada, el día se puede retirar y se vuelve a leer de la base
+        agendaMedicos.reservar(new AgendaMedicos.Reserva(2, DIA, 8 * 60));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            agendaMedicos.reservar(reserva(1, 9, 0));
+            ReflectionTestUtils.invokeMethod(agendaMedicos, "barrer", 0);
+            assertThrows(IllegalStateException.class, () -> agendaMedicos.reservar(reserva(1, 9, 0)));
+            verify(atencionRepository, times(1)).findHorasDelDia(eq(1), any(), any());
+
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // El médico 2 no tenía nada pendiente y ya se había retirado
+        agendaMedicos.reservar(new AgendaMedicos.Reserva(2, DIA, 8 * 60));
+        verify(atencionRepository, times(2)).findHorasDelDia(eq(2), any(), any());
+
+        ReflectionTestUtils.invokeMethod(agendaMedicos, "barrer", 0);
+        agendaMedicos.reservar(reserva(1, 9, 0));
+        verify(atencionRepository, times(2)).findHorasDelDia(eq(1), any(), any());
+    }
+
+    @Test
+    void testProximoCupo_EligeElMasTempranoEntreMedicos() {
+        // Prueba: se elige el primer hueco de cualquier médico de la especialidad
+        when(medicoRepository.findByEspecialidadNombre("CARDIOLOGIA")).thenReturn(List.of(medico(1, "Ana"), medico(2, "Luis")));
+        agendaMedicos.reservar(reserva(1, 8, 0));
+        agendaMedicos.reservar(reserva(1, 8, 30));
+        agendaMedicos.reservar(reserva(2, 8, 0));
+
+        Optional<CupoDisponible> cupo = agendaMedicos.proximoCupo("CARDIOLOGIA", DIA.atTime(7, 0));
+
+        assertTrue(cupo.isPresent());
+        assertEquals(2, cupo.get().getIdMedico());
+        assertEquals(DIA, cupo.get().getFecha());
+        assertEquals(LocalTime.of(8, 30), cupo.get().getHoraInicio());
+    }
+
+    @Test
+    void testProximoCupo_PasaAlDiaSiguienteSiNoQuedaHorario() {
+        // Prueba: si a esa hora ya no cabe una atención antes del cierre, se busca al día siguiente
+        when(medicoRepository.findByEspecialidadNombre("CARDIOLOGIA")).thenReturn(List.of(medico(1, "Ana")));
+
+        Optional<CupoDisponible> cupo = agendaMedicos.proximoCupo("CARDIOLOGIA", LocalDateTime.of(DIA, LocalTime.of(9, 45)));
+
+        assertTrue(cupo.isPresent());
+        assertEquals(DIA.plusDays(1), cupo.get().getFecha());
+        assertEquals(LocalTime.of(8, 0), cupo.get().getHoraInicio());
+    }
+
+    @Test
+    void testProximoCupo_CargaLaVentanaConUnaConsulta() {
+        // Prueba: sin agendas cargadas, la búsqueda lee todos los días de la ventana de todos los médicos
+        // con una sola consulta, y la siguiente búsqueda ya no va a la base
+        when(medicoRepository.findByEspecialidadNombre("CARDIOLOGIA")).thenReturn(List.of(medico(1, "Ana"), medico(2, "Luis")));
+        when(atencionRepository.findHorasEntre(any(), any(), any())).thenReturn(List.of(
+                hora(1, DIA, 8, 0), hora(2, DIA, 8, 0), hora(2, DIA, 8, 30), hora(1, DIA, 9, 0)));
+
+        Optional<CupoDisponible> cupo = agendaMedicos.proximoCupo("CARDIOLOGIA", DIA.atTime(7, 0));
+        agendaMedicos.proximoCupo("CARDIOLOGIA", DIA.atTime(7, 0));
+
+        assertTrue(cupo.isPresent());
+        assertEquals(1, cupo.get().getIdMedico());
+        assertEquals(LocalTime.of(8, 30), cupo.get().getHoraInicio());
+        verify(atencionRepository, times(1)).findHorasEntre(any(), any(), any());
+        verify(atencionRepository, never()).findHorasDelDia(anyInt(), any(), any());
+    }
+
+    @Test
+    void testProximoCupo_SinMedicos() {
+        // Prueba: una especialidad sin médicos no tiene cupos
+        when(medicoRepository.findByEspecialidadNombre("PEDIATRIA")).thenReturn(List.of());
+        assertTrue(agendaMedicos.proximoCupo("PEDIATRIA", DIA.atTime(7, 0)).isEmpty());
+    }
+
+    private static AgendaMedicos.Reserva reserva(int idMedico, int hora, int minuto) {
+        return new AgendaMedicos.Reserva(idMedico, DIA, hora * 60 + minuto);
+    }
+
+    private static AtencionRepository.HoraMedico hora(int idMedico, LocalDate dia, int hora, int minuto) {
+        java.util.Date fecha = java.util.Date.from(dia.atTime(hora, minuto).atZone(ResumenDiarioService.ZONA_HORARIA).toInstant());
+        return new AtencionRepository.HoraMedico() {
+            @Override
+            public int getIdMedico() {
+                return idMedico;
+            }
+
+            @Override
+            public java.util.Date getFechaAtencion() {
+                return fecha;
+            }
+
+            @Override
+            public LocalTime getHoraInicio() {
+                return LocalTime.of(hora, minuto);
+            }
+        };
+    }
+
+    private static Medico medico(int id, String nombre) {
+        Medico medico = new Medico();
+        medico.setId(id);
+        medico.setNombre(nombre);
+        medico.setApellido("Rojas");
+        return medico;
+    }
+}
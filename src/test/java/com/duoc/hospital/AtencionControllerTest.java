@@ -2,7 +2,13 @@ package com.duoc.hospital;
 
 // Importamos las clases necesarias para las pruebas
 import com.duoc.hospital.controller.AtencionController;
+import com.duoc.hospital.dto.AtencionResumen;
+import com.duoc.hospital.dto.ConteoEstados;
+import com.duoc.hospital.dto.PaginaCursor;
+import com.duoc.hospital.dto.ResultadoLote;
+import com.duoc.hospital.dto.TotalGanancias;
 import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.service.AtencionLoteService;
 import com.duoc.hospital.service.AtencionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,8 +16,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +33,10 @@ class AtencionControllerTest {
     @Mock
     private AtencionService atencionService;
 
+    // Simulamos también el servicio de carga masiva
+    @Mock
+    private AtencionLoteService atencionLoteService;
+
     // Aquí probamos el controlador de atenciones, usando el servicio simulado
     @InjectMocks
     private AtencionController atencionController;
@@ -37,8 +51,8 @@ class AtencionControllerTest {
     void testFindByFecha_ValidDate_ReturnsOk() {
         // Prueba: Si busco atenciones con una fecha válida y hay resultados,
         // el sistema debe responder con 200 (OK)
-        when(atencionService.findByFecha(any())).thenReturn(List.of(new Atencion()));
-        ResponseEntity<List<Atencion>> response = atencionController.findByFecha("2025-06-01");
+        when(atencionService.findPaginaByFecha(any(), any(), anyInt())).thenReturn(pagina(new Atencion()));
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findByFecha("2025-06-01", null, 50);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -46,8 +60,8 @@ class AtencionControllerTest {
     void testFindByFecha_NoContent() {
         // Prueba: Si busco atenciones con una fecha válida pero no hay resultados,
         // el sistema debe responder con 204 (Sin contenido)
-        when(atencionService.findByFecha(any())).thenReturn(Collections.emptyList());
-        ResponseEntity<List<Atencion>> response = atencionController.findByFecha("2025-06-01");
+        when(atencionService.findPaginaByFecha(any(), any(), anyInt())).thenReturn(pagina());
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findByFecha("2025-06-01", null, 50);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
@@ -55,7 +69,7 @@ class AtencionControllerTest {
     void testFindByFecha_InvalidDate() {
         // Prueba: Si ingreso una fecha con formato incorrecto,
         // el sistema debe responder con 400 (Solicitud incorrecta)
-        ResponseEntity<List<Atencion>> response = atencionController.findByFecha("invalid-date");
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findByFecha("invalid-date", null, 50);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
@@ -63,8 +77,8 @@ class AtencionControllerTest {
     void testFindBetween_ValidDates_ReturnsOk() {
         // Prueba: Si busco atenciones entre dos fechas válidas y hay resultados,
         // el sistema debe responder con 200 (OK)
-        when(atencionService.findByFechaBetween(any(), any())).thenReturn(List.of(new Atencion()));
-        ResponseEntity<List<Atencion>> response = atencionController.findBetween("2025-06-01", "2025-06-30");
+        when(atencionService.findPaginaByFechaBetween(any(), any(), any(), anyInt())).thenReturn(pagina(new Atencion()));
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findBetween("2025-06-01", "2025-06-30", null, 50);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -72,8 +86,8 @@ class AtencionControllerTest {
     void testFindBetween_NoContent() {
         // Prueba: Si busco atenciones entre dos fechas válidas pero no hay registros,
         // el sistema debe responder con 204 (Sin contenido)
-        when(atencionService.findByFechaBetween(any(), any())).thenReturn(Collections.emptyList());
-        ResponseEntity<List<Atencion>> response = atencionController.findBetween("2025-06-01", "2025-06-30");
+        when(atencionService.findPaginaByFechaBetween(any(), any(), any(), anyInt())).thenReturn(pagina());
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findBetween("2025-06-01", "2025-06-30", null, 50);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
@@ -81,7 +95,7 @@ class AtencionControllerTest {
     void testFindBetween_InvalidStartDate() {
         // Prueba: Si la fecha de inicio tiene formato incorrecto,
         // el sistema debe responder con 400 (Solicitud incorrecta)
-        ResponseEntity<List<Atencion>> response = atencionController.findBetween("invalid-date", "2025-06-30");
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findBetween("invalid-date", "2025-06-30", null, 50);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
@@ -89,19 +103,144 @@ class AtencionControllerTest {
     void testFindBetween_InvalidEndDate() {
         // Prueba: Si la fecha de fin tiene formato incorrecto,
         // el sistema debe responder con 400 (Solicitud incorrecta)
-        ResponseEntity<List<Atencion>> response = atencionController.findBetween("2025-06-01", "invalid-date");
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findBetween("2025-06-01", "invalid-date", null, 50);
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
     @Test
     void testFindByEstado_ReturnsOk() {
-        when(atencionService.findByEstado("PAGADA")).thenReturn(List.of(new Atencion()));
-        ResponseEntity<List<Atencion>> response = atencionController.findByEstado("PAGADA");
+        when(atencionService.findPaginaByEstado("PAGADA", null, 50)).thenReturn(pagina(new Atencion()));
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findByEstado("PAGADA", null, 50);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
     @Test
     void testFindByEstado_NoContent() {
-        when(atencionService.findByEstado("PAGADA")).thenReturn(Collections.emptyList());
-        ResponseEntity<List<Atencion>> response = atencionController.findByEstado("PAGADA");
+        when(atencionService.findPaginaByEstado("PAGADA", null, 50)).thenReturn(pagina());
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.findByEstado("PAGADA", null, 50);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    @Test
+    void testGetAll_ReturnsOkConCursorSiguiente() {
+        // Prueba: Si hay más atenciones que el límite, la respuesta trae el cursor de la página siguiente
+        when(atencionService.findPagina(null, 1)).thenReturn(new PaginaCursor<>(List.of(new Atencion()), "abc", 1));
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.getAll(null, 1);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("abc", response.getBody().getSiguiente());
+    }
+
+    @Test
+    void testGetAll_NoContent() {
+        when(atencionService.findPagina(null, 50)).thenReturn(pagina());
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.getAll(null, 50);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    @Test
+    void testGetAll_CursorInvalido() {
+        // Prueba: Si el cursor no se puede decodificar, el sistema debe responder con 400
+        when(atencionService.findPagina("xx", 50)).thenThrow(new IllegalArgumentException("Cursor inválido"));
+        ResponseEntity<PaginaCursor<Atencion>> response = atencionController.getAll("xx", 50);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testFindByMedico_ReturnsOk() {
+        // Prueba: Las atenciones de un médico se devuelven como resúmenes
+        when(atencionService.findResumenByMedicoId(1, null, 50))
+                .thenReturn(new PaginaCursor<>(List.of(new AtencionResumen()), null, 50));
+        ResponseEntity<PaginaCursor<AtencionResumen>> response = atencionController.findByMedico(1, null, 50);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getItems().size());
+    }
+
+    @Test
+    void testFindByPaciente_NoContent() {
+        // Prueba: Si el paciente no tiene atenciones, el sistema responde 204
+        when(atencionService.findResumenByPacienteId(7, null, 50))
+                .thenReturn(new PaginaCursor<>(Collections.emptyList(), null, 50));
+        ResponseEntity<PaginaCursor<AtencionResumen>> response = atencionController.findByPaciente(7, null, 50);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
+
+    @Test
+    void testExportar_RangoValido() throws Exception {
+        // Prueba: La exportación responde 200 como NDJSON y delega la escritura al servicio
+        ResponseEntity<StreamingResponseBody> response = atencionController.exportar("2025-06-01", "2025-06-30");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        response.getBody().writeTo(salida);
+        verify(atencionService, times(1)).exportar(eq(salida), any(Date.class), any(Date.class));
+    }
+
+    @Test
+    void testExportar_RangoIncompleto() {
+        // Prueba: Si solo se indica una de las dos fechas, el sistema responde 400
+        ResponseEntity<StreamingResponseBody> response = atencionController.exportar("2025-06-01", null);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testExportar_FechaInvalida() {
+        ResponseEntity<StreamingResponseBody> response = atencionController.exportar("2025-06-01", "invalid-date");
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testGetContadoresPorEstado_ReturnsOk() {
+        // Prueba: Los contadores por estado se responden con 200 sin pasar por la lista de atenciones
+        when(atencionService.contarPorEstado()).thenReturn(new ConteoEstados(Map.of("Alta", 2L, "Pendiente", 1L), 3, null));
+        ResponseEntity<ConteoEstados> response = atencionController.getContadoresPorEstado();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getTotal());
+        verify(atencionService, never()).findPaginaByEstado(any(), any(), anyInt());
+    }
+
+    @Test
+    void testCreate_HorarioOcupado() {
+        // Prueba: Si el médico ya tiene una atención que se cruza, se responde 409 (Conflicto)
+        when(atencionService.save(any())).thenThrow(new IllegalStateException("El médico ya tiene una atención en ese horario."));
+        ResponseEntity<Atencion> response = atencionController.create(new Atencion());
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void testCreateBatch_ReturnsOk() {
+        // Prueba: Un lote válido responde 200 con el detalle de cada atención
+        ResultadoLote resultado = new ResultadoLote(1, 1, 0, 5, 200.0,
+                List.of(new ResultadoLote.Item(0, true, null)));
+        when(atencionLoteService.guardarLote(anyList())).thenReturn(resultado);
+        ResponseEntity<ResultadoLote> response = atencionController.createBatch(List.of(new Atencion()));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getInsertadas());
+    }
+
+    @Test
+    void testCreateBatch_LoteVacio() {
+        // Prueba: Un lote vacío o demasiado grande responde 400
+        when(atencionLoteService.guardarLote(anyList())).thenThrow(new IllegalArgumentException("El lote no contiene atenciones."));
+        ResponseEntity<ResultadoLote> response = atencionController.createBatch(Collections.emptyList());
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testGetGanancias_ReturnsOk() {
+        // Prueba: Las ganancias de un rango se responden con 200 y el total del resumen
+        when(atencionService.calcularGanancias(any(), any(), eq("Alta"), isNull()))
+                .thenReturn(new TotalGanancias(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30), "Alta", null, 3, 150_000));
+        ResponseEntity<TotalGanancias> response = atencionController.getGanancias("2025-06-01", "2025-06-30", "Alta", null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(150_000, response.getBody().getTotal());
+    }
+
+    @Test
+    void testGetGanancias_FechaInvalida() {
+        // Prueba: Una fecha mal escrita responde 400
+        ResponseEntity<TotalGanancias> response = atencionController.getGanancias("2025-06-01", "invalid-date", "Alta", null);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private static PaginaCursor<Atencion> pagina(Atencion... atenciones) {
+        return new PaginaCursor<>(List.of(atenciones), null, 50);
+    }
 }
@@ -0,0 +1,232 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.AtencionResumen;
+import com.duoc.hospital.model.*;
+import com.duoc.hospital.repository.AtencionRepository;
+import com.duoc.hospital.service.CatalogoEstados;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Verifica que cada consulta de listado de atenciones se resuelve con una sola sentencia SQL,
+// sin importar cuántos médicos, pacientes, especialidades o previsiones distintas aparezcan.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(CatalogoEstados.class)
+class AtencionRepositoryTest {
+
+    private static final int ATENCIONES = 40;
+    private static final long BASE = 1_750_000_000_000L;
+
+    @Autowired
+    private AtencionRepository atencionRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private CatalogoEstados catalogoEstados;
+
+    private Statistics stats;
+    private int idMedico;
+    private int idPaciente;
+
+    @BeforeEach
+    void setUp() {
+        // Datos de prueba: cada atención con un médico y un paciente distintos,
+        // que es el peor caso para la carga EAGER fila por fila
+        for (int i = 0; i < ATENCIONES; i++) {
+            Especialidad especialidad = new Especialidad();
+            especialidad.setNombre("ESP" + i);
+            especialidad.setDescripcion("Especialidad " + i);
+            em.persist(especialidad);
+
+            Prevision prevision = new Prevision();
+            prevision.setNombre("PREV" + i);
+            prevision.setCobertura("50%");
+            em.persist(prevision);
+
+            Medico medico = new Medico();
+            medico.setRun("1000000" + i + "-" + i % 10);
+            medico.setNombre("Medico" + i);
+            medico.setApellido("Apellido" + i);
+            medico.setFecha_contrato(new Date(BASE));
+            medico.setSueldoBase(1_000_000);
+            medico.setCorreo("medico" + i + "@hospital.cl");
+            medico.setTelefono("+5690000" + i);
+            medico.setEspecialidadMedico(especialidad);
+            em.persist(medico);
+
+            Paciente paciente = new Paciente();
+            paciente.setRun("2000000" + i + "-" + i % 10);
+            paciente.setNombre("Paciente" + i);
+            paciente.setApellido("Apellido" + i);
+            paciente.setFechaNacimiento(java.sql.Date.valueOf("1990-01-01"));
+            paciente.setCorreo("paciente" + i + "@correo.cl");
+            paciente.setTelefono("+5691111" + i);
+            paciente.setPrevision(prevision);
+            em.persist(paciente);
+
+            Atencion atencion = new Atencion();
+            atencion.setFechaAtencion(new Date(BASE + i * 60_000L));
+            atencion.setHoraInicio(LocalTime.of(9, 0));
+            atencion.setCosto(10_000 + i);
+            atencion.setEstado(i % 2 == 0 ? "Alta" : "Pendiente");
+            atencion.setMedico(medico);
+            atencion.setPaciente(paciente);
+            em.persist(atencion);
+
+            if (i == 0) {
+                idMedico = medico.getId();
+                idPaciente = paciente.getId();
+            }
+        }
+        em.flush();
+        em.clear();
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void testFindAll_UnaSentencia() {
+        assertUnaSentencia(() -> atencionRepository.findAll(), ATENCIONES);
+    }
+
+    @Test
+    void testFindPagina_UnaSentencia() {
+        List<Atencion> primera = assertUnaSentencia(() -> atencionRepository.findPagina(Limit.of(10)), 10);
+        Atencion ultima = primera.get(9);
+        em.clear();
+        stats.clear();
+        List<Atencion> segunda = assertUnaSentencia(
+                () -> atencionRepository.findPaginaDespues(ultima.getFechaAtencion(), ultima.getId(), Limit.of(10)), 10);
+        // La segunda página continúa justo después de la última fila de la primera
+        assertTrue(segunda.get(0).getFechaAtencion().after(ultima.getFechaAtencion()));
+    }
+
+    @Test
+    void testFindPaginaEntreFechas_UnaSentencia() {
+        Date inicio = new Date(BASE);
+        Date fin = new Date(BASE + ATENCIONES * 60_000L);
+        assertUnaSentencia(() -> atencionRepository.findPaginaEntreFechas(inicio, fin, Limit.of(100)), ATENCIONES);
+    }
+
+    @Test
+    void testFindPaginaPorEstado_UnaSentencia() {
+        assertUnaSentencia(() -> atencionRepository.findPaginaPorEstado("Alta", Limit.of(100)), ATENCIONES / 2);
+    }
+
+    @Test
+    void testFindBetweenFechas_UnaSentencia() {
+        Date inicio = new Date(BASE);
+        Date fin = new Date(BASE + ATENCIONES * 60_000L);
+        assertUnaSentencia(() -> atencionRepository.findBetweenFechas(inicio, fin), ATENCIONES);
+    }
+
+    @Test
+    void testFindByFechaEnDia_UnaSentencia() {
+        Date inicio = new Date(BASE);
+        Date fin = new Date(BASE + ATENCIONES * 60_000L);
+        assertUnaSentencia(() -> atencionRepository.findByFechaEnDia(inicio, fin), ATENCIONES);
+    }
+
+    @Test
+    void testFindByEstado_UnaSentencia() {
+        assertUnaSentencia(() -> atencionRepository.findByEstado("Pendiente"), ATENCIONES / 2);
+    }
+
+    @Test
+    void testFindByCosto_UnaSentencia() {
+        assertUnaSentencia(() -> atencionRepository.findByCostoLessThan(20_000), ATENCIONES);
+    }
+
+    @Test
+    void testFindByMedicoYPaciente_UnaSentencia() {
+        assertUnaSentencia(() -> atencionRepository.findByMedicoId(idMedico), 1);
+        em.clear();
+        stats.clear();
+        assertUnaSentencia(() -> atencionRepository.findByPacienteId(idPaciente), 1);
+    }
+
+    @Test
+    void testResumenPorMedicoYPaciente_UnaSentencia() {
+        List<AtencionResumen> porMedico = atencionRepository.findResumenPorMedico(idMedico, Limit.of(10));
+        List<AtencionResumen> porPaciente = atencionRepository.findResumenPorPaciente(idPaciente, Limit.of(10));
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals(1, porMedico.size());
+        assertEquals("Medico0 Apellido0", porMedico.get(0).getMedico());
+        assertEquals("ESP0", porMedico.get(0).getEspecialidad());
+        assertEquals("PREV0", porPaciente.get(0).getPrevision());
+    }
+
+    @Test
+    void testStreamEntreFechas_UnaSentencia() {
+        // La exportación recorre el cursor con las relaciones ya cargadas
+        Date inicio = new Date(BASE);
+        Date fin = new Date(BASE + ATENCIONES * 60_000L);
+        assertUnaSentencia(() -> {
+            try (Stream<Atencion> filas = atencionRepository.streamEntreFechas(inicio, fin)) {
+                return filas.toList();
+            }
+        }, ATENCIONES);
+    }
+
+    @Test
+    void testSumarCostoPorPrevision_UnaFila() {
+        // El costo de un paciente se resuelve con un agregado, sin cargar sus atenciones
+        List<AtencionRepository.CostoPorPrevision> filas = atencionRepository.sumarCostoPorPrevision(idPaciente);
+        assertEquals(1, filas.size());
+        assertEquals(10_000, filas.get(0).getTotal());
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+    }
+
+    @Test
+    void testEstado_SeGuardaComoId() {
+        // La columna guarda el id SMALLINT del catálogo y la entidad sigue exponiendo el nombre
+        Object idEstado = em.getEntityManager()
+                .createNativeQuery("SELECT DISTINCT id_estado FROM atencion WHERE id_medico = " + idMedico)
+                .getSingleResult();
+        assertEquals(catalogoEstados.idDe("Alta"), ((Number) idEstado).shortValue());
+        assertEquals("Alta", atencionRepository.findByMedicoId(idMedico).get(0).getEstado());
+    }
+
+    // Ejecuta la consulta, verifica que emitió una sola sentencia y que las relaciones
+    // quedaron cargadas (serializarlas no dispara más consultas)
+    private List<Atencion> assertUnaSentencia(Supplier<List<Atencion>> consulta, int esperadas) {
+        List<Atencion> atenciones = consulta.get();
+        assertEquals(esperadas, atenciones.size());
+        for (Atencion a : atenciones) {
+            assertTrue(Hibernate.isInitialized(a.getMedico()));
+            assertTrue(Hibernate.isInitialized(a.getMedico().getEspecialidadMedico()));
+            assertTrue(Hibernate.isInitialized(a.getPaciente()));
+            assertTrue(Hibernate.isInitialized(a.getPaciente().getPrevision()));
+            a.getMedico().getEspecialidadMedico().getNombre();
+            a.getPaciente().getPrevision().getNombre();
+        }
+        assertEquals(1, stats.getPrepareStatementCount());
+        return atenciones;
+    }
+}
@@ -0,0 +1,69 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.EstadisticaCache;
+import com.duoc.hospital.service.CacheAcotado;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheAcotadoTest {
+
+    @Test
+    void testObtener_AciertosDesalojosEInvalidacion() {
+        // Prueba: un segmento por clave con máximo 2; la menos usada sale al llenarse y los vacíos no se guardan
+        CacheAcotado<Integer, String> cache = new CacheAcotado<>("prueba", 2, 0);
+        AtomicInteger cargas = new AtomicInteger();
+        assertEquals("1", cache.obtener(1, k -> { cargas.incrementAndGet(); return Optional.of("1"); }).orElseThrow());
+        assertEquals("1", cache.obtener(1, k -> Optional.of("otro")).orElseThrow());
+        assertTrue(cache.obtener(9, k -> Optional.empty()).isEmpty());
+        assertTrue(cache.obtener(9, k -> Optional.empty()).isEmpty());
+        assertEquals(1, cache.entradas());
+
+        cache.invalidar(1);
+        assertEquals("nuevo", cache.obtener(1, k -> Optional.of("nuevo")).orElseThrow());
+
+        EstadisticaCache estadistica = cache.estadistica();
+        assertEquals(1, cargas.get());
+        assertEquals(1, estadistica.getAciertos());
+        assertEquals(4, estadistica.getFallos());
+        assertEquals(1, estadistica.getInvalidaciones());
+        assertEquals(0, estadistica.getDesalojos());
+
+        CacheAcotado<Integer, Integer> chica = new CacheAcotado<>("chica", 16, 0);
+        for (int i = 0; i < 64; i++) {
+            chica.obtener(i, Optional::of);
+        }
+        assertEquals(16, chica.entradas());
+        assertEquals(48, chica.estadistica().getDesalojos());
+    }
+
+    @Test
+    void testObtener_CargaViejaNoSeGuardaYVencimiento() throws InterruptedException {
+        // Prueba: si la clave se invalida mientras se cargaba, el valor leído no queda en la caché
+        CacheAcotado<Integer, String> cache = new CacheAcotado<>("prueba", 10, 0);
+        assertEquals("viejo", cache.obtener(1, k -> {
+            cache.invalidar(1);
+            return Optional.of("viejo");
+        }).orElseThrow());
+        assertEquals(0, cache.entradas());
+
+        // Prueba: invalidar una clave de otro segmento no descarta la carga en curso
+        CacheAcotado<Integer, String> segmentada = new CacheAcotado<>("segmentada", 16, 0);
+        segmentada.obtener(1, k -> {
+            segmentada.invalidar(2);
+            return Optional.of("uno");
+        });
+        assertEquals(1, segmentada.entradas());
+
+        // Prueba: una entrada vencida se vuelve a cargar y se cuenta como vencida
+        CacheAcotado<Integer, String> corta = new CacheAcotado<>("corta", 10, 1);
+        corta.obtener(1, k -> Optional.of("a"));
+        Thread.sleep(5);
+        assertEquals("b", corta.obtener(1, k -> Optional.of("b")).orElseThrow());
+        assertEquals(1, corta.estadistica().getVencidas());
+        assertThrows(IllegalArgumentException.class, () -> new CacheAcotado<>("mala", 0, 0));
+    }
+}
@@ -0,0 +1,256 @@
+package com.duoc.hospital;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Prueba de carga de la API completa sobre H2 en memoria, con modelo abierto: las peticiones llegan a una tasa
+// fija (intervalos exponenciales, como un proceso de Poisson) sin esperar a que terminen las anteriores, y la
+// latencia se mide desde el instante en que la petición debía salir. Así una pausa del servidor se ve en la
+// latencia de todas las que quedaron atrás y no se esconde bajando la tasa. No corre con el resto de las pruebas:
+//   mvn test -Dtest=CargaApiTest -Dbenchmark=true [-Dcarga.tasa=100] [-Dcarga.segundos=60]
+// Mezcla por defecto: crear:2,paciente:4,sueldo:2,reportes:2 (-Dcarga.mezcla=...). Falla si en alguna llamada
+// el p99 supera -Dcarga.p99-ms o los errores superan -Dcarga.max-errores, o si las respuestas completadas por
+// segundo quedan bajo -Dcarga.min-fraccion de la tasa pedida. Las distribuciones quedan en target/carga/*.hgrm.
+// -Dcarga.calentamiento (10 s por defecto) son los segundos iniciales que no se miden; no conviene bajarlo de 10:
+// con 2 s el JIT aún no termina y el p99 supera el límite en todas las llamadas.
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CargaApiTest {
+
+    private static final double TASA = Double.parseDouble(System.getProperty("carga.tasa", "50"));
+    private static final int SEGUNDOS = Integer.getInteger("carga.segundos", 30);
+    private static final int CALENTAMIENTO_SEGUNDOS = Integer.getInteger("carga.calentamiento", 10);
+    private static final String MEZCLA = System.getProperty("carga.mezcla", "crear:2,paciente:4,sueldo:2,reportes:2");
+    private static final long P99_MAXIMO_MS = Long.getLong("carga.p99-ms", 500);
+    private static final double MAXIMO_ERRORES = Double.parseDouble(System.getProperty("carga.max-errores", "0.01"));
+    private static final double FRACCION_MINIMA = Double.parseDouble(System.getProperty("carga.min-fraccion", "0.95"));
+
+    private static final int MEDICOS = 20;
+    private static final int PACIENTES = 500;
+    private static final int ATENCIONES_PREVIAS = 5_000;
+    private static final LocalDate PRIMER_DIA_NUEVAS = LocalDate.of(2026, 1, 5);
+    private static final long MAXIMO_US = TimeUnit.SECONDS.toMicros(60);
+    private static final Duration TIEMPO_LIMITE = Duration.ofSeconds(30);
+
+    private enum Llamada {
+        CREAR("crear", "POST /atenciones"),
+        PACIENTE("paciente", "GET /atenciones/paciente/{id}"),
+        SUELDO("sueldo", "GET /medicos/{id}/sueldo-total"),
+        REPORTES("reportes", "GET /pacientes/reportes/*");
+
+        final String clave;
+        final String descripcion;
+
+        Llamada(String clave, String descripcion) {
+            this.clave = clave;
+            this.descripcion = descripcion;
+        }
+    }
+
+    private static final class Medicion {
+        final ConcurrentHistogram latencias = new ConcurrentHistogram(MAXIMO_US, 3);
+        final LongAdder enviadas = new LongAdder();
+        final LongAdder errores = new LongAdder();
+        // Respuestas correctas que llegaron dentro de la ventana de medición
+        final LongAdder completadas = new LongAdder();
+    }
+
+    private final AtomicInteger siguienteCupo = new AtomicInteger();
+
+    @Test
+    void cargaMixta() throws Exception {
+        Map<Llamada, Integer> pesos = leerMezcla(MEZCLA);
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(HospitalApplication.class)
+                .run(DatosDeCarga.argumentosH2("carga", "--server.port=0"))) {
+            DatosDeCarga.sembrar(contexto, MEDICOS, PACIENTES, ATENCIONES_PREVIAS);
+            String url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/v1";
+            Map<Llamada, Medicion> mediciones = cargar(url, pesos);
+            informar(mediciones);
+            verificar(mediciones, pesos);
+        }
+    }
+
+    private Map<Llamada, Medicion> cargar(String url, Map<Llamada, Integer> pesos) {
+        Map<Llamada, Medicion> mediciones = new EnumMap<>(Llamada.class);
+        for (Llamada llamada : Llamada.values()) {
+            mediciones.put(llamada, new Medicion());
+        }
+        Llamada[] ruleta = ruleta(pesos);
+        Random azar = new Random(42);
+
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + TimeUnit.SECONDS.toNanos(CALENTAMIENTO_SEGUNDOS);
+        long fin = inicioMedicion + TimeUnit.SECONDS.toNanos(SEGUNDOS);
+        long programada = inicio;
+        int n = 0;
+        // Se cierran en orden inverso: 'hilos' espera a las peticiones en curso (cada una tiene TIEMPO_LIMITE)
+        // y después se cierran el cliente y su ejecutor
+        try (ExecutorService ejecutorHttp = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(ejecutorHttp).build();
+             ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (programada < fin) {
+                esperarHasta(programada);
+                Llamada llamada = ruleta[azar.nextInt(ruleta.length)];
+                HttpRequest peticion = armar(url, llamada, n++);
+                long salida = programada;
+                boolean medir = programada >= inicioMedicion;
+                hilos.submit(() -> enviar(http, peticion, salida, medir, inicioMedicion, fin, mediciones.get(llamada)));
+                programada += (long) (-Math.log(1 - azar.nextDouble()) / TASA * 1_000_000_000L);
+            }
+        }
+        return mediciones;
+    }
+
+    private static void enviar(HttpClient http, HttpRequest peticion, long salida, boolean medir,
+                               long inicioMedicion, long fin, Medicion medicion) {
+        int estado;
+        try {
+            estado = http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            estado = -1;
+        }
+        long llegada = System.nanoTime();
+        if (medir) {
+            medicion.enviadas.increment();
+            medicion.latencias.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(llegada - salida), MAXIMO_US));
+            if (estado < 200 || estado > 299) {
+                medicion.errores.increment();
+            }
+        }
+        if (estado >= 200 && estado <= 299 && llegada >= inicioMedicion && llegada < fin) {
+            medicion.completadas.increment();
+        }
+    }
+
+    private HttpRequest armar(String url, Llamada llamada, int n) {
+        HttpRequest.Builder peticion = switch (llamada) {
+            case CREAR -> HttpRequest.newBuilder(URI.create(url + "/atenciones"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(nuevaAtencion(siguienteCupo.getAndIncrement())));
+            case PACIENTE -> HttpRequest.newBuilder(URI.create(url + "/atenciones/paciente/" + (1 + n % PACIENTES)));
+            case SUELDO -> HttpRequest.newBuilder(URI.create(url + "/medicos/" + (1 + n % MEDICOS) + "/sueldo-total"));
+            case REPORTES -> HttpRequest.newBuilder(URI.create(url + (n % 2 == 0
+                    ? "/pacientes/reportes/edades?ancho=10&porPrevision=true"
+                    : "/pacientes/reportes/mayores?edad=60")));
+        };
+        return peticion.timeout(TIEMPO_LIMITE).build();
+    }
+
+    // Cada atención nueva ocupa un tramo distinto: médico k % MEDICOS, y sus tramos se llenan día por día
+    private static String nuevaAtencion(int k) {
+        LocalDateTime inicio = DatosDeCarga.tramo(k, MEDICOS, PRIMER_DIA_NUEVAS);
+        return "{\"fechaAtencion\":\"" + inicio.toLocalDate() + "\",\"horaInicio\":\"" + inicio.toLocalTime() + ":00\",\"costo\":25000," +
+                "\"comentario\":\"Carga\",\"estado\":\"Pendiente\"," +
+                "\"medico\":{\"id\":" + (1 + k % MEDICOS) + "},\"paciente\":{\"id\":" + (1 + k % PACIENTES) + "}}";
+    }
+
+    private static void informar(Map<Llamada, Medicion> mediciones) throws Exception {
+        Path carpeta = Path.of("target", "carga");
+        Files.createDirectories(carpeta);
+        System.out.printf("Tasa pedida %.0f/s durante %d s (calentamiento %d s)%n", TASA, SEGUNDOS, CALENTAMIENTO_SEGUNDOS);
+        System.out.printf("%-32s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "Llamada", "enviadas", "errores", "resp/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms");
+        for (Map.Entry<Llamada, Medicion> e : mediciones.entrySet()) {
+            Medicion m = e.getValue();
+            ConcurrentHistogram h = m.latencias;
+            System.out.printf("%-32s %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", e.getKey().descripcion,
+                    m.enviadas.sum(), m.errores.sum(), m.completadas.sum() / (double) SEGUNDOS,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+            try (PrintStream salida = new PrintStream(Files.newOutputStream(carpeta.resolve(e.getKey().clave + ".hgrm")))) {
+                h.outputPercentileDistribution(salida, 1000.0);
+            }
+        }
+    }
+
+    private static void verificar(Map<Llamada, Medicion> mediciones, Map<Llamada, Integer> pesos) {
+        List<Executable> verificaciones = new ArrayList<>();
+        long completadas = 0;
+        for (Map.Entry<Llamada, Medicion> e : mediciones.entrySet()) {
+            if (pesos.getOrDefault(e.getKey(), 0) == 0) {
+                continue;
+            }
+            Medicion m = e.getValue();
+            String llamada = e.getKey().descripcion;
+            double p99 = ms(m.latencias.getValueAtPercentile(99));
+            double errores = m.enviadas.sum() == 0 ? 0 : m.errores.sum() / (double) m.enviadas.sum();
+            verificaciones.add(() -> assertTrue(p99 <= P99_MAXIMO_MS,
+                    llamada + ": p99 de " + p99 + " ms supera " + P99_MAXIMO_MS + " ms"));
+            verificaciones.add(() -> assertTrue(errores <= MAXIMO_ERRORES,
+                    llamada + ": " + m.errores.sum() + " errores de " + m.enviadas.sum()));
+            completadas += m.completadas.sum();
+        }
+        double porSegundo = completadas / (double) SEGUNDOS;
+        verificaciones.add(() -> assertTrue(porSegundo >= TASA * FRACCION_MINIMA,
+                "Se completaron " + porSegundo + " respuestas/s de " + TASA + " pedidas"));
+        assertAll(verificaciones);
+    }
+
+    // "crear:2,paciente:4" -> peso por llamada; las que no aparecen no se envían
+    private static Map<Llamada, Integer> leerMezcla(String mezcla) {
+        Map<Llamada, Integer> pesos = new EnumMap<>(Llamada.class);
+        for (String parte : mezcla.split(",")) {
+            String[] claveYPeso = parte.trim().split(":");
+            Llamada llamada = null;
+            for (Llamada l : Llamada.values()) {
+                if (l.clave.equals(claveYPeso[0])) {
+                    llamada = l;
+                }
+            }
+            if (llamada == null || claveYPeso.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida: " + parte);
+            }
+            pesos.put(llamada, Integer.parseInt(claveYPeso[1]));
+        }
+        return pesos;
+    }
+
+    private static Llamada[] ruleta(Map<Llamada, Integer> pesos) {
+        List<Llamada> ruleta = new ArrayList<>();
+        pesos.forEach((llamada, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                ruleta.add(llamada);
+            }
+        });
+        return ruleta.toArray(Llamada[]::new);
+    }
+
+    private static void esperarHasta(long instante) {
+        long falta;
+        while ((falta = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(falta);
+        }
+    }
+
+    private static double ms(long microsegundos) {
+        return microsegundos / 1000.0;
+    }
+}
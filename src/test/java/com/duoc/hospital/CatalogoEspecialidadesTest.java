@@ -0,0 +1,73 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+import com.duoc.hospital.model.Especialidad;
+import com.duoc.hospital.repository.EspecialidadRepository;
+import com.duoc.hospital.service.CatalogoEspecialidades;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogoEspecialidadesTest {
+
+    @Mock
+    private EspecialidadRepository especialidadRepository;
+
+    @InjectMocks
+    private CatalogoEspecialidades catalogoEspecialidades;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(especialidadRepository.findAll()).thenReturn(List.of(
+                new Especialidad(1, "MEDICINA GENERAL", "Atención primaria", null),
+                new Especialidad(4, "Cardiología", "Corazón", null)));
+    }
+
+    @Test
+    void testBuscar_SinConsultasDespuesDeCargar() {
+        // Prueba: después de la carga, las búsquedas por id y por nombre no vuelven a la base
+        catalogoEspecialidades.cargar();
+        assertEquals("Cardiología", catalogoEspecialidades.buscar(4).orElseThrow().getNombre());
+        assertEquals(1, catalogoEspecialidades.buscar(" medicina general ").orElseThrow().getId());
+        assertTrue(catalogoEspecialidades.buscar("Pediatría").isEmpty());
+        verify(especialidadRepository, times(1)).findAll();
+
+        EstadisticaCatalogo estadistica = catalogoEspecialidades.estadistica();
+        assertEquals(2, estadistica.getElementos());
+        assertEquals(2, estadistica.getAciertos());
+        assertEquals(1, estadistica.getFallos());
+        assertEquals(1, estadistica.getVersion());
+    }
+
+    @Test
+    void testBuscar_IdDesconocidoRecarga() {
+        // Prueba: un id que la copia no tiene (creado en otra instancia) fuerza una recarga,
+        // pero otro id desconocido dentro del mismo segundo se responde con la copia vigente
+        catalogoEspecialidades.cargar();
+        when(especialidadRepository.findAll()).thenReturn(List.of(
+                new Especialidad(1, "MEDICINA GENERAL", "Atención primaria", null),
+                new Especialidad(7, "Pediatría", "Niños", null)));
+        assertEquals("Pediatría", catalogoEspecialidades.buscar(7).orElseThrow().getNombre());
+        assertTrue(catalogoEspecialidades.buscar(4).isEmpty());
+        assertTrue(catalogoEspecialidades.buscar(99).isEmpty());
+        verify(especialidadRepository, times(2)).findAll();
+        assertEquals(2, catalogoEspecialidades.estadistica().getVersion());
+    }
+
+    @Test
+    void testRecargar_SinCambiosNoSubeVersion() {
+        // Prueba: una recarga que trae el mismo contenido deja la versión como estaba
+        catalogoEspecialidades.cargar();
+        catalogoEspecialidades.recargar();
+        verify(especialidadRepository, times(2)).findAll();
+        assertEquals(1, catalogoEspecialidades.estadistica().getVersion());
+    }
+}
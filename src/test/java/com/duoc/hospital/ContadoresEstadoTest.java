@@ -0,0 +1,122 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.ConteoEstados;
+import com.duoc.hospital.model.Estado;
+import com.duoc.hospital.repository.AtencionRepository;
+import com.duoc.hospital.service.CatalogoEstados;
+import com.duoc.hospital.service.ContadoresEstado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ContadoresEstadoTest {
+
+    @Mock
+    private AtencionRepository atencionRepository;
+
+    @Mock
+    private CatalogoEstados catalogoEstados;
+
+    @InjectMocks
+    private ContadoresEstado contadoresEstado;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(catalogoEstados.todos()).thenReturn(List.of(
+                new Estado((short) 1, "Alta", "Alta"),
+                new Estado((short) 2, "Pendiente", "Pendiente"),
+                new Estado((short) 3, "Hospitalizado", "Hospitalizado")));
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testSembrar_DesdeLaBase() {
+        // Prueba: al iniciar, los contadores toman los valores del GROUP BY y los estados sin atenciones quedan en 0
+        when(atencionRepository.contarPorEstado()).thenReturn(List.of(conteo("Alta", 7), conteo("Pendiente", 3)));
+        contadoresEstado.sembrar();
+
+        ConteoEstados conteo = contadoresEstado.conteo();
+        assertEquals(7L, conteo.getPorEstado().get("Alta"));
+        assertEquals(3L, conteo.getPorEstado().get("Pendiente"));
+        assertEquals(0L, conteo.getPorEstado().get("Hospitalizado"));
+        assertEquals(10, conteo.getTotal());
+        assertNotNull(conteo.getUltimaReconciliacion());
+    }
+
+    @Test
+    void testAjustar_SoloAlConfirmar() {
+        // Prueba: dentro de una transacción el cambio se aplica al confirmar, y no si se revierte
+        TransactionSynchronizationManager.initSynchronization();
+        contadoresEstado.ajustar("Alta", 1);
+        assertEquals(0, contadoresEstado.conteo().getTotal());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertEquals(1L, contadoresEstado.conteo().getPorEstado().get("Alta"));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        contadoresEstado.ajustar("Alta", 1);
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(1L, contadoresEstado.conteo().getPorEstado().get("Alta"));
+    }
+
+    @Test
+    void testReconciliar_CorrigeDesvios() {
+        // Prueba: si el contador se desvió de la base, la reconciliación lo corrige
+        contadoresEstado.ajustar("Pendiente", 5);
+        when(atencionRepository.contarPorEstado()).thenReturn(List.of(conteo("Pendiente", 4), conteo("Alta", 2)));
+        contadoresEstado.reconciliar();
+
+        ConteoEstados conteo = contadoresEstado.conteo();
+        assertEquals(4L, conteo.getPorEstado().get("Pendiente"));
+        assertEquals(2L, conteo.getPorEstado().get("Alta"));
+    }
+
+    @Test
+    void testReconciliar_NoDuplicaTransaccionesEnCurso() {
+        // Prueba: una atención ya confirmada en la base cuyo afterCommit aún no corre no se corrige
+        // en la reconciliación; al terminar la transacción el contador queda igual que la base
+        TransactionSynchronizationManager.initSynchronization();
+        contadoresEstado.ajustar("Alta", 1);
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        when(atencionRepository.contarPorEstado()).thenReturn(List.of(conteo("Alta", 1)));
+        contadoresEstado.reconciliar();
+        assertEquals(0L, contadoresEstado.conteo().getPorEstado().get("Alta"));
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        contadoresEstado.reconciliar();
+        assertEquals(1L, contadoresEstado.conteo().getPorEstado().get("Alta"));
+    }
+
+    private static AtencionRepository.ConteoPorEstado conteo(String estado, long cantidad) {
+        return new AtencionRepository.ConteoPorEstado() {
+            @Override
+            public String getEstado() {
+                return estado;
+            }
+
+            @Override
+            public long getCantidad() {
+                return cantidad;
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.controller.CuerposCatalogo;
+import com.duoc.hospital.dto.EstadisticaCatalogo;
+import com.duoc.hospital.model.Estado;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CuerposCatalogoTest {
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private CuerposCatalogo cuerposCatalogo;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.invokeMethod(cuerposCatalogo, "configurar");
+    }
+
+    @Test
+    void testResponder_SerializaUnaVezPorVersion() throws IOException {
+        // Prueba: con la misma versión no se vuelve a leer el catálogo; gzip trae el mismo JSON con otro ETag
+        List<Estado> estados = new ArrayList<>();
+        for (short i = 1; i <= 20; i++) {
+            estados.add(new Estado(i, "Estado número " + i, "Descripción del estado " + i));
+        }
+        AtomicInteger lecturas = new AtomicInteger();
+        EstadisticaCatalogo v1 = estadistica(1);
+
+        ResponseEntity<byte[]> plano = cuerposCatalogo.responder("estados", v1, () -> {
+            lecturas.incrementAndGet();
+            return estados;
+        }, null);
+        ResponseEntity<byte[]> comprimido = cuerposCatalogo.responder("estados", v1, () -> {
+            lecturas.incrementAndGet();
+            return estados;
+        }, "br, gzip;q=0.8");
+
+        assertEquals(1, lecturas.get());
+        assertEquals(HttpStatus.OK, plano.getStatusCode());
+        assertNull(plano.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", comprimido.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(comprimido.getBody().length < plano.getBody().length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comprimido.getBody()))) {
+            assertArrayEquals(plano.getBody(), gzip.readAllBytes());
+        }
+        assertNotEquals(plano.getHeaders().getETag(), comprimido.getHeaders().getETag());
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), plano.getHeaders().getVary());
+        // Solo el ETag valida la caché del cliente
+        assertEquals(-1, plano.getHeaders().getLastModified());
+
+        // Prueba: una versión nueva con los mismos datos se vuelve a leer pero conserva el ETag
+        ResponseEntity<byte[]> v2 = cuerposCatalogo.responder("estados", estadistica(2), () -> {
+            lecturas.incrementAndGet();
+            return estados;
+        }, "gzip;q=0");
+        assertEquals(2, lecturas.get());
+        assertNull(v2.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(plano.getHeaders().getETag(), v2.getHeaders().getETag());
+    }
+
+    @Test
+    void testResponder_CatalogoVacio() {
+        // Prueba: un catálogo vacío responde 204 como antes
+        ResponseEntity<byte[]> respuesta = cuerposCatalogo.responder("previsiones", estadistica(1), List::of, "gzip");
+        assertEquals(HttpStatus.NO_CONTENT, respuesta.getStatusCode());
+    }
+
+    private static EstadisticaCatalogo estadistica(long version) {
+        return new EstadisticaCatalogo("estados", 20, version, 0, 0, 0, Instant.parse("2025-06-01T12:00:00Z"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.model.Atencion;
+import com.duoc.hospital.model.Medico;
+import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Prevision;
+import com.duoc.hospital.model.Run;
+import com.duoc.hospital.repository.PrevisionRepository;
+import com.duoc.hospital.service.AtencionLoteService;
+import com.duoc.hospital.service.MedicoService;
+import com.duoc.hospital.service.PacienteService;
+import com.duoc.hospital.service.ResumenDiarioService;
+import org.springframework.context.ApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Datos sintéticos que comparten CargaApiTest, HilosVirtualesBenchmarkTest y BaseSembrada de hospital-benchmarks
+// (que la recibe en el jar de pruebas): médicos 5.000.000 + i, pacientes 10.000.000 + i, y atenciones que llenan
+// la agenda de cada médico en tramos de 30 minutos. Todo se guarda por los mismos servicios que usa la API, así
+// los índices en memoria, el resumen diario y el libro de deuda quedan como en producción.
+public final class DatosDeCarga {
+
+    // La agenda va de 08:00 a 18:00 en tramos de 30 minutos: 20 atenciones por médico y día
+    public static final int TRAMOS_POR_DIA = 20;
+
+    public static final LocalDate PRIMER_DIA = LocalDate.of(2025, 1, 6);
+
+    private static final String[] ESTADOS = {"Alta", "Pendiente", "Hospitalizado"};
+
+    private DatosDeCarga() {
+    }
+
+    // Argumentos para levantar la aplicación sobre una base H2 en memoria propia. Van como argumentos y no
+    // como properties(): los de application.properties (y de application-h2.properties) les ganarían
+    public static String[] argumentosH2(String base, String... otros) {
+        return Stream.concat(Stream.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + base + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"), Arrays.stream(otros)).toArray(String[]::new);
+    }
+
+    // Médicos 1..medicos, pacientes 1..pacientes (FONASA e ISAPRE alternados) y las atenciones en lotes
+    public static void sembrar(ApplicationContext contexto, int medicos, int pacientes, int atenciones) {
+        MedicoService medicoService = contexto.getBean(MedicoService.class);
+        for (int i = 1; i <= medicos; i++) {
+            medicoService.save(medico(i));
+        }
+        PacienteService pacienteService = contexto.getBean(PacienteService.class);
+        PrevisionRepository previsionRepository = contexto.getBean(PrevisionRepository.class);
+        Prevision fonasa = previsionRepository.findByNombre("FONASA").orElseThrow();
+        Prevision isapre = previsionRepository.findByNombre("ISAPRE").orElseThrow();
+        for (int i = 1; i <= pacientes; i++) {
+            pacienteService.save(paciente(i, i % 2 == 0 ? isapre : fonasa));
+        }
+        AtencionLoteService atencionLoteService = contexto.getBean(AtencionLoteService.class);
+        List<Atencion> lote = new ArrayList<>(AtencionLoteService.MAXIMO_LOTE);
+        for (int k = 0; k < atenciones; k++) {
+            lote.add(atencion(k, medicos, pacientes));
+            if (lote.size() == AtencionLoteService.MAXIMO_LOTE) {
+                atencionLoteService.guardarLote(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            atencionLoteService.guardarLote(lote);
+        }
+    }
+
+    public static Medico medico(int i) {
+        int numero = 5_000_000 + i;
+        return new Medico(0, numero + "-" + Run.digitoVerificador(numero), null, "Medico" + i, "Carga",
+                new Date(), 1_000_000, "medico" + i + "@hospital.cl", "+5691" + numero, null, null);
+    }
+
+    // RUN, correo y teléfono únicos a partir de i; las edades se reparten entre 5 y 75 años para los reportes
+    public static Paciente paciente(int i, Prevision prevision) {
+        int numero = 10_000_000 + i;
+        return new Paciente(0, numero + "-" + Run.digitoVerificador(numero), null, "Paciente" + i, "Carga",
+                java.sql.Date.valueOf(LocalDate.of(1950 + i % 60, 1 + i % 12, 1)),
+                "paciente" + i + "@hospital.cl", "+569" + numero, null, prevision, 0);
+    }
+
+    // Atención k desde PRIMER_DIA, del médico y en el tramo que le da tramo()
+    public static Atencion atencion(int k, int medicos, int pacientes) {
+        Medico medico = new Medico();
+        medico.setId(1 + k % medicos);
+        Paciente paciente = new Paciente();
+        paciente.setId(1 + k % pacientes);
+        LocalDateTime inicio = tramo(k, medicos, PRIMER_DIA);
+        return new Atencion(0, Date.from(inicio.atZone(ResumenDiarioService.ZONA_HORARIA).toInstant()),
+                inicio.toLocalTime(), 10_000 + (k % 50) * 1_000, "Atención de carga " + k,
+                ESTADOS[k % ESTADOS.length], paciente, medico);
+    }
+
+    // Tramo k: médico 1 + k % medicos, que llena sus tramos del día en orden y después pasa al día siguiente
+    public static LocalDateTime tramo(int k, int medicos, LocalDate primerDia) {
+        int porMedico = k / medicos;
+        return primerDia.plusDays(porMedico / TRAMOS_POR_DIA)
+                .atTime(LocalTime.of(8, 0).plusMinutes(30L * (porMedico % TRAMOS_POR_DIA)));
+    }
+
+    // Días que cubren las atenciones sembradas
+    public static int dias(int atenciones, int medicos) {
+        return Math.max(1, (atenciones + medicos * TRAMOS_POR_DIA - 1) / (medicos * TRAMOS_POR_DIA));
+    }
+}
@@ -0,0 +1,138 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.config.AuditoriaPinning;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Rendimiento con hilos de plataforma (Tomcat, 200 hilos) contra el perfil "virtual", con 1.000 clientes
+// concurrentes en lazo cerrado pidiendo GET /api/v1/pacientes/{id}/deuda (una lectura por clave en la base
+// en cada petición). No corre con el resto de las pruebas:
+//   mvn test -Dtest=HilosVirtualesBenchmarkTest -Dbenchmark=true [-Dbenchmark.clientes=2000] [-Dbenchmark.segundos=30]
+// Por defecto levanta la aplicación dos veces sobre H2 en memoria, donde la base responde en microsegundos y la
+// diferencia se ve sobre todo en la cola de Tomcat. Para medir contra MySQL, levantar la aplicación con y sin
+// --spring.profiles.active=virtual y correr una vez por modo con -Dbenchmark.url=http://host:8080
+// (-Dbenchmark.ids=N: ids de paciente 1..N a consultar).
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HilosVirtualesBenchmarkTest {
+
+    private static final int CLIENTES = Integer.getInteger("benchmark.clientes", 1_000);
+    private static final int SEGUNDOS = Integer.getInteger("benchmark.segundos", 20);
+    private static final int CALENTAMIENTO_SEGUNDOS = 5;
+    private static final int PACIENTES = 500;
+
+    private record Resultado(long peticiones, long errores, double porSegundo, long p50, long p99, long p999) {
+    }
+
+    @Test
+    void compararModos() throws Exception {
+        String url = System.getProperty("benchmark.url");
+        System.out.printf("%-22s %10s %8s %12s %9s %9s %9s%n",
+                CLIENTES + " clientes", "peticiones", "errores", "peticiones/s", "p50 ms", "p99 ms", "p99.9 ms");
+        if (url != null) {
+            imprimir("servidor " + url, cargar(url, Integer.getInteger("benchmark.ids", PACIENTES)));
+            return;
+        }
+        imprimir("hilos de plataforma", levantarYCargar(false));
+        imprimir("hilos virtuales", levantarYCargar(true));
+    }
+
+    private Resultado levantarYCargar(boolean virtual) throws Exception {
+        SpringApplicationBuilder aplicacion = new SpringApplicationBuilder(HospitalApplication.class);
+        if (virtual) {
+            aplicacion.profiles("virtual");
+        }
+        try (ConfigurableApplicationContext contexto = aplicacion.run(DatosDeCarga.argumentosH2(
+                virtual ? "bench_virtual" : "bench_plataforma", "--server.port=0",
+                "--logging.level.com.duoc.hospital.config.AuditoriaPinning=INFO"))) {
+            DatosDeCarga.sembrar(contexto, 0, PACIENTES, 0);
+            Resultado resultado = cargar("http://localhost:" + contexto.getEnvironment().getProperty("local.server.port"), PACIENTES);
+            if (virtual) {
+                System.out.println("Hilos virtuales fijados: " + contexto.getBean(AuditoriaPinning.class).resumen());
+            }
+            return resultado;
+        }
+    }
+
+    // Cada cliente es un hilo virtual que manda una petición, espera la respuesta y manda la siguiente
+    private static Resultado cargar(String url, int ids) throws Exception {
+        long inicioMedicion = System.nanoTime() + CALENTAMIENTO_SEGUNDOS * 1_000_000_000L;
+        long fin = inicioMedicion + SEGUNDOS * 1_000_000_000L;
+        List<Future<long[]>> clientes = new ArrayList<>();
+        long[] errores = new long[CLIENTES];
+        // Se cierran en orden inverso: 'hilos' espera a que terminen los clientes y después se cierran
+        // el cliente HTTP y su ejecutor
+        try (ExecutorService ejecutorHttp = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(ejecutorHttp).build();
+             ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTES; c++) {
+                int cliente = c;
+                clientes.add(hilos.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    int id = 1 + cliente % ids;
+                    while (System.nanoTime() < fin) {
+                        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url + "/api/v1/pacientes/" + id + "/deuda")).build();
+                        long t0 = System.nanoTime();
+                        int estado;
+                        try {
+                            estado = http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            estado = -1;
+                        }
+                        long t1 = System.nanoTime();
+                        if (t0 >= inicioMedicion) {
+                            if (estado != 200) {
+                                errores[cliente]++;
+                            }
+                            if (n == latencias.length) {
+                                latencias = Arrays.copyOf(latencias, n * 2);
+                            }
+                            latencias[n++] = t1 - t0;
+                        }
+                        id = 1 + (id % ids);
+                    }
+                    return Arrays.copyOf(latencias, n);
+                }));
+            }
+        }
+        long total = 0;
+        for (Future<long[]> f : clientes) {
+            total += f.get().length;
+        }
+        long[] todas = new long[(int) total];
+        int i = 0;
+        for (Future<long[]> f : clientes) {
+            long[] l = f.get();
+            System.arraycopy(l, 0, todas, i, l.length);
+            i += l.length;
+        }
+        Arrays.sort(todas);
+        return new Resultado(total, Arrays.stream(errores).sum(), total / (double) SEGUNDOS,
+                percentil(todas, 0.50), percentil(todas, 0.99), percentil(todas, 0.999));
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1_000_000;
+    }
+
+    private static void imprimir(String modo, Resultado r) {
+        System.out.printf("%-22s %,10d %,8d %,12.0f %9d %9d %9d%n",
+                modo, r.peticiones(), r.errores(), r.porSegundo(), r.p50(), r.p99(), r.p999());
+    }
+}
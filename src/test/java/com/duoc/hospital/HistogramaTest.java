@@ -0,0 +1,100 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.model.Especialidad;
+import com.duoc.hospital.model.Medico;
+import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Prevision;
+import com.duoc.hospital.repository.MedicoRepository;
+import com.duoc.hospital.repository.PacienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Consultas agrupadas de los histogramas de edad y antigüedad
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class HistogramaTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 6, 30);
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Test
+    void testContarPorTramoEdad_PorPrevision() {
+        // Prueba: la edad se cuenta en años cumplidos al corte y cada tramo de 10 años se separa por previsión
+        Prevision fonasa = em.persist(new Prevision(0, "FONASA", "50%", 5000, null));
+        Prevision isapre = em.persist(new Prevision(0, "ISAPRE", "70%", 7000, null));
+        paciente(1, HOY.minusYears(30), fonasa);              // 30 -> tramo 3
+        paciente(2, HOY.minusYears(40).plusDays(1), fonasa);  // 39 -> tramo 3
+        paciente(3, HOY.minusYears(40), isapre);              // 40 -> tramo 4
+        paciente(4, HOY.minusYears(5), isapre);               // 5  -> tramo 0
+        paciente(5, HOY.plusDays(1), isapre);                 // aún no nace al corte: no se cuenta
+        em.flush();
+
+        Map<String, Long> conteo = pacienteRepository.contarPorTramoEdad(HOY, 2025, 630, 10).stream()
+                .collect(Collectors.toMap(f -> f.getTramo().intValue() + "/" + f.getIdPrevision(),
+                        PacienteRepository.ConteoTramo::getCantidad));
+        assertEquals(Map.of("3/" + fonasa.getId(), 2L, "4/" + isapre.getId(), 1L, "0/" + isapre.getId(), 1L), conteo);
+    }
+
+    @Test
+    void testContarPorTramoAntiguedad_UnTramoPorAnio() {
+        // Prueba: la antigüedad ignora la hora del contrato y entran los contratados durante el día de corte
+        Especialidad especialidad = new Especialidad();
+        especialidad.setNombre("CARDIOLOGIA");
+        especialidad.setDescripcion("Corazón");
+        em.persist(especialidad);
+        medico(1, Timestamp.valueOf(HOY.minusYears(2).atTime(18, 0)), especialidad);
+        medico(2, Timestamp.valueOf(HOY.minusYears(2).plusDays(1).atStartOfDay()), especialidad);
+        medico(3, Timestamp.valueOf(HOY.atTime(23, 0)), especialidad);
+        em.flush();
+
+        Map<Integer, Long> conteo = medicoRepository.contarPorTramoAntiguedad(HOY.plusDays(1), 2025, 630, 1).stream()
+                .collect(Collectors.toMap(f -> f.getTramo().intValue(), MedicoRepository.ConteoTramo::getCantidad));
+        assertEquals(Map.of(2, 1L, 1, 1L, 0, 1L), conteo);
+    }
+
+    private void paciente(int n, LocalDate nacimiento, Prevision prevision) {
+        Paciente paciente = new Paciente();
+        paciente.setRun(String.valueOf(n).repeat(8) + "-" + n);
+        paciente.setNombre("Paciente" + n);
+        paciente.setApellido("Apellido");
+        paciente.setFechaNacimiento(Date.valueOf(nacimiento));
+        paciente.setCorreo("paciente" + n + "@correo.cl");
+        paciente.setTelefono("+5691111111" + n);
+        paciente.setPrevision(prevision);
+        em.persist(paciente);
+    }
+
+    private void medico(int n, java.util.Date contrato, Especialidad especialidad) {
+        Medico medico = new Medico();
+        medico.setRun(String.valueOf(n).repeat(8) + "-" + n);
+        medico.setNombre("Medico" + n);
+        medico.setApellido("Apellido");
+        medico.setFecha_contrato(contrato);
+        medico.setSueldoBase(1_000_000);
+        medico.setCorreo("medico" + n + "@hospital.cl");
+        medico.setTelefono("+5690000000" + n);
+        medico.setEspecialidadMedico(especialidad);
+        em.persist(medico);
+    }
+}
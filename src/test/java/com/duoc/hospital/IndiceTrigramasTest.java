@@ -0,0 +1,68 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.service.IndiceTrigramas;
+import com.duoc.hospital.service.IndiceTrigramas.Resultado;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceTrigramasTest {
+
+    @Test
+    void testBuscar_SinAcentosYConErroresDeTipeo() {
+        // Prueba: "jose perez" encuentra a "José Pérez" primero aunque falten acentos, y tolera un error de tipeo
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.actualizar(1, "José Pérez");
+        indice.actualizar(2, "Josefa Pereira");
+        indice.actualizar(3, "María González");
+
+        Resultado[] resultados = indice.buscar("jose perez", 10);
+        assertEquals(1, resultados[0].id());
+        assertEquals(1.0, resultados[0].similitud());
+        assertEquals(2, resultados[1].id());
+        assertEquals(3, indice.buscar("MARIA GONZALES", 1)[0].id());
+        assertEquals(0, indice.buscar("xyz", 10).length);
+    }
+
+    @Test
+    void testActualizarYQuitar() {
+        // Prueba: un cambio de nombre reemplaza los trigramas viejos y un registro quitado ya no aparece
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.actualizar(5, "Ana Rojas");
+        indice.actualizar(7, "Ana Rojas");
+        indice.actualizar(5, "Luisa Soto");
+        assertEquals(7, indice.buscar("ana rojas", 10)[0].id());
+        assertEquals(1, indice.buscar("ana rojas", 10).length);
+        assertEquals(5, indice.buscar("luisa soto", 10)[0].id());
+
+        indice.quitar(7);
+        assertEquals(0, indice.buscar("ana rojas", 10).length);
+        assertEquals(1, indice.size());
+    }
+
+    @Test
+    void testBuscar_RapidoConMuchosNombres() {
+        // Prueba: con 300.000 nombres, una búsqueda toma pocos milisegundos
+        String[] nombres = {"Juan", "María", "José", "Ana", "Luis", "Carmen", "Pedro", "Sofía", "Diego", "Valentina"};
+        String[] apellidos = {"González", "Muñoz", "Rojas", "Díaz", "Pérez", "Soto", "Contreras", "Silva", "Martínez", "Sepúlveda"};
+        IndiceTrigramas indice = new IndiceTrigramas();
+        Random random = new Random(7);
+        for (int id = 1; id <= 300_000; id++) {
+            indice.actualizar(id, nombres[random.nextInt(10)] + " " + apellidos[random.nextInt(10)] + " "
+                    + apellidos[random.nextInt(10)] + " " + id);
+        }
+        indice.actualizar(300_001, "Maximiliano Ñancupil");
+
+        for (int i = 0; i < 20; i++) {
+            indice.buscar("maria gonzalez", 20); // calentamiento
+        }
+        long inicio = System.nanoTime();
+        Resultado[] resultados = indice.buscar("maximiliano nancupil", 20);
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertEquals(300_001, resultados[0].id());
+        assertTrue(milisegundos < 200, "búsqueda tardó " + milisegundos + " ms");
+    }
+}
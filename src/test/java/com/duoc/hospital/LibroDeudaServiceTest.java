@@ -0,0 +1,133 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.ResultadoConciliacion;
+import com.duoc.hospital.model.*;
+import com.duoc.hospital.repository.PacienteRepository;
+import com.duoc.hospital.service.CacheRegistros;
+import com.duoc.hospital.service.CatalogoEstados;
+import com.duoc.hospital.service.LibroDeudaService;
+import com.duoc.hospital.service.TablaCoberturas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Libro de deuda: cada cargo y anulación queda como movimiento y la deuda del paciente es su suma
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({LibroDeudaService.class, TablaCoberturas.class, CatalogoEstados.class, CacheRegistros.class})
+class LibroDeudaServiceTest {
+
+    @Autowired
+    private LibroDeudaService libroDeudaService;
+
+    @Autowired
+    private TablaCoberturas tablaCoberturas;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private Prevision fonasa;
+    private Prevision isapre;
+    private Paciente paciente;
+
+    @BeforeEach
+    void setUp() {
+        fonasa = em.persist(new Prevision(0, "FONASA", "50%", 5000, null));
+        isapre = em.persist(new Prevision(0, "ISAPRE", "70%", 7000, null));
+        paciente = new Paciente();
+        paciente.setRun("11111111-1");
+        paciente.setNombre("Ana");
+        paciente.setApellido("Rojas");
+        paciente.setFechaNacimiento(java.sql.Date.valueOf("1990-01-01"));
+        paciente.setCorreo("ana@correo.cl");
+        paciente.setTelefono("+56911111111");
+        paciente.setPrevision(fonasa);
+        em.persist(paciente);
+        em.flush();
+        tablaCoberturas.recargar();
+    }
+
+    @Test
+    void testAnular_RevierteLoCobradoAunqueCambieLaPrevision() {
+        // Prueba: el cargo usa la previsión del momento (50% de 10.000) y la anulación devuelve exactamente eso,
+        // aunque el paciente haya cambiado a una previsión que cubre más
+        Atencion atencion = atencion(10_000);
+        libroDeudaService.cargar(atencion);
+        assertEquals(5_000, deuda());
+
+        paciente.setPrevision(isapre);
+        em.flush();
+        libroDeudaService.anular(atencion.getId());
+        assertEquals(0, deuda());
+
+        libroDeudaService.cargar(atencion);
+        assertEquals(3_000, deuda());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM movimiento_deuda WHERE id_atencion = ?", Integer.class, atencion.getId()));
+    }
+
+    @Test
+    void testConciliar_CorrigeLaDeudaConElLibro() {
+        // Prueba: si la columna se desvía del libro, la conciliación la ajusta y una segunda pasada no encuentra nada
+        libroDeudaService.cargar(atencion(4_000));
+        jdbcTemplate.update("UPDATE paciente SET deuda = 123 WHERE id = ?", paciente.getId());
+
+        ResultadoConciliacion resultado = libroDeudaService.conciliar();
+
+        assertEquals(1, resultado.getDiferencias());
+        assertEquals(2_000 - 123, resultado.getAjusteTotal());
+        assertEquals(2_000, deuda());
+        assertEquals(0, libroDeudaService.conciliar().getDiferencias());
+    }
+
+    private Atencion atencion(int costo) {
+        Especialidad especialidad = new Especialidad();
+        especialidad.setNombre("MEDICINA GENERAL");
+        especialidad.setDescripcion("General");
+        em.persist(especialidad);
+
+        Medico medico = new Medico();
+        medico.setRun("22222222-2");
+        medico.setNombre("Luis");
+        medico.setApellido("Soto");
+        medico.setFecha_contrato(new Date());
+        medico.setSueldoBase(1_000_000);
+        medico.setCorreo("luis@hospital.cl");
+        medico.setTelefono("+56922222222");
+        medico.setEspecialidadMedico(especialidad);
+        em.persist(medico);
+
+        Atencion atencion = new Atencion();
+        atencion.setFechaAtencion(new Date());
+        atencion.setHoraInicio(LocalTime.of(9, 0));
+        atencion.setCosto(costo);
+        atencion.setEstado("Alta");
+        atencion.setMedico(medico);
+        atencion.setPaciente(paciente);
+        em.persist(atencion);
+        em.flush();
+        return atencion;
+    }
+
+    private int deuda() {
+        return pacienteRepository.findDeudaById(paciente.getId()).orElseThrow();
+    }
+}
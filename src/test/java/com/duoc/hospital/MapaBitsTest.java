@@ -0,0 +1,71 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.service.MapaBits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaBitsTest {
+
+    @Test
+    void testOperaciones_CoincidenConTreeSet() {
+        // Prueba: mezcla de contenedores escasos (arreglo) y densos (bits) en varias claves altas;
+        // y, o y menos deben dar lo mismo que las operaciones de conjunto de TreeSet
+        Random random = new Random(16);
+        MapaBits a = new MapaBits();
+        MapaBits b = new MapaBits();
+        TreeSet<Integer> esperadoA = new TreeSet<>();
+        TreeSet<Integer> esperadoB = new TreeSet<>();
+        for (int i = 0; i < 60_000; i++) {
+            // Denso en [0, 65536), escaso hasta 400000
+            int x = i % 3 == 0 ? random.nextInt(400_000) : random.nextInt(65_536);
+            int y = i % 2 == 0 ? random.nextInt(400_000) : random.nextInt(20_000);
+            assertEquals(esperadoA.add(x), a.agregar(x));
+            assertEquals(esperadoB.add(y), b.agregar(y));
+        }
+        // Se quitan valores hasta que algunos contenedores vuelven a ser arreglos
+        for (int i = 0; i < 30_000; i++) {
+            int x = random.nextInt(65_536);
+            assertEquals(esperadoA.remove(x), a.quitar(x));
+        }
+        assertEquals(esperadoA.size(), a.cardinalidad());
+
+        TreeSet<Integer> y = new TreeSet<>(esperadoA);
+        y.retainAll(esperadoB);
+        TreeSet<Integer> o = new TreeSet<>(esperadoA);
+        o.addAll(esperadoB);
+        TreeSet<Integer> menos = new TreeSet<>(esperadoA);
+        menos.removeAll(esperadoB);
+
+        assertArrayEquals(arreglo(y), MapaBits.y(a, b).valores());
+        assertArrayEquals(arreglo(o), MapaBits.o(a, b).valores());
+        assertArrayEquals(arreglo(menos), MapaBits.menos(a, b).valores());
+        // Los operandos no cambian
+        assertArrayEquals(arreglo(esperadoA), a.valores());
+        assertArrayEquals(arreglo(esperadoB), b.valores());
+    }
+
+    @Test
+    void testSiguientes_PaginaPorCursor() {
+        // Prueba: cada página parte después del último valor entregado, también entre contenedores
+        MapaBits mapa = new MapaBits();
+        int[] valores = {3, 65_535, 65_536, 70_000, 1_000_000};
+        for (int v : valores) {
+            mapa.agregar(v);
+        }
+        assertArrayEquals(new int[]{3, 65_535}, mapa.siguientes(-1, 2));
+        assertArrayEquals(new int[]{65_536, 70_000}, mapa.siguientes(65_535, 2));
+        assertArrayEquals(new int[]{1_000_000}, mapa.siguientes(70_000, 2));
+        assertArrayEquals(new int[0], mapa.siguientes(1_000_000, 2));
+        assertTrue(mapa.contiene(70_000));
+        assertFalse(mapa.contiene(69_999));
+        assertThrows(IllegalArgumentException.class, () -> mapa.agregar(-1));
+    }
+
+    private static int[] arreglo(TreeSet<Integer> valores) {
+        return valores.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -2,6 +2,8 @@ package com.duoc.hospital;
 
 // Importamos las clases necesarias para las pruebas
 import com.duoc.hospital.controller.MedicoController;
+import com.duoc.hospital.dto.CupoDisponible;
+import com.duoc.hospital.dto.Histograma;
 import com.duoc.hospital.model.Medico;
 import com.duoc.hospital.model.Especialidad;
 import com.duoc.hospital.service.MedicoService;
@@ -13,6 +15,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -348,4 +352,35 @@ class MedicoControllerTest {
         // Verifica que la respuesta sea 400 Bad Request.
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetProximoCupo_ReturnsOk() {
+        // Prueba: Si algún médico de la especialidad tiene un horario libre, se responde 200 con el cupo.
+        CupoDisponible cupo = new CupoDisponible(1, "Ana Rojas", "CARDIOLOGIA",
+                LocalDate.of(2025, 6, 2), LocalTime.of(9, 30), 30);
+        when(medicoService.findProximoCupo("CARDIOLOGIA")).thenReturn(Optional.of(cupo));
+
+        ResponseEntity<CupoDisponible> response = medicoController.getProximoCupo("CARDIOLOGIA");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(LocalTime.of(9, 30), response.getBody().getHoraInicio());
+    }
+
+    @Test
+    void testGetProximoCupo_ReturnsNoContent() {
+        // Prueba: Sin médicos o sin horarios libres, se responde 204.
+        when(medicoService.findProximoCupo("CARDIOLOGIA")).thenReturn(Optional.empty());
+
+        ResponseEntity<CupoDisponible> response = medicoController.getProximoCupo("CARDIOLOGIA");
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    @Test
+    void testHistogramaAntiguedad_AnchoInvalido() {
+        // Prueba: Un ancho de tramo fuera de rango responde 400
+        when(medicoService.histogramaAntiguedad(0)).thenThrow(new IllegalArgumentException("El ancho del tramo debe estar entre 1 y 60 años."));
+        ResponseEntity<Histograma> response = medicoController.getHistogramaAntiguedad(0);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
@@ -0,0 +1,71 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.controller.NominaController;
+import com.duoc.hospital.model.Nomina;
+import com.duoc.hospital.service.NominaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NominaControllerTest {
+
+    @Mock
+    private NominaService nominaService;
+
+    @InjectMocks
+    private NominaController nominaController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testLiquidar_ReturnsCreated() {
+        // Prueba: Liquidar un mes válido responde 201 con los totales
+        Nomina nomina = new Nomina(1, "2025-06", LocalDateTime.now(), 2, 1_800_000, 30_000, 1_830_000);
+        when(nominaService.liquidar(YearMonth.of(2025, 6))).thenReturn(nomina);
+        ResponseEntity<Nomina> response = nominaController.liquidar("2025-06");
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1_830_000, response.getBody().getTotal());
+    }
+
+    @Test
+    void testLiquidar_PeriodoInvalido() {
+        // Prueba: Un período mal escrito responde 400 sin calcular nada
+        ResponseEntity<Nomina> response = nominaController.liquidar("junio");
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(nominaService, never()).liquidar(any());
+    }
+
+    @Test
+    void testExportarDetalle_Csv() throws Exception {
+        // Prueba: El detalle en CSV se transmite desde la liquidación guardada
+        when(nominaService.findById(1)).thenReturn(Optional.of(new Nomina()));
+        ResponseEntity<StreamingResponseBody> response = nominaController.exportarDetalle(1, "csv");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(nominaService).exportarCsv(eq(1), any());
+    }
+
+    @Test
+    void testExportarDetalle_NotFound() {
+        // Prueba: Una liquidación que no existe responde 404
+        when(nominaService.findById(9)).thenReturn(Optional.empty());
+        ResponseEntity<StreamingResponseBody> response = nominaController.exportarDetalle(9, "ndjson");
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
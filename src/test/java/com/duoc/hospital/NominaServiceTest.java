@@ -0,0 +1,118 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.model.*;
+import com.duoc.hospital.service.ExportadorNdjson;
+import com.duoc.hospital.service.NominaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Liquidación de un mes completo contra el resumen diario, y relectura de la foto guardada
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({NominaService.class, ExportadorNdjson.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class NominaServiceTest {
+
+    private static final YearMonth JUNIO = YearMonth.of(2025, 6);
+
+    @Autowired
+    private NominaService nominaService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Medico conAtenciones;
+    private Medico sinAtenciones;
+
+    @BeforeEach
+    void setUp() {
+        Especialidad especialidad = new Especialidad();
+        especialidad.setNombre("CARDIOLOGIA");
+        especialidad.setDescripcion("Corazón");
+        em.persist(especialidad);
+        conAtenciones = em.persist(medico(1, "Ana", "Rojas, Soto", 1_000_000, especialidad));
+        sinAtenciones = em.persist(medico(2, "Luis", "Pérez", 800_000, especialidad));
+        em.flush();
+
+        short alta = jdbcTemplate.queryForObject("SELECT id FROM estado WHERE nombre = 'Alta'", Short.class);
+        // Dos días de junio y uno de julio, que no debe entrar en la liquidación de junio
+        resumen("2025-06-01", conAtenciones.getId(), alta, 2, 100_001);
+        resumen("2025-06-30", conAtenciones.getId(), alta, 1, 50_000);
+        resumen("2025-07-01", conAtenciones.getId(), alta, 5, 999_999);
+    }
+
+    @Test
+    void testLiquidar_UnaFilaPorMedicoConComisionDelMes() throws Exception {
+        // Prueba: la comisión usa solo el mes pedido y se redondea al peso; un médico sin atenciones cobra su base
+        Nomina nomina = nominaService.liquidar(JUNIO);
+
+        assertEquals("2025-06", nomina.getPeriodo());
+        assertEquals(2, nomina.getMedicos());
+        assertEquals(1_800_000, nomina.getTotalBase());
+        assertEquals(30_000, nomina.getTotalComision()); // 20% de 150.001 = 30.000,2
+        assertEquals(1_830_000, nomina.getTotal());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(2, nominaService.exportarCsv(nomina.getId(), csv));
+        String[] lineas = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id_medico,run,medico,sueldo_base,atenciones,monto_atenciones,comision,sueldo_total", lineas[0]);
+        assertEquals(conAtenciones.getId() + ",11111111-1,\"Ana Rojas, Soto\",1000000,3,150001,30000,1030000", lineas[1]);
+        assertEquals(sinAtenciones.getId() + ",22222222-2,Luis Pérez,800000,0,0,0,800000", lineas[2]);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        assertEquals(2, nominaService.exportarNdjson(nomina.getId(), ndjson));
+        assertTrue(ndjson.toString(StandardCharsets.UTF_8).contains("\"sueldoTotal\":1030000"));
+    }
+
+    @Test
+    void testLiquidar_LaFotoNoCambiaConDatosPosteriores() throws Exception {
+        // Prueba: una liquidación guardada se relee igual aunque después cambien las atenciones
+        Nomina primera = nominaService.liquidar(JUNIO);
+        resumen("2025-06-15", conAtenciones.getId(),
+                jdbcTemplate.queryForObject("SELECT id FROM estado WHERE nombre = 'Alta'", Short.class), 1, 10_000);
+        Nomina segunda = nominaService.liquidar(JUNIO);
+
+        assertEquals(30_000, nominaService.findById(primera.getId()).orElseThrow().getTotalComision());
+        assertEquals(32_000, segunda.getTotalComision());
+        assertEquals(2, nominaService.findByPeriodo(JUNIO).size());
+        assertEquals(segunda.getId(), nominaService.findByPeriodo(JUNIO).get(0).getId());
+    }
+
+    private void resumen(String dia, int idMedico, short idEstado, long cantidad, long total) {
+        jdbcTemplate.update("INSERT INTO resumen_diario_atencion (dia, id_medico, id_estado, cantidad, total) VALUES (?, ?, ?, ?, ?)",
+                java.sql.Date.valueOf(dia), idMedico, idEstado, cantidad, total);
+    }
+
+    private static Medico medico(int n, String nombre, String apellido, int sueldoBase, Especialidad especialidad) {
+        Medico medico = new Medico();
+        medico.setRun(String.valueOf(n).repeat(8) + "-" + n);
+        medico.setNombre(nombre);
+        medico.setApellido(apellido);
+        medico.setFecha_contrato(new Date());
+        medico.setSueldoBase(sueldoBase);
+        medico.setCorreo("medico" + n + "@hospital.cl");
+        medico.setTelefono("+5690000000" + n);
+        medico.setEspecialidadMedico(especialidad);
+        return medico;
+    }
+}
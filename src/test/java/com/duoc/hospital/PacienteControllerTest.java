@@ -2,6 +2,7 @@ package com.duoc.hospital;
 
 // Esto es para que funcione el controlador, modelo y servicio
 import com.duoc.hospital.controller.PacienteController;
+import com.duoc.hospital.dto.PaginaCursor;
 import com.duoc.hospital.model.Paciente;
 import com.duoc.hospital.model.Prevision;
 import com.duoc.hospital.service.PacienteService;
@@ -259,9 +260,7 @@ class PacienteControllerTest {
     @Test
     void testGetDeudaById_ReturnsOk() {
         // Si el paciente existe y tiene deuda, debe devolver 200 OK y el monto
-        Paciente paciente = crearPaciente();
-        paciente.setDeuda(75000); // Le ponemos una deuda de 75000
-        when(pacienteService.getPacienteById(1)).thenReturn(Optional.of(paciente)); // Simula que encuentra el paciente 1
+        when(pacienteService.getDeuda(1)).thenReturn(Optional.of(75000)); // Simula que el paciente 1 debe 75000
 
         ResponseEntity<Integer> response = pacienteController.getDeudaById(1);
 
@@ -272,10 +271,58 @@ class PacienteControllerTest {
     @Test
     void testGetDeudaById_ReturnsNotFound() {
         // Si el paciente NO existe, debe devolver 404 No Encontrado al buscar su deuda
-        when(pacienteService.getPacienteById(1)).thenReturn(Optional.empty()); // Simula que no encuentra el paciente
+        when(pacienteService.getDeuda(1)).thenReturn(Optional.empty()); // Simula que no encuentra el paciente
 
         ResponseEntity<Integer> response = pacienteController.getDeudaById(1);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode()); // Debe ser 404 NOT_FOUND
     }
-}
\ No newline at end of file
+
+    // --- Pruebas para la búsqueda aproximada por nombre ---
+    @Test
+    void testBuscar_ReturnsOk() {
+        // Si hay pacientes parecidos, debe devolver 200 OK en el orden que entrega el servicio
+        when(pacienteService.buscar("jose perez", 20)).thenReturn(List.of(crearPaciente()));
+
+        ResponseEntity<List<Paciente>> response = pacienteController.buscar("jose perez", 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+    }
+
+    @Test
+    void testBuscar_ReturnsBadRequest() {
+        // Si el texto viene vacío, el servicio lo rechaza y debe devolver 400
+        when(pacienteService.buscar(" ", 20)).thenThrow(new IllegalArgumentException("Debe indicar el texto a buscar."));
+
+        ResponseEntity<List<Paciente>> response = pacienteController.buscar(" ", 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    // --- Pruebas para pacientes por especialidad ---
+    @Test
+    void testGetByEspecialidades_ReturnsOk() {
+        // Si hay pacientes en la combinación pedida, debe devolver 200 OK con la página y su cursor
+        when(pacienteService.findPaginaPorEspecialidades(List.of("CARDIOLOGIA"), List.of("PEDIATRIA"), null, 50))
+                .thenReturn(new PaginaCursor<>(List.of(crearPaciente()), "1", 50));
+
+        ResponseEntity<PaginaCursor<Paciente>> response =
+                pacienteController.getByEspecialidades(List.of("CARDIOLOGIA"), List.of("PEDIATRIA"), null, 50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("1", response.getBody().getSiguiente());
+    }
+
+    @Test
+    void testGetByEspecialidades_ReturnsBadRequest() {
+        // Si el cursor no es válido, el servicio lo rechaza y debe devolver 400
+        when(pacienteService.findPaginaPorEspecialidades(List.of("CARDIOLOGIA"), null, "abc", 50))
+                .thenThrow(new IllegalArgumentException("Cursor no válido: abc"));
+
+        ResponseEntity<PaginaCursor<Paciente>> response =
+                pacienteController.getByEspecialidades(List.of("CARDIOLOGIA"), null, "abc", 50);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
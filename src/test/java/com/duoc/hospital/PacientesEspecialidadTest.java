@@ -0,0 +1,151 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.PaginaCursor;
+import com.duoc.hospital.model.*;
+import com.duoc.hospital.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pacientes por especialidad resueltos con los mapas de bits del índice y cargados solo por página
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({PacienteService.class, TablaCoberturas.class, IndiceUnicidad.class, IndiceRun.class, BuscadorNombres.class,
+        IndicePacientesEspecialidad.class, LibroDeudaService.class, ExportadorNdjson.class, CatalogoEstados.class,
+        CatalogoEspecialidades.class, CacheRegistros.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class PacientesEspecialidadTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private IndicePacientesEspecialidad indice;
+
+    @Autowired
+    private CatalogoEspecialidades catalogoEspecialidades;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private Paciente ana;
+    private Paciente luis;
+    private Paciente sara;
+    private Paciente tomas;
+
+    @BeforeEach
+    void setUp() {
+        // Datos de prueba: Ana (cardiología y pediatría), Luis (cardiología),
+        // Sara (pediatría) y Tomás (cardiología y traumatología)
+        Prevision prevision = em.persist(new Prevision(0, "FONASA", "50%", 5000, null));
+        Medico cardiologo = medico("CARDIOLOGIA", 1);
+        Medico pediatra = medico("PEDIATRIA", 2);
+        Medico traumatologo = medico("TRAUMATOLOGIA", 3);
+        ana = paciente("Ana", 11, prevision);
+        luis = paciente("Luis", 12, prevision);
+        sara = paciente("Sara", 13, prevision);
+        tomas = paciente("Tomas", 14, prevision);
+        atencion(cardiologo, ana);
+        atencion(pediatra, ana);
+        atencion(cardiologo, ana);
+        atencion(cardiologo, luis);
+        atencion(pediatra, sara);
+        atencion(cardiologo, tomas);
+        atencion(traumatologo, tomas);
+        em.flush();
+        em.clear();
+        indice.cargar();
+        catalogoEspecialidades.recargar();
+    }
+
+    @Test
+    void testFindPaginaPorEspecialidades_AlgebraDeConjuntos() {
+        // Prueba: "con" intersecta, "sin" resta y una especialidad desconocida en "con" deja la página vacía
+        assertEquals(List.of(ana.getId()), ids(pacienteService.findPaginaPorEspecialidades(
+                List.of("CARDIOLOGIA", "PEDIATRIA"), null, null, 50)));
+        assertEquals(List.of(ana.getId(), luis.getId()), ids(pacienteService.findPaginaPorEspecialidades(
+                List.of("CARDIOLOGIA"), List.of("TRAUMATOLOGIA"), null, 50)));
+        assertEquals(List.of(luis.getId()), ids(pacienteService.findPaginaPorEspecialidades(
+                List.of("CARDIOLOGIA"), List.of("PEDIATRIA", "TRAUMATOLOGIA", "NEUROLOGIA"), null, 50)));
+        assertTrue(pacienteService.findPaginaPorEspecialidades(List.of("CARDIOLOGIA", "NEUROLOGIA"), null, null, 50)
+                .getItems().isEmpty());
+        assertEquals(List.of(ana.getId(), sara.getId()),
+                pacienteService.findByEspecialidadNombre("PEDIATRIA").stream().map(Paciente::getId).toList());
+        assertThrows(IllegalArgumentException.class,
+                () -> pacienteService.findPaginaPorEspecialidades(List.of(), null, null, 50));
+    }
+
+    @Test
+    void testFindPaginaPorEspecialidades_Cursor() {
+        // Prueba: páginas de dos pacientes encadenadas por el cursor, hasta que 'siguiente' es null
+        PaginaCursor<Paciente> primera = pacienteService.findPaginaPorEspecialidades(List.of("CARDIOLOGIA"), null, null, 2);
+        assertEquals(List.of(ana.getId(), luis.getId()), ids(primera));
+        assertNotNull(primera.getSiguiente());
+
+        PaginaCursor<Paciente> segunda = pacienteService.findPaginaPorEspecialidades(
+                List.of("CARDIOLOGIA"), null, primera.getSiguiente(), 2);
+        assertEquals(List.of(tomas.getId()), ids(segunda));
+        assertNull(segunda.getSiguiente());
+        assertThrows(IllegalArgumentException.class,
+                () -> pacienteService.findPaginaPorEspecialidades(List.of("CARDIOLOGIA"), null, "abc", 2));
+    }
+
+    private Medico medico(String especialidad, int n) {
+        Especialidad e = new Especialidad();
+        e.setNombre(especialidad);
+        e.setDescripcion("Especialidad " + especialidad);
+        em.persist(e);
+
+        Medico medico = new Medico();
+        medico.setRun("1000000" + n + "-" + n);
+        medico.setNombre("Medico" + n);
+        medico.setApellido("Apellido" + n);
+        medico.setFecha_contrato(new Date());
+        medico.setSueldoBase(1_000_000);
+        medico.setCorreo("medico" + n + "@hospital.cl");
+        medico.setTelefono("+5690000" + n);
+        medico.setEspecialidadMedico(e);
+        return em.persist(medico);
+    }
+
+    private Paciente paciente(String nombre, int n, Prevision prevision) {
+        Paciente paciente = new Paciente();
+        paciente.setRun("200000" + n + "-" + n % 10);
+        paciente.setNombre(nombre);
+        paciente.setApellido("Apellido" + n);
+        paciente.setFechaNacimiento(java.sql.Date.valueOf("1990-01-01"));
+        paciente.setCorreo(nombre.toLowerCase() + "@correo.cl");
+        paciente.setTelefono("+5691111" + n);
+        paciente.setPrevision(prevision);
+        return em.persist(paciente);
+    }
+
+    private void atencion(Medico medico, Paciente paciente) {
+        Atencion atencion = new Atencion();
+        atencion.setFechaAtencion(new Date());
+        atencion.setHoraInicio(LocalTime.of(9, 0));
+        atencion.setCosto(10_000);
+        atencion.setEstado("Alta");
+        atencion.setMedico(medico);
+        atencion.setPaciente(paciente);
+        em.persist(atencion);
+    }
+
+    private static List<Integer> ids(PaginaCursor<Paciente> pagina) {
+        return pagina.getItems().stream().map(Paciente::getId).toList();
+    }
+}
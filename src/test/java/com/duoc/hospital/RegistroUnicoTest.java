@@ -0,0 +1,155 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Prevision;
+import com.duoc.hospital.service.CacheRegistros;
+import com.duoc.hospital.service.CatalogoEspecialidades;
+import com.duoc.hospital.service.BuscadorNombres;
+import com.duoc.hospital.service.ExportadorNdjson;
+import com.duoc.hospital.service.FiltroBloom;
+import com.duoc.hospital.service.IndiceRun;
+import com.duoc.hospital.service.IndicePacientesEspecialidad;
+import com.duoc.hospital.service.IndiceUnicidad;
+import com.duoc.hospital.service.LibroDeudaService;
+import com.duoc.hospital.service.PacienteService;
+import com.duoc.hospital.service.TablaCoberturas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Registro de pacientes con filtro de unicidad: consulta combinada cuando el filtro duda
+// e INSERT directo con la restricción única como respaldo cuando el filtro no conoce el valor
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({PacienteService.class, TablaCoberturas.class, IndiceUnicidad.class, IndiceRun.class, BuscadorNombres.class,
+        IndicePacientesEspecialidad.class, LibroDeudaService.class,
+        ExportadorNdjson.class, CatalogoEspecialidades.class, CacheRegistros.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class RegistroUnicoTest {
+
+    @Autowired
+    private PacienteService pacienteService;
+
+    @Autowired
+    private IndiceUnicidad indiceUnicidad;
+
+    @Autowired
+    private IndiceRun indiceRun;
+
+    @Autowired
+    private TablaCoberturas tablaCoberturas;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Prevision fonasa;
+
+    @BeforeEach
+    void setUp() {
+        fonasa = em.persistAndFlush(new Prevision(0, "FONASA", "50%", 5000, null));
+        indiceUnicidad.cargar();
+        indiceRun.cargar();
+        tablaCoberturas.recargar();
+    }
+
+    @Test
+    void testFiltroBloom_SinFalsosNegativos() {
+        // Prueba: todo lo agregado se encuentra y los valores nuevos casi nunca dan falso positivo
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("run:" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("run:" + i));
+        }
+        int falsosPositivos = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (filtro.puedeContener("run:" + i)) falsosPositivos++;
+        }
+        assertTrue(falsosPositivos < 300, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void testSave_DuplicadoDetectadoConUnaConsulta() {
+        // Prueba: un correo ya registrado (en el filtro) se rechaza con el mensaje del campo correcto
+        pacienteService.save(paciente("11111111-1", "ana@correo.cl", "+56911111111"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> pacienteService.save(paciente("22222222-2", "ana@correo.cl", "+56922222222")));
+        assertEquals("El correo ya está registrado para otro paciente.", e.getMessage());
+    }
+
+    @Test
+    void testSave_DuplicadoFueraDelFiltroLoAtrapaLaRestriccion() {
+        // Prueba: un teléfono insertado por fuera (el filtro no lo conoce) lo rechaza la restricción única
+        jdbcTemplate.update("INSERT INTO paciente (run, nombre, apellido, fecha_nacimiento, correo, telefono, prevision, deuda) "
+                + "VALUES ('33333333-3', 'Luis', 'Soto', ?, 'luis@correo.cl', '+56933333333', ?, 0)",
+                Date.valueOf("1990-01-01"), fonasa.getId());
+        assertFalse(indiceUnicidad.puedeExistir(IndiceUnicidad.Registro.PACIENTE,
+                "44444444-4", "otro@correo.cl", "+56933333333"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> pacienteService.save(paciente("44444444-4", "otro@correo.cl", "+56933333333")));
+        assertEquals("El teléfono ya está registrado para otro paciente.", e.getMessage());
+    }
+
+    @Test
+    void testRun_VarianteDeFormatoEsElMismoPaciente() {
+        // Prueba: el RUN se guarda normalizado, se busca en cualquier formato y una variante no crea un duplicado
+        Paciente guardado = pacienteService.save(paciente("12.345.678-5", "ana@correo.cl", "+56911111111"));
+        assertEquals("12345678-5", guardado.getRun());
+        assertEquals(guardado.getId(), pacienteService.findByRun("12345678-5").orElseThrow().getId());
+        assertEquals(guardado.getId(), pacienteService.findByRun("123456785").orElseThrow().getId());
+        assertTrue(pacienteService.findByRun("87654321-0").isEmpty());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> pacienteService.save(paciente("12345678-5", "otra@correo.cl", "+56922222222")));
+        assertEquals("El run ya está registrado para otro paciente.", e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> pacienteService.save(paciente("12345678-9", "otra@correo.cl", "+56922222222")));
+    }
+
+    @Test
+    void testUpdate_FilaAntiguaSinRunNum() {
+        // Prueba: una fila que V7 dejó con run_num NULL (RUN mal formado) se puede modificar sin tocar el RUN,
+        // y al corregir el RUN desde la API recibe su número
+        jdbcTemplate.update("INSERT INTO paciente (run, nombre, apellido, fecha_nacimiento, correo, telefono, prevision, deuda) "
+                + "VALUES ('SIN-RUN', 'Luis', 'Soto', ?, 'luis@correo.cl', '+56933333333', ?, 0)",
+                Date.valueOf("1990-01-01"), fonasa.getId());
+        int id = jdbcTemplate.queryForObject("SELECT id FROM paciente WHERE run = 'SIN-RUN'", Integer.class);
+        Paciente antiguo = em.find(Paciente.class, id);
+        antiguo.setNombre("Luis Alberto");
+        em.flush();
+        assertNull(jdbcTemplate.queryForObject("SELECT run_num FROM paciente WHERE id = ?", Integer.class, id));
+
+        em.clear();
+        pacienteService.update(id, paciente("11.111.111-1", "luis@correo.cl", "+56933333333"));
+        assertEquals(11111111, jdbcTemplate.queryForObject("SELECT run_num FROM paciente WHERE id = ?", Integer.class, id));
+    }
+
+    private Paciente paciente(String run, String correo, String telefono) {
+        Paciente paciente = new Paciente();
+        paciente.setRun(run);
+        paciente.setNombre("Ana");
+        paciente.setApellido("Rojas");
+        paciente.setFechaNacimiento(Date.valueOf("1990-01-01"));
+        paciente.setCorreo(correo);
+        paciente.setTelefono(telefono);
+        paciente.setPrevision(new Prevision(fonasa.getId(), null, null, 0, null));
+        return paciente;
+    }
+}
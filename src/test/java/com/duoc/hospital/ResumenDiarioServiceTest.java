@@ -0,0 +1,184 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.dto.ResultadoReconstruccion;
+import com.duoc.hospital.dto.TotalGanancias;
+import com.duoc.hospital.model.*;
+import com.duoc.hospital.service.CatalogoEstados;
+import com.duoc.hospital.service.ResumenDiarioService;
+import db.migration.V10__resumen_diario_dia_chile;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Verifica que el resumen mantenido incrementalmente coincide con recalcularlo desde las atenciones
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ResumenDiarioService.class, CatalogoEstados.class})
+class ResumenDiarioServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 6, 1);
+
+    @Autowired
+    private ResumenDiarioService resumenDiarioService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Medico medico;
+    private Paciente paciente;
+
+    @BeforeEach
+    void setUp() {
+        Especialidad especialidad = new Especialidad();
+        especialidad.setNombre("CARDIOLOGIA");
+        especialidad.setDescripcion("Corazón");
+        em.persist(especialidad);
+
+        Prevision prevision = new Prevision();
+        prevision.setNombre("FONASA");
+        prevision.setCobertura("50%");
+        em.persist(prevision);
+
+        medico = new Medico();
+        medico.setRun("11111111-1");
+        medico.setNombre("Ana");
+        medico.setApellido("Rojas");
+        medico.setFecha_contrato(new Date());
+        medico.setSueldoBase(1_000_000);
+        medico.setCorreo("ana@hospital.cl");
+        medico.setTelefono("+56911111111");
+        medico.setEspecialidadMedico(especialidad);
+        em.persist(medico);
+
+        paciente = new Paciente();
+        paciente.setRun("22222222-2");
+        paciente.setNombre("Luis");
+        paciente.setApellido("Soto");
+        paciente.setFechaNacimiento(java.sql.Date.valueOf("1990-01-01"));
+        paciente.setCorreo("luis@correo.cl");
+        paciente.setTelefono("+56922222222");
+        paciente.setPrevision(prevision);
+        em.persist(paciente);
+    }
+
+    @Test
+    void testSumarYRestar_CoincideConReconstruir() {
+        // Prueba: altas individuales, una baja y un lote dejan el resumen igual que recalcularlo
+        Atencion primera = persistir(DIA, 10_000, "Alta");
+        resumenDiarioService.sumar(primera);
+        Atencion segunda = persistir(DIA, 20_000, "Alta");
+        resumenDiarioService.sumar(segunda);
+        Atencion cancelada = persistir(DIA.plusDays(1), 5_000, "Alta");
+        resumenDiarioService.sumar(cancelada);
+        resumenDiarioService.restar(cancelada);
+        em.remove(cancelada);
+
+        List<Atencion> lote = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            lote.add(persistir(DIA.plusDays(2), 1_000, i % 2 == 0 ? "Alta" : "Pendiente"));
+        }
+        resumenDiarioService.sumarTodas(lote);
+        em.flush();
+
+        TotalGanancias total = resumenDiarioService.totalEntre(DIA, DIA.plusDays(2), "Alta", null);
+        assertEquals(5, total.getAtenciones());
+        assertEquals(33_000, total.getTotal());
+        assertEquals(0, resumenDiarioService.totalEntre(DIA, DIA, "Alta", medico.getId() + 1).getTotal());
+
+        ResultadoReconstruccion resultado = resumenDiarioService.reconstruir();
+        assertEquals(0, resultado.getDiferencias());
+        assertEquals(33_000, resumenDiarioService.totalPorEstado("Alta"));
+    }
+
+    @Test
+    void testReconstruir_CorrigeDesvios() {
+        // Prueba: si una atención se guardó sin pasar por el resumen, reconstruir lo detecta y lo corrige
+        persistir(DIA, 7_000, "Alta");
+        em.flush();
+        assertEquals(0, resumenDiarioService.totalPorEstado("Alta"));
+
+        ResultadoReconstruccion resultado = resumenDiarioService.reconstruir();
+        assertEquals(1, resultado.getDiferencias());
+        assertEquals(1, resultado.getFilas());
+        assertEquals(7_000, resumenDiarioService.totalPorEstado("Alta"));
+    }
+
+    @Test
+    void testDiaDe_UsaHoraDeChile() {
+        // Prueba: 01:30 UTC del 2 de junio todavía es 1 de junio en Chile; el resumen incremental
+        // y la reconstrucción la dejan en el mismo día que las búsquedas por rango
+        Atencion nocturna = persistir(DIA, 4_000, "Alta");
+        nocturna.setFechaAtencion(Date.from(DIA.plusDays(1).atTime(1, 30).atZone(ZoneId.of("UTC")).toInstant()));
+        resumenDiarioService.sumar(nocturna);
+        em.flush();
+
+        assertEquals(DIA, ResumenDiarioService.diaDe(nocturna.getFechaAtencion()));
+        assertEquals(4_000, resumenDiarioService.totalEntre(DIA, DIA, "Alta", null).getTotal());
+        assertEquals(0, resumenDiarioService.reconstruir().getDiferencias());
+        assertEquals(4_000, resumenDiarioService.totalEntre(DIA, DIA, "Alta", null).getTotal());
+    }
+
+    @Test
+    void testMigracionV10_ResiembraConDiaDeChile() throws Exception {
+        // Prueba: una fila sembrada con el día UTC (como hacía CAST en V3 y V5) se mueve al día de Chile
+        Atencion nocturna = persistir(DIA, 4_000, "Alta");
+        nocturna.setFechaAtencion(Date.from(DIA.plusDays(1).atTime(1, 30).atZone(ZoneId.of("UTC")).toInstant()));
+        em.flush();
+        jdbcTemplate.update("INSERT INTO resumen_diario_atencion (dia, id_medico, id_estado, cantidad, total) "
+                + "VALUES (?, ?, (SELECT id FROM estado WHERE nombre = 'Alta'), 1, 4000)",
+                java.sql.Date.valueOf(DIA.plusDays(1)), medico.getId());
+
+        Context contexto = mock(Context.class);
+        when(contexto.getConnection()).thenReturn(DataSourceUtils.getConnection(dataSource));
+        new V10__resumen_diario_dia_chile().migrate(contexto);
+
+        assertEquals(4_000, resumenDiarioService.totalEntre(DIA, DIA, "Alta", null).getTotal());
+        assertEquals(0, resumenDiarioService.totalEntre(DIA.plusDays(1), DIA.plusDays(1), "Alta", null).getTotal());
+    }
+
+    @Test
+    void testTotalEntre_RangoInvertido() {
+        // Prueba: un rango con 'hasta' anterior a 'desde' se rechaza
+        assertThrows(IllegalArgumentException.class,
+                () -> resumenDiarioService.totalEntre(DIA, DIA.minusDays(1), "Alta", null));
+    }
+
+    private Atencion persistir(LocalDate dia, int costo, String estado) {
+        Atencion atencion = new Atencion();
+        atencion.setFechaAtencion(Date.from(dia.atTime(10, 30).atZone(ResumenDiarioService.ZONA_HORARIA).toInstant()));
+        atencion.setHoraInicio(LocalTime.of(10, 30));
+        atencion.setCosto(costo);
+        atencion.setEstado(estado);
+        atencion.setMedico(medico);
+        atencion.setPaciente(paciente);
+        return em.persist(atencion);
+    }
+}
@@ -0,0 +1,55 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.model.Run;
+import com.duoc.hospital.service.MapaLongInt;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunTest {
+
+    @Test
+    void testNormalizar_VariantesDeFormato() {
+        // Prueba: puntos, 'k' minúscula y guion faltante llevan a la misma forma normalizada
+        assertEquals("12345678-5", Run.normalizar("12.345.678-5"));
+        assertEquals("12345678-5", Run.normalizar(" 123456785 "));
+        assertEquals("10000013-K", Run.normalizar("10.000.013-k"));
+        assertEquals(10_000_013, Run.numeroDe("10000013K"));
+    }
+
+    @Test
+    void testNormalizar_DigitoVerificadorIncorrecto() {
+        // Prueba: un dígito verificador que no cuadra con el módulo 11 o un formato inválido se rechazan
+        assertThrows(IllegalArgumentException.class, () -> Run.normalizar("12345678-9"));
+        assertThrows(IllegalArgumentException.class, () -> Run.normalizar("12A45678-5"));
+        assertThrows(IllegalArgumentException.class, () -> Run.normalizar("-5"));
+        assertThrows(IllegalArgumentException.class, () -> Run.normalizar(null));
+        assertEquals('0', Run.digitoVerificador(10_000_004));
+    }
+
+    @Test
+    void testMapaLongInt_ConcuerdaConHashMap() {
+        // Prueba: inserciones, reemplazos y borrados (con crecimiento) dejan el mismo contenido que un HashMap
+        MapaLongInt mapa = new MapaLongInt(4);
+        Map<Long, Integer> esperado = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            long clave = 1 + random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                mapa.remove(clave);
+                esperado.remove(clave);
+            } else {
+                mapa.put(clave, i);
+                esperado.put(clave, i);
+            }
+        }
+        assertEquals(esperado.size(), mapa.size());
+        for (long clave = 1; clave <= 20_000; clave++) {
+            assertEquals(esperado.getOrDefault(clave, MapaLongInt.SIN_VALOR), mapa.get(clave));
+        }
+    }
+}
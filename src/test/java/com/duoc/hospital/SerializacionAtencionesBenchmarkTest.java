@@ -0,0 +1,76 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.model.Atencion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+// Compara la serialización de una página de 1.000 atenciones por reflexión contra los serializadores
+// escritos a mano + Blackbird con un ObjectWriter compartido. No corre con el resto de las pruebas:
+//   mvn test -Dtest=SerializacionAtencionesBenchmarkTest -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SerializacionAtencionesBenchmarkTest {
+
+    private static final int PAGINA = 1_000;
+    private static final long CALENTAMIENTO_MS = 3_000;
+    private static final long MEDICION_MS = 5_000;
+
+    // writeValue cierra el destino al terminar; este descarta los bytes y se puede cerrar muchas veces
+    private static final OutputStream DESCARTE = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Test
+    void compararSerializacion() throws Exception {
+        List<Atencion> pagina = SerializadoresRespuestaTest.pagina(PAGINA);
+        ObjectMapper reflexion = SerializadoresRespuestaTest.porReflexion();
+        ObjectWriter compartido = SerializadoresRespuestaTest.conSerializadores().writer();
+        assertArrayEquals(reflexion.writeValueAsBytes(pagina), compartido.writeValueAsBytes(pagina));
+
+        Resultado antes = medir(() -> reflexion.writeValue(DESCARTE, pagina));
+        Resultado despues = medir(() -> compartido.writeValue(DESCARTE, pagina));
+        System.out.printf("%-32s %12s %18s%n", "Serialización (1.000 atenciones)", "páginas/s", "bytes asignados/pág");
+        System.out.printf("%-32s %,12.0f %,18d%n", "Reflexión", antes.porSegundo(), antes.bytesPorPagina());
+        System.out.printf("%-32s %,12.0f %,18d%n", "A mano + Blackbird", despues.porSegundo(), despues.bytesPorPagina());
+    }
+
+    private record Resultado(double porSegundo, long bytesPorPagina) {
+    }
+
+    private interface Operacion {
+        void ejecutar() throws Exception;
+    }
+
+    private static Resultado medir(Operacion operacion) throws Exception {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().threadId();
+        long fin = System.nanoTime() + CALENTAMIENTO_MS * 1_000_000;
+        while (System.nanoTime() < fin) {
+            operacion.ejecutar();
+        }
+        long asignadosAntes = hilos.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        fin = inicio + MEDICION_MS * 1_000_000;
+        long paginas = 0;
+        while (System.nanoTime() < fin) {
+            operacion.ejecutar();
+            paginas++;
+        }
+        long transcurrido = System.nanoTime() - inicio;
+        long asignados = hilos.getThreadAllocatedBytes(hilo) - asignadosAntes;
+        return new Resultado(paginas * 1e9 / transcurrido, asignados / paginas);
+    }
+}
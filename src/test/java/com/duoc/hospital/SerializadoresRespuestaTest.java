@@ -0,0 +1,58 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.config.SerializadoresRespuesta;
+import com.duoc.hospital.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializadoresRespuestaTest {
+
+    // Mismo punto de partida que el ObjectMapper de Spring Boot (fechas ISO, sin fallar en beans vacíos)
+    static ObjectMapper porReflexion() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static ObjectMapper conSerializadores() {
+        return Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(SerializadoresRespuesta.modulo(), new BlackbirdModule())
+                .build();
+    }
+
+    // Una página de atenciones como la que arma Hibernate: Timestamp en las fechas de Date y java.sql.Date
+    // en la fecha de nacimiento
+    static List<Atencion> pagina(int cantidad) {
+        Especialidad especialidad = new Especialidad(2, "CARDIOLOGIA", "Corazón y \"vasos\"", null);
+        Prevision prevision = new Prevision(1, "FONASA", "50%", 5000, null);
+        List<Atencion> atenciones = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Medico medico = new Medico(i % 40, "12.345.678-5", 12345678, "Médico " + i, "Pérez",
+                    new java.sql.Timestamp(1_600_000_000_000L + i), 1_500_000, "m" + i + "@hospital.cl",
+                    "+5691234" + i, null, especialidad);
+            Paciente paciente = new Paciente(i, "11.111.111-1", 11111111, "Paciente " + i, "Soto",
+                    new java.sql.Date(900_000_000_000L), "p" + i + "@mail.cl", "+5699876" + i, null, prevision, i * 10);
+            atenciones.add(new Atencion(i, new java.sql.Timestamp(1_750_000_000_000L + i * 60_000L),
+                    LocalTime.of(8 + i % 10, 30), 25_000 + i, i % 3 == 0 ? null : "Control " + i,
+                    "Pendiente", paciente, medico));
+        }
+        return atenciones;
+    }
+
+    @Test
+    void testSerializadores_MismoJsonQueReflexion() throws Exception {
+        // Prueba: los serializadores escritos a mano producen exactamente el JSON de la serialización por reflexión
+        List<Atencion> atenciones = pagina(50);
+        atenciones.get(0).setMedico(null);
+        atenciones.get(1).getPaciente().setPrevision(null);
+        atenciones.get(2).setFechaAtencion(new Date(1_750_000_000_000L));
+        assertEquals(porReflexion().writeValueAsString(atenciones), conSerializadores().writeValueAsString(atenciones));
+    }
+}
@@ -0,0 +1,89 @@
+package com.duoc.hospital;
+
+import com.duoc.hospital.model.Paciente;
+import com.duoc.hospital.model.Prevision;
+import com.duoc.hospital.repository.PrevisionRepository;
+import com.duoc.hospital.service.TablaCoberturas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TablaCoberturasTest {
+
+    @Mock
+    private PrevisionRepository previsionRepository;
+
+    @InjectMocks
+    private TablaCoberturas tablaCoberturas;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testPuntosBaseDe_FormatosValidos() {
+        // Prueba: la cobertura se acepta con o sin '%' y con hasta dos decimales
+        assertEquals(5000, Prevision.puntosBaseDe("50%"));
+        assertEquals(6000, Prevision.puntosBaseDe(" 60 "));
+        assertEquals(1250, Prevision.puntosBaseDe("12.5%"));
+        assertEquals(10_000, Prevision.puntosBaseDe("100%"));
+    }
+
+    @Test
+    void testPuntosBaseDe_FormatosInvalidos() {
+        // Prueba: texto, más de dos decimales o valores fuera de 0..100% se rechazan
+        assertThrows(IllegalArgumentException.class, () -> Prevision.puntosBaseDe("mitad"));
+        assertThrows(IllegalArgumentException.class, () -> Prevision.puntosBaseDe("12.345%"));
+        assertThrows(IllegalArgumentException.class, () -> Prevision.puntosBaseDe("120%"));
+        assertThrows(IllegalArgumentException.class, () -> Prevision.puntosBaseDe(null));
+    }
+
+    @Test
+    void testCopago_ExactoAlPeso() {
+        // Prueba: el copago se redondea una sola vez, con 0,5 hacia arriba
+        assertEquals(5_000, TablaCoberturas.copago(10_000, 5000));
+        assertEquals(4_000, TablaCoberturas.copago(10_001, 6000)); // 4000,4
+        assertEquals(2, TablaCoberturas.copago(3, 5000));          // 1,5
+        assertEquals(10_001, TablaCoberturas.copago(10_001, 0));
+    }
+
+    @Test
+    void testPuntosBase_RecargaSoloAnteIdDesconocido() {
+        // Prueba: la tabla se carga una vez y solo vuelve a la base si aparece una previsión nueva
+        when(previsionRepository.findAll()).thenReturn(List.of(new Prevision(1, "FONASA", "50%", 5000, null)));
+        assertEquals(5000, tablaCoberturas.puntosBase(1));
+        assertEquals(5000, tablaCoberturas.puntosBase(1));
+        verify(previsionRepository, times(1)).findAll();
+
+        when(previsionRepository.findAll()).thenReturn(List.of(
+                new Prevision(1, "FONASA", "50%", 5000, null),
+                new Prevision(3, "ISAPRE", "60%", 6000, null)));
+        assertEquals(6000, tablaCoberturas.puntosBase(3));
+        verify(previsionRepository, times(2)).findAll();
+
+        // Otro id desconocido dentro del mismo segundo no vuelve a la base
+        assertEquals(0, tablaCoberturas.puntosBase(8));
+        verify(previsionRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testBuscar_CopiaSinPacientes() {
+        // Prueba: la tabla guarda una copia de cada previsión sin la colección de pacientes de la entidad
+        Prevision entidad = new Prevision(1, "FONASA", "50%", 5000, new ArrayList<>(List.of(new Paciente())));
+        when(previsionRepository.findAll()).thenReturn(List.of(entidad));
+        Prevision copia = tablaCoberturas.buscar(1).orElseThrow();
+        assertNotSame(entidad, copia);
+        assertNull(copia.getPacientes());
+        assertEquals("FONASA", copia.getNombre());
+        assertEquals(5000, copia.getCoberturaPb());
+    }
+}